@@ -0,0 +1,80 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import dk.skrypalle.jasm.bench.Corpus;
+import dk.skrypalle.jasm.bench.FailingErrorListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares fused single-pass assembly against the classic semantic-analysis-then-codegen
+ * two-pass assembly, per source file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssemblerPassBenchmark {
+
+    @Param({
+            "generic_array",
+            "nested_try_catch_parse_int",
+            "lambda_capture_args",
+            "lookup_switch_string",
+            "table_switch",
+    })
+    public String source;
+
+    @Param({"true", "false"})
+    public boolean singlePass;
+
+    private String jasmSourceCode;
+    private AssemblerOptions options;
+
+    @Setup
+    public void setUp() {
+        jasmSourceCode = Corpus.loadJasmSource(source);
+        options = AssemblerOptions.defaults().withSinglePass(singlePass);
+    }
+
+    @Benchmark
+    public Assembly assemble() {
+        return Assemblers.fromString(
+                jasmSourceCode,
+                source,
+                options,
+                new FailingErrorListener(),
+                false
+        ).assemble();
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import dk.skrypalle.jasm.bench.Corpus;
+import dk.skrypalle.jasm.bench.FailingErrorListener;
+import dk.skrypalle.jasm.generated.JasmParser.JasmFileContext;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each phase of the assembler in isolation over a whole corpus of jASM source files,
+ * see {@linkplain Corpus#loadJasmSources(String)}. Each phase starts from the output of the
+ * previous one, which is prepared once per trial:
+ *
+ * <ol>
+ * <li>{@code lex} - tokenizing the source, including decoding it into a char stream</li>
+ * <li>{@code parse} - building the parse tree from pre-lexed tokens</li>
+ * <li>{@code semanticPass} - visiting the parse tree without generating code</li>
+ * <li>{@code codegenPass} - visiting the parse tree into a class writer, including frame and
+ * max computation</li>
+ * <li>{@code toByteArray} - serializing the class writers filled by the code generation pass,
+ * which are prepared before each invocation</li>
+ * </ol>
+ *
+ * <p>With {@code parallelMethods}, the methods of each source are parsed and visited in
+ * parallel, see {@linkplain AssemblerOptions#isParallelMethods()}. Lexing and serializing are not
+ * affected.
+ *
+ * <p>One operation processes the whole corpus. Run with the GC profiler, i.e.
+ * {@code -Djmh.args="AssemblerPhaseBenchmark -prof gc"}, to have {@code gc.alloc.rate} and
+ * {@code gc.alloc.rate.norm} report the allocation rate and the bytes allocated per corpus.
+ * The allocations of {@code toByteArray} include refilling the class writers, i.e. those of
+ * {@code codegenPass} have to be subtracted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssemblerPhaseBenchmark {
+
+    @Param({"library", "tests", "jdk"})
+    public String corpus;
+
+    @Param({"false", "true"})
+    public boolean parallelMethods;
+
+    private List<Corpus.JasmSource> sources;
+    private List<List<? extends Token>> tokens;
+    private List<JasmFileContext> parseTrees;
+    private boolean[] hasExplicitFrames;
+    private AssemblerOptions options;
+
+    @Setup
+    public void setUp() {
+        sources = Corpus.loadJasmSources(corpus);
+        options = AssemblerOptions.defaults().withParallelMethods(parallelMethods);
+
+        tokens = new ArrayList<>();
+        parseTrees = new ArrayList<>();
+        hasExplicitFrames = new boolean[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            var source = sources.get(i);
+            var errorListener = new FailingErrorListener();
+            var lexer = newLexer(source, errorListener);
+            tokens.add(lexer.getAllTokens());
+            hasExplicitFrames[i] = lexer.hasStackDirectives();
+
+            lexer = newLexer(source, errorListener);
+            parseTrees.add(new AssemblerParser(lexer, errorListener).parseJasmFile());
+        }
+    }
+
+    @Benchmark
+    public void lex(Blackhole blackhole) {
+        for (var source : sources) {
+            var lexer = newLexer(source, new FailingErrorListener());
+            for (var token = lexer.nextToken(); token.getType() != Token.EOF; ) {
+                blackhole.consume(token);
+                token = lexer.nextToken();
+            }
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (var sourceTokens : tokens) {
+            var tokenSource = new ListTokenSource(sourceTokens);
+            if (parallelMethods) {
+                var parseTree = ParallelMethodParser.parseJasmFile(tokenSource);
+                if (parseTree == null) {
+                    throw new IllegalStateException("Failed to parse in parallel");
+                }
+                blackhole.consume(parseTree);
+            } else {
+                var parser = new AssemblerParser(
+                        new CommonTokenStream(tokenSource),
+                        new FailingErrorListener()
+                );
+                blackhole.consume(parser.parseJasmFile());
+            }
+        }
+    }
+
+    @Benchmark
+    public void semanticPass(Blackhole blackhole) {
+        for (var parseTree : parseTrees) {
+            var visitor = new AssemblerVisitor(
+                    new FailingErrorListener(),
+                    NoOpClassVisitor.INSTANCE,
+                    options
+            );
+            visitor.visit(parseTree);
+            blackhole.consume(visitor.getClassName());
+        }
+    }
+
+    @Benchmark
+    public void codegenPass(Blackhole blackhole) {
+        for (int i = 0; i < parseTrees.size(); i++) {
+            blackhole.consume(generateCode(i));
+        }
+    }
+
+    @Benchmark
+    public void toByteArray(ClassWriters classWriters, Blackhole blackhole) {
+        for (var classWriter : classWriters.classWriters) {
+            blackhole.consume(classWriter.toByteArray());
+        }
+    }
+
+    private DeferredClassWriter generateCode(int index) {
+        var classWriter = new DeferredClassWriter(
+                options.getFramePolicy(),
+                hasExplicitFrames[index],
+                options.getClassHierarchyProvider()
+        );
+        new AssemblerVisitor(
+                new FailingErrorListener(),
+                classWriter,
+                options
+        ).visit(parseTrees.get(index));
+        return classWriter;
+    }
+
+    private static AssemblerLexer newLexer(
+            Corpus.JasmSource source,
+            FailingErrorListener errorListener) {
+        var input = CharStreams.fromString(source.getJasmSourceCode(), source.getName());
+        return new AssemblerLexer(input, errorListener);
+    }
+
+    /**
+     * Class writers filled by the code generation pass, ready to be serialized. They are
+     * refilled before each invocation, which is affordable since one invocation serializes the
+     * whole corpus.
+     */
+    @State(Scope.Thread)
+    public static class ClassWriters {
+
+        private final List<DeferredClassWriter> classWriters = new ArrayList<>();
+
+        @Setup(Level.Invocation)
+        public void setUp(AssemblerPhaseBenchmark benchmark) {
+            classWriters.clear();
+            for (int i = 0; i < benchmark.parseTrees.size(); i++) {
+                classWriters.add(benchmark.generateCode(i));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,307 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.bench;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.disassembler.Disassembly;
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.ClassVisitor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
+
+/**
+ * Benchmark input. Besides single source files, three corpora of jASM source files are
+ * available, each containing only sources that assemble without errors. The {@code library}
+ * and {@code jdk} corpora are available as class files as well:
+ *
+ * <ul>
+ * <li>{@code tests} - the hand-written sources of the assembler integration tests</li>
+ * <li>{@code library} - the disassembled class files of ASM and Commons Lang, which are on the
+ * benchmark class path anyway</li>
+ * <li>{@code jdk} - a sample of the disassembled JDK classes listed in {@code se12_working.txt},
+ * read from the running JDK. This requires a JDK whose class files ASM can read.</li>
+ * </ul>
+ */
+public final class Corpus {
+
+    private static final String ASSEMBLER_RESOURCES = "/dk/skrypalle/jasm/it/assembler/";
+    private static final String WORKING_JDK_CLASSES = "/dk/skrypalle/jasm/it/jdk/se12_working.txt";
+    private static final Class<?>[] LIBRARY_CLASSES = {ClassVisitor.class, StringUtils.class};
+    private static final int JDK_SAMPLE_SIZE = 400;
+
+    public static String loadJasmSource(String name) {
+        return loadResource(ASSEMBLER_RESOURCES + name + ".jasm");
+    }
+
+    /**
+     * Loads the jASM source files of the named corpus.
+     *
+     * @param corpus one of {@code tests}, {@code library} or {@code jdk}
+     * @return the sources, none of which fail to assemble
+     * @throws IllegalStateException if the corpus is empty
+     */
+    public static List<JasmSource> loadJasmSources(String corpus) {
+        List<JasmSource> sources;
+        switch (corpus) {
+            case "tests":
+                sources = loadAssemblerTestSources();
+                break;
+            case "library":
+                sources = disassemble(loadLibraryClassFiles());
+                break;
+            case "jdk":
+                sources = disassemble(loadJdkClassFiles());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown corpus " + corpus);
+        }
+
+        var assemblable = sources.stream()
+                .filter(Corpus::assembles)
+                .collect(Collectors.toList());
+        if (assemblable.isEmpty()) {
+            throw new IllegalStateException(String.format(
+                    "Corpus %s is empty. The jdk corpus requires a JDK ASM can read.",
+                    corpus
+            ));
+        }
+        return assemblable;
+    }
+
+    /**
+     * Loads the class files of the named corpus.
+     *
+     * @param corpus one of {@code library} or {@code jdk}
+     * @return the class files, none of which fail to disassemble
+     * @throws IllegalStateException if the corpus is empty
+     */
+    public static List<ClassFile> loadClassFiles(String corpus) {
+        List<ClassFile> classFiles;
+        switch (corpus) {
+            case "library":
+                classFiles = loadLibraryClassFiles();
+                break;
+            case "jdk":
+                classFiles = loadJdkClassFiles();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown corpus " + corpus);
+        }
+
+        var disassemblable = classFiles.stream()
+                .filter(classFile -> disassemble(classFile) != null)
+                .collect(Collectors.toList());
+        if (disassemblable.isEmpty()) {
+            throw new IllegalStateException(String.format(
+                    "Corpus %s is empty. The jdk corpus requires a JDK ASM can read.",
+                    corpus
+            ));
+        }
+        return disassemblable;
+    }
+
+    /**
+     * Loads all class files of the libraries the {@code library} corpus is made of.
+     *
+     * @return the class files
+     */
+    public static List<ClassFile> loadLibraryClassFiles() {
+        var classFiles = new ArrayList<ClassFile>();
+        for (var libraryClass : LIBRARY_CLASSES) {
+            var jar = locate(libraryClass);
+            try (var zipFile = new ZipFile(jar.toFile())) {
+                var entries = zipFile.stream()
+                        .filter(entry -> entry.getName().endsWith(".class"))
+                        .filter(entry -> !entry.getName().endsWith("module-info.class"))
+                        .collect(Collectors.toList());
+                for (var entry : entries) {
+                    try (var in = zipFile.getInputStream(entry)) {
+                        classFiles.add(new ClassFile(entry.getName(), in.readAllBytes()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + jar, e);
+            }
+        }
+        return classFiles;
+    }
+
+    /**
+     * Loads an evenly spread sample of the working JDK classes from the running JDK.
+     *
+     * @return the class files
+     */
+    public static List<ClassFile> loadJdkClassFiles() {
+        var classNames = loadResource(WORKING_JDK_CLASSES).lines()
+                .map(StringUtils::trimToNull)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        var step = Math.max(1, classNames.size() / JDK_SAMPLE_SIZE);
+        var classFiles = new ArrayList<ClassFile>();
+        for (int i = 0; i < classNames.size(); i += step) {
+            var resourceName = "/" + classNames.get(i).replace('.', '/') + ".class";
+            try (var in = Object.class.getResourceAsStream(resourceName)) {
+                if (in != null) {
+                    classFiles.add(new ClassFile(resourceName.substring(1), in.readAllBytes()));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + resourceName, e);
+            }
+        }
+        return classFiles;
+    }
+
+    private static List<JasmSource> loadAssemblerTestSources() {
+        Path directory;
+        try {
+            directory = Paths.get(Corpus.class.getResource(ASSEMBLER_RESOURCES).toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+
+        try (var files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.toString().endsWith(".jasm"))
+                    .sorted()
+                    .map(Corpus::readJasmSource)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + directory, e);
+        }
+    }
+
+    private static List<JasmSource> disassemble(List<ClassFile> classFiles) {
+        var sources = new ArrayList<JasmSource>();
+        for (var classFile : classFiles) {
+            var disassembly = disassemble(classFile);
+            if (disassembly != null) {
+                sources.add(new JasmSource(
+                        disassembly.getJvmClassName(),
+                        disassembly.getJasmSourceCode()
+                ));
+            }
+        }
+        return sources;
+    }
+
+    private static Disassembly disassemble(ClassFile classFile) {
+        return Disassemblers.fromBinary(
+                classFile.getBinaryData(),
+                classFile.getName(),
+                new SilentDisassemblerErrorListener(),
+                false
+        ).disassemble();
+    }
+
+    private static boolean assembles(JasmSource source) {
+        var assembly = Assemblers.fromString(
+                source.getJasmSourceCode(),
+                source.getName(),
+                new SilentErrorListener(),
+                false
+        ).assemble();
+        return assembly != null;
+    }
+
+    private static JasmSource readJasmSource(Path path) {
+        try {
+            return new JasmSource(
+                    path.getFileName().toString(),
+                    Files.readString(path, StandardCharsets.UTF_8)
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + path, e);
+        }
+    }
+
+    private static Path locate(Class<?> libraryClass) {
+        try {
+            var location = libraryClass.getProtectionDomain().getCodeSource().getLocation();
+            return Paths.get(location.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String loadResource(String resourceName) {
+        try (var in = Corpus.class.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No such resource " + resourceName);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read resource " + resourceName, e);
+        }
+    }
+
+    private Corpus() { /* static utility */ }
+
+    public static final class JasmSource {
+
+        private final String name;
+        private final String jasmSourceCode;
+
+        JasmSource(String name, String jasmSourceCode) {
+            this.name = name;
+            this.jasmSourceCode = jasmSourceCode;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getJasmSourceCode() {
+            return jasmSourceCode;
+        }
+
+    }
+
+    public static final class ClassFile {
+
+        private final String name;
+        private final byte[] binaryData;
+
+        ClassFile(String name, byte[] binaryData) {
+            this.name = name;
+            this.binaryData = binaryData;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public byte[] getBinaryData() {
+            return binaryData;
+        }
+
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.bench;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.disassembler.Disassembly;
+import dk.skrypalle.jasm.it.util.ScalingCorpus;
+import dk.skrypalle.jasm.it.util.ScalingCorpus.Axis;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how assembly and disassembly scale along each axis of the
+ * {@linkplain ScalingCorpus}, at a quarter of and at the maximum size of the axis. Disassembly
+ * is measured in both the two-pass and the single-pass mode.
+ *
+ * <p>Growing linearly, the score at the maximum size is about four times the score at a quarter
+ * of it; growing quadratically, about sixteen times. Compare the {@code fraction} rows of an
+ * axis, e.g. {@code -Djmh.args="ScalingBenchmark -p axis=GENERIC_DEPTH"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScalingBenchmark {
+
+    @Param({"CODE_SIZE", "CONSTANT_POOL", "LABELS", "GENERIC_DEPTH", "LOOKUPSWITCH"})
+    public Axis axis;
+
+    @Param({"4", "1"})
+    public int fraction;
+
+    private String jasmSourceCode;
+    private byte[] binaryData;
+
+    @Setup
+    public void setUp() {
+        var size = axis.getMaxSize() / fraction;
+        jasmSourceCode = ScalingCorpus.generateJasm(axis, size);
+        binaryData = ScalingCorpus.generateClass(axis, size);
+    }
+
+    @Benchmark
+    public Assembly assemble() {
+        var assembly = Assemblers.fromString(
+                jasmSourceCode,
+                axis.getJvmClassName(),
+                new FailingErrorListener(),
+                false
+        ).assemble();
+
+        if (assembly == null) {
+            throw new IllegalStateException("Failed to assemble " + axis);
+        }
+        return assembly;
+    }
+
+    @Benchmark
+    public Disassembly disassemble() {
+        return disassembleWith(DisassemblerOptions.defaults());
+    }
+
+    @Benchmark
+    public Disassembly disassembleSinglePass() {
+        return disassembleWith(DisassemblerOptions.defaults().withSinglePass(true));
+    }
+
+    private Disassembly disassembleWith(DisassemblerOptions options) {
+        var disassembly = Disassemblers.fromBinary(
+                binaryData,
+                axis.getJvmClassName(),
+                options,
+                new FailingDisassemblerErrorListener(),
+                false
+        ).disassemble();
+
+        if (disassembly == null) {
+            throw new IllegalStateException("Failed to disassemble " + axis);
+        }
+        return disassembly;
+    }
+
+}
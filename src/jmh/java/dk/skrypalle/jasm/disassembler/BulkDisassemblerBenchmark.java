@@ -0,0 +1,109 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import dk.skrypalle.jasm.bench.Corpus;
+import dk.skrypalle.jasm.bench.FailingDisassemblerErrorListener;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Measures jar-scale disassembly, i.e. {@linkplain BulkDisassembler} reading a jar of all class
+ * files of a corpus and writing the mirrored tree of jASM source files to disk. One operation
+ * disassembles the whole jar.
+ *
+ * <p>Run with the GC profiler, i.e. {@code -Djmh.args="BulkDisassemblerBenchmark -prof gc"}, to
+ * have {@code gc.alloc.rate.norm} report the bytes allocated per jar. Note that the profiler
+ * only accounts for the allocations of the benchmark thread, not those of the workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkDisassemblerBenchmark {
+
+    @Param({"library", "jdk"})
+    public String corpus;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path workDirectory;
+    private Path jar;
+    private Path outputDirectory;
+    private int numberOfClasses;
+
+    @Setup
+    public void setUp() throws IOException {
+        var classFiles = Corpus.loadClassFiles(corpus);
+        numberOfClasses = classFiles.size();
+
+        workDirectory = Files.createTempDirectory("jdsm-bench");
+        outputDirectory = workDirectory.resolve("out");
+        jar = workDirectory.resolve(corpus + ".jar");
+        try (var out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (var classFile : classFiles) {
+                out.putNextEntry(new JarEntry(classFile.getName()));
+                out.write(classFile.getBinaryData());
+                out.closeEntry();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(workDirectory.toFile());
+    }
+
+    @Benchmark
+    public BulkDisassembly disassembleJar() throws InterruptedException {
+        var disassembly = Disassemblers.fromJar(
+                jar,
+                DisassemblerOptions.defaults(),
+                parallelism,
+                new FailingDisassemblerErrorListener(),
+                false
+        ).disassembleTo(outputDirectory);
+
+        if (disassembly.getNumberOfClasses() != numberOfClasses) {
+            throw new IllegalStateException("Unexpected outcome " + disassembly);
+        }
+        return disassembly;
+    }
+
+}
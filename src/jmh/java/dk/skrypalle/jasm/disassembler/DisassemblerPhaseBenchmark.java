@@ -0,0 +1,167 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import dk.skrypalle.jasm.bench.Corpus;
+import dk.skrypalle.jasm.bench.FailingDisassemblerErrorListener;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the passes of the disassembler in isolation, either over a whole corpus of class
+ * files, see {@linkplain Corpus#loadClassFiles(String)}, or over its largest class file only:
+ *
+ * <ul>
+ * <li>{@code labelPass} - the label pass of the two-pass mode, including linking</li>
+ * <li>{@code printPass} - the single-pass print pass, naming labels on the fly, into a reused
+ * buffer</li>
+ * <li>{@code printPassTwoPass} - the print pass of the two-pass mode, consuming label trackers
+ * prepared before each invocation</li>
+ * <li>{@code disassemble} - the public {@linkplain Disassembler#disassemble()}, which
+ * materializes the source code of each class as a new String. Since the class file is streamed
+ * rather than rendered via {@code ClassFile.toString()}, its difference to {@code printPass} is
+ * the cost of that String.</li>
+ * </ul>
+ *
+ * <p>One operation processes the whole selection. Run with the GC profiler, i.e.
+ * {@code -Djmh.args="DisassemblerPhaseBenchmark -prof gc"}, to have {@code gc.alloc.rate} and
+ * {@code gc.alloc.rate.norm} report the allocation rate and the bytes allocated per operation.
+ * The allocations of {@code printPassTwoPass} include those of the label pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisassemblerPhaseBenchmark {
+
+    @Param({"library", "jdk"})
+    public String corpus;
+
+    @Param({"all", "largest"})
+    public String selection;
+
+    private List<Corpus.ClassFile> classFiles;
+    private DisassemblerOptions options;
+    private int parsingOptions;
+    private StringBuilder out;
+
+    @Setup
+    public void setUp() {
+        classFiles = Corpus.loadClassFiles(corpus);
+        if (selection.equals("largest")) {
+            var largest = classFiles.stream()
+                    .max(Comparator.comparingInt(classFile -> classFile.getBinaryData().length))
+                    .orElseThrow();
+            classFiles = List.of(largest);
+        }
+        options = DisassemblerOptions.defaults();
+        parsingOptions = options.getParsingOptions();
+        out = new StringBuilder();
+    }
+
+    @Benchmark
+    public void labelPass(Blackhole blackhole) {
+        for (var classFile : classFiles) {
+            blackhole.consume(runLabelPass(classFile));
+        }
+    }
+
+    @Benchmark
+    public void printPass(Blackhole blackhole) {
+        for (var classFile : classFiles) {
+            out.setLength(0);
+            var reader = new ClassReader(classFile.getBinaryData());
+            reader.accept(new DisassemblerClassVisitor(null, options, out), parsingOptions);
+            blackhole.consume(out);
+        }
+    }
+
+    @Benchmark
+    public void printPassTwoPass(LabelTrackerMaps labelTrackerMaps, Blackhole blackhole) {
+        for (int i = 0; i < classFiles.size(); i++) {
+            out.setLength(0);
+            var reader = new ClassReader(classFiles.get(i).getBinaryData());
+            var labelTrackerMap = labelTrackerMaps.labelTrackerMaps.get(i);
+            reader.accept(
+                    new DisassemblerClassVisitor(labelTrackerMap, options, out),
+                    parsingOptions
+            );
+            blackhole.consume(out);
+        }
+    }
+
+    @Benchmark
+    public void disassemble(Blackhole blackhole) {
+        for (var classFile : classFiles) {
+            blackhole.consume(Disassemblers.fromBinary(
+                    classFile.getBinaryData(),
+                    classFile.getName(),
+                    options,
+                    new FailingDisassemblerErrorListener(),
+                    false
+            ).disassemble());
+        }
+    }
+
+    private LabelTrackerMap runLabelPass(Corpus.ClassFile classFile) {
+        var labelTrackerMap = new LabelTrackerMap();
+        var reader = new ClassReader(classFile.getBinaryData());
+        reader.accept(new DisassemblerLabelClassVisitor(labelTrackerMap, options), parsingOptions);
+        labelTrackerMap.link();
+        return labelTrackerMap;
+    }
+
+    /**
+     * Linked label trackers for each class file. The print pass consumes them, so they are
+     * recreated before each invocation.
+     */
+    @State(Scope.Thread)
+    public static class LabelTrackerMaps {
+
+        private final List<LabelTrackerMap> labelTrackerMaps = new ArrayList<>();
+
+        @Setup(Level.Invocation)
+        public void setUp(DisassemblerPhaseBenchmark benchmark) {
+            labelTrackerMaps.clear();
+            for (var classFile : benchmark.classFiles) {
+                labelTrackerMaps.add(benchmark.runLabelPass(classFile));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import dk.skrypalle.jasm.bench.FailingDisassemblerErrorListener;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of rendering a single instruction. Each invocation disassembles a method of
+ * {@value #INSTRUCTIONS} mixed instructions into a reused buffer, and the scores are normalized
+ * per instruction.
+ *
+ * <p>Run with the GC profiler, i.e. {@code -Djmh.args="InstructionPrinterBenchmark -prof gc"},
+ * to have {@code gc.alloc.rate.norm} report the bytes allocated per instruction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstructionPrinterBenchmark {
+
+    private static final int INSTRUCTIONS = 10_000;
+    private static final int INSTRUCTIONS_PER_BLOCK = 10;
+
+    private byte[] binaryData;
+    private StringBuilder out;
+
+    @Setup
+    public void setUp() {
+        binaryData = generateClass();
+        out = new StringBuilder();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTRUCTIONS)
+    public String disassemble() {
+        out.setLength(0);
+        return Disassemblers.fromBinary(
+                binaryData,
+                "Instructions",
+                new FailingDisassemblerErrorListener(),
+                false
+        ).disassembleTo(out);
+    }
+
+    private static byte[] generateClass() {
+        var cw = new ClassWriter(0);
+        cw.visit(
+                Opcodes.V1_6,
+                Opcodes.ACC_PUBLIC,
+                "Instructions",
+                null,
+                "java/lang/Object",
+                null
+        );
+        cw.visitField(Opcodes.ACC_PRIVATE, "field", "I", null, null).visitEnd();
+
+        var mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "instructions", "(I)V", null, null);
+        mv.visitCode();
+        for (int i = 0; i < INSTRUCTIONS / INSTRUCTIONS_PER_BLOCK; i++) {
+            var block = new Label();
+            mv.visitLabel(block);
+            mv.visitVarInsn(Opcodes.ILOAD, 1);
+            mv.visitInsn(Opcodes.ICONST_1);
+            mv.visitInsn(Opcodes.IADD);
+            mv.visitVarInsn(Opcodes.ISTORE, 1);
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitFieldInsn(Opcodes.GETFIELD, "Instructions", "field", "I");
+            mv.visitMethodInsn(
+                    Opcodes.INVOKESTATIC,
+                    "java/lang/Integer",
+                    "valueOf",
+                    "(I)Ljava/lang/Integer;",
+                    false
+            );
+            mv.visitInsn(Opcodes.POP);
+            mv.visitLdcInsn("constant");
+            mv.visitJumpInsn(Opcodes.IFNULL, block);
+        }
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(2, 2);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+}
@@ -66,6 +66,7 @@ methodSpec
       (exceptionSpec? EOL)*
       (bootstrapSpec? EOL)*
       (localVarSpec? EOL)*
+      (limitSpec? EOL)*
       instructionList?
       '.end method'
     ;
@@ -120,6 +121,10 @@ localVarSpec
     : '.var' index=INTEGER name=identifier ':' typ=typeDescriptor start=label end=label
     ;
 
+limitSpec
+    : '.limit' typ=identifier val=INTEGER
+    ;
+
 methodName
     : identifier
     | '<init>'
@@ -148,7 +153,7 @@ argList
     ;
 
 instructionList
-    : ((instruction|labelDef|lookupSwitch|tableSwitch|lineDirective)? EOL)+
+    : ((instruction|labelDef|lookupSwitch|tableSwitch|lineDirective|stackDirective)? EOL)+
     ;
 
 
@@ -358,6 +363,21 @@ lineDirective
     : '.line' line=INTEGER
     ;
 
+stackDirective
+    : '.stack' kind=identifier
+      (count=INTEGER | frameType+ | loc=frameTypeList stk=frameTypeList)?
+    ;
+
+frameTypeList
+    : '(' frameType* ')'
+    ;
+
+frameType
+    : 'null'                        #NullFrameType
+    | kind=identifier ':' dst=label #UninitializedFrameType
+    | typ=type                      #TypeFrameType
+    ;
+
 fieldSpec
     : '.field' accessSpec* name=identifier typeDescriptor
     ;
@@ -478,6 +498,8 @@ LINE_DIRECTIVE        : '.line'                  ;
 VAR_DIRECTIVE         : '.var'                   ;
 GENERIC_DIRECTIVE     : '.generic'               ;
 BOOTSTRAP_DIRECTIVE   : '.bootstrap'             ;
+LIMIT_DIRECTIVE       : '.limit'                 ;
+STACK_DIRECTIVE       : '.stack'                 ;
 
 
  //                  //                         //    //
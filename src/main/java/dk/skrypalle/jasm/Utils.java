@@ -17,6 +17,8 @@
  */
 package dk.skrypalle.jasm;
 
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
 import org.apache.commons.io.HexDump;
 import org.apache.commons.lang3.StringUtils;
 import org.objectweb.asm.Opcodes;
@@ -31,6 +33,8 @@ public final class Utils {
 
     public static final int ASM_VERSION = Opcodes.ASM7;
 
+    private static final String[] KEYWORDS = {"any", "strict", "annotation", "NaN"};
+
     /**
      * Dump an array of bytes.
      *
@@ -93,16 +97,70 @@ public final class Utils {
                 .collect(Collectors.joining("/"));
     }
 
-    private static String quoteIfKeyword(String input) {
-        switch (input) {
-            case "any":
-            case "strict":
-            case "annotation":
-            case "NaN":
-                return "\"" + input + "\"";
-            default:
-                return input;
+    /**
+     * Returns whether the input string is a keyword, which has to be quoted when used as a name.
+     *
+     * @param input the string to check
+     * @return {@code true} if the input string is a keyword
+     */
+    public static boolean isKeyword(String input) {
+        return isKeyword(input, 0, input.length());
+    }
+
+    /**
+     * Returns whether a segment of the input string is a keyword, which has to be quoted when
+     * used as a name. Unlike {@code isKeyword(input.substring(start, end))}, this does not copy
+     * the segment.
+     *
+     * @param input the string containing the segment
+     * @param start the index of the first character of the segment
+     * @param end   the index after the last character of the segment
+     * @return {@code true} if the segment is a keyword
+     */
+    public static boolean isKeyword(String input, int start, int end) {
+        var length = end - start;
+        for (String keyword : KEYWORDS) {
+            if (length == keyword.length() && input.startsWith(keyword, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the concatenated text of all tokens below a parse tree node.
+     *
+     * <p>Equivalent to {@link ParseTree#getText()}, but linear in the size of the tree. The ANTLR
+     * implementation builds an intermediate string for every node, which is quadratic for deeply
+     * nested trees such as the type arguments of a generic signature.
+     *
+     * @param tree the parse tree node
+     * @return the text of the parse tree node
+     */
+    public static String getText(ParseTree tree) {
+        if (tree instanceof TerminalNode) {
+            return tree.getText();
+        }
+
+        var buf = new StringBuilder();
+        appendText(tree, buf);
+        return buf.toString();
+    }
+
+    private static void appendText(ParseTree tree, StringBuilder buf) {
+        if (tree instanceof TerminalNode) {
+            buf.append(tree.getText());
+            return;
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            appendText(tree.getChild(i), buf);
         }
     }
 
+    private static String quoteIfKeyword(String input) {
+        return isKeyword(input)
+                ? "\"" + input + "\""
+                : input;
+    }
+
 }
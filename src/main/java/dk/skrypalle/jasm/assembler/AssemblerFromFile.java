@@ -21,7 +21,10 @@ import dk.skrypalle.jasm.assembler.err.ErrorListener;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -29,44 +32,124 @@ import java.util.Objects;
 
 class AssemblerFromFile extends BaseAssembler {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final Path jasmSourceFile;
+    private final byte[] content;
+
+    AssemblerFromFile(
+            Path jasmSourceFile,
+            AssemblerOptions options,
+            ErrorListener errorListener,
+            boolean verbose) {
+        this(jasmSourceFile, null, options, errorListener, verbose);
+    }
 
-    AssemblerFromFile(Path jasmSourceFile, ErrorListener errorListener, boolean verbose) {
-        super(errorListener, verbose);
+    /**
+     * Creates an assembler for a source file that has already been read, e.g. by the header scan
+     * of a {@linkplain BatchAssembler}. If the content is {@code null}, the file is read and
+     * errors reading it are reported as usual.
+     */
+    AssemblerFromFile(
+            Path jasmSourceFile,
+            byte[] content,
+            AssemblerOptions options,
+            ErrorListener errorListener,
+            boolean verbose) {
+        super(options, errorListener, verbose);
 
         this.jasmSourceFile = Objects.requireNonNull(jasmSourceFile, "jasmSourceFile").normalize();
+        this.content = content;
     }
 
     @Override
     protected CharStream getInput() {
-        if (!Files.exists(jasmSourceFile)) {
-            errorListener.emitInputFileDoesNotExist(jasmSourceFile);
-            return null;
+        if (content != null) {
+            return getInput(content);
         }
-        if (Files.isDirectory(jasmSourceFile)) {
-            errorListener.emitInputFileIsDirectory(jasmSourceFile);
+        if (!isReadableFile()) {
             return null;
         }
-        if (!Files.isReadable(jasmSourceFile)) {
-            errorListener.emitInputFileIsNotReadable(jasmSourceFile);
+
+        try (var channel = Files.newByteChannel(jasmSourceFile)) {
+            // decode straight from the channel into the code point buffer backing the stream.
+            // line terminators are normalized by the lexer, so there is no need for another copy.
+            return CharStreams.fromChannel(
+                    channel,
+                    StandardCharsets.UTF_8,
+                    BUFFER_SIZE,
+                    CodingErrorAction.REPORT,
+                    jasmSourceFile.toString(),
+                    channel.size()
+            );
+        } catch (IOException e) {
+            emitUnexpectedErrorWhileReading(e);
             return null;
         }
+    }
 
+    @Override
+    protected CharStream getInput(byte[] source) {
         try {
-            var jasmSource = Files.readString(jasmSourceFile, StandardCharsets.UTF_8);
+            return decode(source, jasmSourceFile.toString());
+        } catch (IOException e) {
+            emitUnexpectedErrorWhileReading(e);
+            return null;
+        }
+    }
 
-            return CharStreams.fromString(
-                    AssemblerUtils.sanitizeInput(jasmSource),
-                    jasmSourceFile.toString()
-            );
+    @Override
+    protected byte[] getSource() {
+        if (content != null) {
+            return content;
+        }
+        if (!isReadableFile()) {
+            return null;
+        }
+
+        try {
+            return Files.readAllBytes(jasmSourceFile);
         } catch (IOException e) {
-            if (verbose) {
-                errorListener.emitUnexpectedErrorWhileReadingInputFile(jasmSourceFile, e);
-            } else {
-                errorListener.emitUnexpectedErrorWhileReadingInputFile(jasmSourceFile);
-            }
+            emitUnexpectedErrorWhileReading(e);
             return null;
         }
     }
 
+    static CharStream decode(byte[] source, String sourceName) throws IOException {
+        try (var channel = Channels.newChannel(new ByteArrayInputStream(source))) {
+            return CharStreams.fromChannel(
+                    channel,
+                    StandardCharsets.UTF_8,
+                    BUFFER_SIZE,
+                    CodingErrorAction.REPORT,
+                    sourceName,
+                    source.length
+            );
+        }
+    }
+
+    private boolean isReadableFile() {
+        if (!Files.exists(jasmSourceFile)) {
+            errorListener.emitInputFileDoesNotExist(jasmSourceFile);
+            return false;
+        }
+        if (Files.isDirectory(jasmSourceFile)) {
+            errorListener.emitInputFileIsDirectory(jasmSourceFile);
+            return false;
+        }
+        if (!Files.isReadable(jasmSourceFile)) {
+            errorListener.emitInputFileIsNotReadable(jasmSourceFile);
+            return false;
+        }
+        return true;
+    }
+
+    private void emitUnexpectedErrorWhileReading(IOException e) {
+        if (verbose) {
+            errorListener.emitUnexpectedErrorWhileReadingInputFile(jasmSourceFile, e);
+        } else {
+            errorListener.emitUnexpectedErrorWhileReadingInputFile(jasmSourceFile);
+        }
+    }
+
 }
@@ -21,10 +21,9 @@ import dk.skrypalle.jasm.assembler.err.ErrorListener;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
-import static dk.skrypalle.jasm.assembler.AssemblerUtils.sanitizeInput;
-
 class AssemblerFromString extends BaseAssembler {
 
     private final String jasmSourceCode;
@@ -33,13 +32,12 @@ class AssemblerFromString extends BaseAssembler {
     AssemblerFromString(
             String jasmSourceCode,
             String sourceName,
+            AssemblerOptions options,
             ErrorListener errorListener,
             boolean verbose) {
-        super(errorListener, verbose);
+        super(options, errorListener, verbose);
 
-        this.jasmSourceCode = sanitizeInput(
-                Objects.requireNonNull(jasmSourceCode, "jasmSourceCode")
-        );
+        this.jasmSourceCode = Objects.requireNonNull(jasmSourceCode, "jasmSourceCode");
         this.sourceName = sourceName;
     }
 
@@ -48,4 +46,15 @@ class AssemblerFromString extends BaseAssembler {
         return CharStreams.fromString(jasmSourceCode, sourceName);
     }
 
+    @Override
+    protected CharStream getInput(byte[] source) {
+        // the source has been encoded from jasmSourceCode in the first place
+        return getInput();
+    }
+
+    @Override
+    protected byte[] getSource() {
+        return jasmSourceCode.getBytes(StandardCharsets.UTF_8);
+    }
+
 }
@@ -27,6 +27,7 @@ import org.antlr.v4.runtime.LexerNoViableAltException;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
 import org.antlr.v4.runtime.misc.Interval;
 import org.antlr.v4.runtime.misc.Pair;
 
@@ -81,10 +82,12 @@ class AssemblerLexer extends JasmLexer {
     private final Queue<Token> tokenStash = new ArrayDeque<>();
 
     private boolean isFirstTokenInLine = true;
+    private boolean hasStackDirectives;
     private Token previous;
 
     AssemblerLexer(CharStream input, ErrorListener errorListener) {
         super(input);
+        setInterpreter(new LineTerminatorAwareSimulator(this));
 
         removeErrorListeners();
         addErrorListener(new ErrorListenerAdapter(errorListener));
@@ -93,9 +96,17 @@ class AssemblerLexer extends JasmLexer {
     @Override
     public Token nextToken() {
         var next = next();
+        if (next.getType() == EOF && !isFirstTokenInLine) {
+            // terminate the last line if the input does not end with a line terminator
+            tokenStash.add(next);
+            next = split(next, EOL, next.getStartIndex(), next.getStopIndex());
+        }
 
         if (isFirstTokenInLine) {
             previous = null;
+            if (next.getType() == STACK_DIRECTIVE) {
+                hasStackDirectives = true;
+            }
         } else {
             if (isDirective(next)) {
                 if (peek() == ':') {
@@ -116,6 +127,16 @@ class AssemblerLexer extends JasmLexer {
         return next;
     }
 
+    /**
+     * Returns whether any {@code .stack} directive has been lexed so far, i.e. whether the source
+     * carries explicit stack map frames.
+     *
+     * @return {@code true} if at least one {@code .stack} directive has been lexed
+     */
+    boolean hasStackDirectives() {
+        return hasStackDirectives;
+    }
+
     private Token next() {
         var next = pollOrNext();
         if (isPrimitiveFollowedByClass(next) || isPrimitiveFollowedByTypeToken(next)) {
@@ -228,6 +249,29 @@ class AssemblerLexer extends JasmLexer {
         }
     }
 
+    /**
+     * Counts a lone {@code '\r'} as a line terminator, just like {@code "\n"} and
+     * {@code "\r\n"}, so the input does not need to be normalized before lexing.
+     */
+    private static class LineTerminatorAwareSimulator extends LexerATNSimulator {
+
+        private LineTerminatorAwareSimulator(JasmLexer lexer) {
+            super(lexer, _ATN, _decisionToDFA, _sharedContextCache);
+        }
+
+        @Override
+        public void consume(CharStream input) {
+            if (input.LA(1) == '\r' && input.LA(2) != '\n') {
+                line++;
+                charPositionInLine = 0;
+                input.consume();
+                return;
+            }
+            super.consume(input);
+        }
+
+    }
+
     private static class ErrorListenerAdapter extends BaseErrorListener {
 
         private final ErrorListener errorListener;
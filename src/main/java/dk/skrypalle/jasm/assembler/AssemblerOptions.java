@@ -0,0 +1,297 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import java.util.Objects;
+
+/**
+ * Immutable set of options controlling how an {@linkplain Assembler} processes its input.
+ */
+public final class AssemblerOptions {
+
+    private static final AssemblerOptions DEFAULTS = new AssemblerOptions(
+            true,
+            ClassHierarchyIndex.systemModules(),
+            FramePolicy.AUTO,
+            null,
+            false,
+            false
+    );
+
+    private final boolean singlePass;
+    private final ClassHierarchyProvider classHierarchyProvider;
+    private final FramePolicy framePolicy;
+    private final AssemblyCache cache;
+    private final boolean parallelMethods;
+    private final boolean failFast;
+
+    private AssemblerOptions(
+            boolean singlePass,
+            ClassHierarchyProvider classHierarchyProvider,
+            FramePolicy framePolicy,
+            AssemblyCache cache,
+            boolean parallelMethods,
+            boolean failFast) {
+        this.singlePass = singlePass;
+        this.classHierarchyProvider = classHierarchyProvider;
+        this.framePolicy = framePolicy;
+        this.cache = cache;
+        this.parallelMethods = parallelMethods;
+        this.failFast = failFast;
+    }
+
+    /**
+     * Returns the default options.
+     *
+     * @return the default options
+     */
+    public static AssemblerOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns whether semantic analysis and code generation are fused into a single traversal
+     * of the parse tree.
+     *
+     * <p>If {@code false}, the parse tree is walked twice: once for semantic analysis only and
+     * once more for code generation, if and only if the first walk did not yield any errors.
+     *
+     * @return {@code true} if semantic analysis and code generation run in a single traversal
+     */
+    public boolean isSinglePass() {
+        return singlePass;
+    }
+
+    /**
+     * Returns a copy of these options with the single-pass flag set to the provided value.
+     *
+     * @param singlePass whether to fuse semantic analysis and code generation
+     * @return a copy of these options
+     * @see #isSinglePass()
+     */
+    public AssemblerOptions withSinglePass(boolean singlePass) {
+        return new AssemblerOptions(
+                singlePass,
+                classHierarchyProvider,
+                framePolicy,
+                cache,
+                parallelMethods,
+                failFast
+        );
+    }
+
+    /**
+     * Returns the provider used to look up the type hierarchy while computing stack map frames.
+     * Defaults to {@linkplain ClassHierarchyIndex#systemModules()}.
+     *
+     * @return the class hierarchy provider
+     */
+    public ClassHierarchyProvider getClassHierarchyProvider() {
+        return classHierarchyProvider;
+    }
+
+    /**
+     * Returns a copy of these options using the provided class hierarchy provider.
+     *
+     * @param classHierarchyProvider the class hierarchy provider
+     * @return a copy of these options
+     * @see #getClassHierarchyProvider()
+     */
+    public AssemblerOptions withClassHierarchyProvider(
+            ClassHierarchyProvider classHierarchyProvider) {
+        return new AssemblerOptions(
+                singlePass,
+                Objects.requireNonNull(classHierarchyProvider, "classHierarchyProvider"),
+                framePolicy,
+                cache,
+                parallelMethods,
+                failFast
+        );
+    }
+
+    /**
+     * Returns the policy determining whether stack map frames and maximum stack and local sizes
+     * are computed by the assembler. Defaults to {@linkplain FramePolicy#AUTO}.
+     *
+     * @return the frame policy
+     */
+    public FramePolicy getFramePolicy() {
+        return framePolicy;
+    }
+
+    /**
+     * Returns a copy of these options using the provided frame policy.
+     *
+     * @param framePolicy the frame policy
+     * @return a copy of these options
+     * @see #getFramePolicy()
+     */
+    public AssemblerOptions withFramePolicy(FramePolicy framePolicy) {
+        return new AssemblerOptions(
+                singlePass,
+                classHierarchyProvider,
+                Objects.requireNonNull(framePolicy, "framePolicy"),
+                cache,
+                parallelMethods,
+                failFast
+        );
+    }
+
+    /**
+     * Returns the cache consulted before assembling a source, or {@code null} if caching is
+     * disabled. Caching is disabled by default.
+     *
+     * @return the assembly cache or {@code null}
+     * @see AssemblyCache
+     */
+    public AssemblyCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns a copy of these options using the provided cache.
+     *
+     * @param cache the assembly cache, or {@code null} to disable caching
+     * @return a copy of these options
+     * @see #getCache()
+     */
+    public AssemblerOptions withCache(AssemblyCache cache) {
+        return new AssemblerOptions(
+                singlePass,
+                classHierarchyProvider,
+                framePolicy,
+                cache,
+                parallelMethods,
+                failFast
+        );
+    }
+
+    /**
+     * Returns whether the methods of a class are generated in parallel.
+     *
+     * <p>If {@code true}, the methods are parsed and generated concurrently on the common
+     * {@linkplain java.util.concurrent.ForkJoinPool ForkJoinPool} and stitched together in
+     * source order afterwards. Errors are reported in source order as well. The generated class
+     * file is identical to the one generated sequentially. Input containing syntax errors is
+     * parsed again sequentially, so syntax errors are reported just as without this option.
+     * Defaults to {@code false}.
+     *
+     * @return {@code true} if methods are generated in parallel
+     */
+    public boolean isParallelMethods() {
+        return parallelMethods;
+    }
+
+    /**
+     * Returns a copy of these options with the parallel methods flag set to the provided value.
+     *
+     * @param parallelMethods whether to generate the methods of a class in parallel
+     * @return a copy of these options
+     * @see #isParallelMethods()
+     */
+    public AssemblerOptions withParallelMethods(boolean parallelMethods) {
+        return new AssemblerOptions(
+                singlePass,
+                classHierarchyProvider,
+                framePolicy,
+                cache,
+                parallelMethods,
+                failFast
+        );
+    }
+
+    /**
+     * Returns whether assembling is aborted as soon as an error has been detected.
+     *
+     * <p>If {@code true}, the parser bails out at the first syntax error, and semantic analysis
+     * runs as a separate pass ahead of code generation, stopping at the first erroneous class
+     * member. Erroneous input therefore never reaches code generation. Defaults to
+     * {@code false}.
+     *
+     * @return {@code true} if assembling fails fast
+     */
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    /**
+     * Returns a copy of these options with the fail-fast flag set to the provided value.
+     *
+     * @param failFast whether to abort assembling as soon as an error has been detected
+     * @return a copy of these options
+     * @see #isFailFast()
+     */
+    public AssemblerOptions withFailFast(boolean failFast) {
+        return new AssemblerOptions(
+                singlePass,
+                classHierarchyProvider,
+                framePolicy,
+                cache,
+                parallelMethods,
+                failFast
+        );
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        AssemblerOptions other = (AssemblerOptions) obj;
+        return new EqualsBuilder()
+                .append(this.singlePass, other.singlePass)
+                .append(this.classHierarchyProvider, other.classHierarchyProvider)
+                .append(this.framePolicy, other.framePolicy)
+                .append(this.cache, other.cache)
+                .append(this.parallelMethods, other.parallelMethods)
+                .append(this.failFast, other.failFast)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(17, 37)
+                .append(singlePass)
+                .append(classHierarchyProvider)
+                .append(framePolicy)
+                .append(cache)
+                .append(parallelMethods)
+                .append(failFast)
+                .toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AssemblerOptions{"
+                + "singlePass=" + singlePass
+                + ", classHierarchyProvider=" + classHierarchyProvider
+                + ", framePolicy=" + framePolicy
+                + ", cache=" + cache
+                + ", parallelMethods=" + parallelMethods
+                + ", failFast=" + failFast
+                + '}';
+    }
+
+}
@@ -19,21 +19,143 @@ package dk.skrypalle.jasm.assembler;
 
 import dk.skrypalle.jasm.assembler.err.ErrorListener;
 import dk.skrypalle.jasm.generated.JasmParser;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.InputMismatchException;
 import org.antlr.v4.runtime.NoViableAltException;
 import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 
 class AssemblerParser extends JasmParser {
 
+    private final ErrorListenerAdapter errorListenerAdapter;
+
     AssemblerParser(AssemblerLexer input, ErrorListener errorListener) {
-        super(new CommonTokenStream(input));
+        this(new CommonTokenStream(input), errorListener);
+    }
+
+    /**
+     * Creates a parser reading from an arbitrary token stream, e.g. one replaying previously
+     * lexed tokens, so that parsing can be measured without lexing.
+     */
+    AssemblerParser(TokenStream input, ErrorListener errorListener) {
+        super(input);
+
+        errorListenerAdapter = new ErrorListenerAdapter(errorListener);
+        removeErrorListeners();
+        addErrorListener(errorListenerAdapter);
+    }
+
+    /**
+     * Parses the input in two stages. The first stage uses the faster SLL prediction mode and
+     * bails out on the first syntax error without reporting it. Only if that happens, the input
+     * is re-parsed using full LL prediction with the default error recovery strategy, which
+     * reports all syntax errors.
+     *
+     * <p>Since the token stream buffers all tokens, lexical errors are reported exactly once,
+     * no matter which stage succeeds.
+     *
+     * @return the parse tree of the whole input
+     */
+    JasmFileContext parseJasmFile() {
+        var root = parseSll();
+        if (root != null) {
+            return root;
+        }
+
+        // stage 2: LL, report and recover
+        reset();
+        getInterpreter().setPredictionMode(PredictionMode.LL);
+        setErrorHandler(new DefaultErrorStrategy());
+        addErrorListener(errorListenerAdapter);
+        return jasmFile();
+    }
+
+    /**
+     * Parses the input in two stages, just like {@linkplain #parseJasmFile()}, except that the
+     * second stage bails out at the first syntax error as well, after having reported it.
+     *
+     * @return the parse tree of the whole input, or {@code null} if the input contains a syntax
+     *     error
+     */
+    JasmFileContext parseJasmFileFailFast() {
+        var root = parseSll();
+        if (root != null) {
+            return root;
+        }
 
+        // stage 2: LL, report the first error and bail. SLL may fail on valid input, so the
+        // first stage alone cannot tell whether there is a syntax error at all. the default
+        // error strategy is kept, so the first error is reported just like in parseJasmFile().
+        reset();
+        getInterpreter().setPredictionMode(PredictionMode.LL);
+        setErrorHandler(new DefaultErrorStrategy());
+        addErrorListener(errorListenerAdapter);
+        addErrorListener(BailingErrorListener.INSTANCE);
+        try {
+            return jasmFile();
+        } catch (ParseCancellationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the class header at the beginning of the input only, without reporting any errors.
+     * Parsing stops right after the header, so the rest of the input is neither lexed nor
+     * parsed.
+     *
+     * @return the parse tree of the header, or {@code null} if the header contains a syntax error
+     */
+    HeaderContext parseHeader() {
+        getInterpreter().setPredictionMode(PredictionMode.SLL);
+        setErrorHandler(new BailErrorStrategy());
         removeErrorListeners();
-        addErrorListener(new ErrorListenerAdapter(errorListener));
+        try {
+            while (getCurrentToken().getType() == EOL) {
+                consume();
+            }
+            return header();
+        } catch (ParseCancellationException e) {
+            return null;
+        }
+    }
+
+    private JasmFileContext parseSll() {
+        // stage 1: SLL, bail on first error
+        getInterpreter().setPredictionMode(PredictionMode.SLL);
+        setErrorHandler(new BailErrorStrategy());
+        removeErrorListeners();
+        try {
+            return jasmFile();
+        } catch (ParseCancellationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Cancels parsing as soon as a syntax error has been reported to the preceding listeners.
+     */
+    private static class BailingErrorListener extends BaseErrorListener {
+
+        private static final BailingErrorListener INSTANCE = new BailingErrorListener();
+
+        @Override
+        public void syntaxError(
+                Recognizer<?, ?> recognizer,
+                Object offendingSymbol,
+                int line,
+                int charPositionInLine,
+                String msg,
+                RecognitionException e) {
+            throw new ParseCancellationException(msg, e);
+        }
+
     }
 
     private static class ErrorListenerAdapter extends BaseErrorListener {
@@ -24,11 +24,26 @@ import java.util.List;
 
 final class AssemblerUtils {
 
-    static String sanitizeInput(String jasmSource) {
-        var input = jasmSource.replaceAll("\\r\\n?", "\n");
-        return input.endsWith("\n")
-                ? input
-                : input + '\n'; // ensure blank line at the end of the input
+    static String normalizeLineTerminators(String s) {
+        var firstCr = s.indexOf('\r');
+        if (firstCr == -1) {
+            return s;
+        }
+
+        var len = s.length();
+        var buf = new StringBuilder(len).append(s, 0, firstCr);
+        for (int i = firstCr; i < len; i++) {
+            var c = s.charAt(i);
+            if (c == '\r') {
+                buf.append('\n');
+                if (i + 1 < len && s.charAt(i + 1) == '\n') {
+                    i++;
+                }
+            } else {
+                buf.append(c);
+            }
+        }
+        return buf.toString();
     }
 
     static String toSignature(String genericSpec, String descriptor) {
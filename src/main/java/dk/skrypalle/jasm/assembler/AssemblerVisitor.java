@@ -17,6 +17,8 @@
  */
 package dk.skrypalle.jasm.assembler;
 
+import dk.skrypalle.jasm.Utils;
+import dk.skrypalle.jasm.assembler.err.DeferredErrorListener;
 import dk.skrypalle.jasm.assembler.err.ErrorListener;
 import dk.skrypalle.jasm.generated.JasmBaseVisitor;
 import dk.skrypalle.jasm.generated.JasmLexer;
@@ -25,14 +27,17 @@ import dk.skrypalle.jasm.generated.JasmParser.ExceptionSpecContext;
 import dk.skrypalle.jasm.generated.JasmParser.FieldSpecContext;
 import dk.skrypalle.jasm.generated.JasmParser.GenericSignatureContext;
 import dk.skrypalle.jasm.generated.JasmParser.GenericSpecContext;
+import dk.skrypalle.jasm.generated.JasmParser.LimitSpecContext;
 import dk.skrypalle.jasm.generated.JasmParser.LocalVarSpecContext;
 import dk.skrypalle.jasm.generated.JasmParser.MemberSpecContext;
+import org.antlr.v4.runtime.Token;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Opcodes;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static dk.skrypalle.jasm.assembler.AssemblerUtils.hasTypeToken;
 import static dk.skrypalle.jasm.assembler.AssemblerUtils.isGenericDescriptor;
@@ -56,13 +61,31 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
     private final IdentifierVisitor identifierVisitor;
     private final TypeVisitor typeVisitor;
 
+    private final AssemblerOptions options;
+
     private String className;
 
     AssemblerVisitor(ErrorListener errorListener, ClassVisitor classVisitor) {
+        this(errorListener, classVisitor, AssemblerOptions.defaults());
+    }
+
+    AssemblerVisitor(
+            ErrorListener errorListener,
+            ClassVisitor classVisitor,
+            AssemblerOptions options) {
+        this(errorListener, classVisitor, new TypeTokenMap(), options);
+    }
+
+    private AssemblerVisitor(
+            ErrorListener errorListener,
+            ClassVisitor classVisitor,
+            TypeTokenMap typeTokenMap,
+            AssemblerOptions options) {
         this.errorListener = errorListener;
         this.classVisitor = classVisitor;
+        this.typeTokenMap = typeTokenMap;
+        this.options = options;
 
-        typeTokenMap = new TypeTokenMap();
         identifierVisitor = new IdentifierVisitor(errorListener);
         typeVisitor = new TypeVisitor(errorListener, identifierVisitor);
     }
@@ -74,12 +97,79 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
     @Override
     public Object visitJasmFile(JasmFileContext ctx) {
         visit(ctx.header());
-        for (MemberSpecContext memberSpec : ctx.memberSpec()) {
-            visitMemberSpec(memberSpec);
+        var memberSpecs = ctx.memberSpec();
+        if (options.isParallelMethods()
+                && !options.isFailFast()
+                && countMethods(memberSpecs) > 1) {
+            visitMemberSpecsInParallel(memberSpecs);
+        } else {
+            for (MemberSpecContext memberSpec : memberSpecs) {
+                if (isAborted()) {
+                    break;
+                }
+                visitMemberSpec(memberSpec);
+            }
         }
         return null;
     }
 
+    private void visitMemberSpecsInParallel(List<MemberSpecContext> memberSpecs) {
+        // generate all methods concurrently, each one detached from the class and reporting to
+        // an error listener of its own. stitching them together in source order afterwards
+        // yields the same class file and the same errors as visiting them one by one.
+        var methods = memberSpecs.parallelStream()
+                .map(MemberSpecContext::methodSpec)
+                .map(methodSpec -> methodSpec == null ? null : visitDetached(methodSpec))
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < memberSpecs.size() && !isAborted(); i++) {
+            var method = methods.get(i);
+            if (method == null) {
+                visitMemberSpec(memberSpecs.get(i));
+            } else {
+                method.errorListener.replayTo(errorListener);
+                acceptDetached(memberSpecs.get(i).methodSpec(), method.method);
+            }
+        }
+    }
+
+    private void acceptDetached(MethodSpecContext ctx, DetachedMethod method) {
+        try {
+            method.accept(target());
+        } catch (TypeNotPresentException e) {
+            // frames are only computed once the detached method is replayed into the class
+            var name = identifierVisitor.visitMethodName(ctx.name);
+            errorListener.emitUnresolvableType(ctx.name.start, name, e.typeName());
+        }
+    }
+
+    private DetachedMethodSpec visitDetached(MethodSpecContext ctx) {
+        var methodErrorListener = new DeferredErrorListener();
+        var method = new DetachedMethod();
+        new AssemblerVisitor(
+                methodErrorListener,
+                method,
+                typeTokenMap.forMethod(),
+                options.withParallelMethods(false)
+        ).visitMethodSpec(ctx);
+        return new DetachedMethodSpec(method, methodErrorListener);
+    }
+
+    /**
+     * Returns whether the traversal is supposed to stop, either because the error cap of the
+     * error listener has been reached or because of an error in fail-fast mode.
+     */
+    private boolean isAborted() {
+        return errorListener.isMaxErrorsReached()
+                || options.isFailFast() && errorListener.getNumberOfErrors() > 0;
+    }
+
+    private static long countMethods(List<MemberSpecContext> memberSpecs) {
+        return memberSpecs.stream()
+                .filter(memberSpec -> memberSpec.methodSpec() != null)
+                .count();
+    }
+
     @Override
     public Object visitHeader(HeaderContext ctx) {
         visitSource(ctx.source());
@@ -99,7 +189,7 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
         var version = visitBytecodeVersion(ctx.bytecodeVersion());
 
         className = classSpec.name.getText();
-        classVisitor.visit(
+        target().visit(
                 version,
                 access,
                 className,
@@ -174,7 +264,7 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
         }
 
         var sourceName = identifierVisitor.visitString(ctx.sourceFile);
-        classVisitor.visitSource(sourceName, null);
+        target().visitSource(sourceName, null);
         return null;
     }
 
@@ -268,7 +358,7 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
         var rawDescriptor = toRawMethodDescriptor(descriptor, typeTokenMap);
         var ex = AssemblerUtils.toRawExceptions(descriptor, typeTokenMap);
 
-        var method = classVisitor.visitMethod(
+        var method = target().visitMethod(
                 access,
                 name,
                 rawDescriptor,
@@ -300,6 +390,7 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
         }
 
         var instrVisitor = new InstructionVisitor(
+                errorListener,
                 method,
                 labelTracker,
                 bootstrapTracker,
@@ -325,11 +416,51 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
             }
         }
 
-        method.visitMaxs(0, 0);
+        var maxStack = 0;
+        var maxLocals = 0;
+        for (LimitSpecContext limitSpec : ctx.limitSpec()) {
+            var value = visitLimitValue(limitSpec.val);
+            switch (identifierVisitor.visitIdentifier(limitSpec.typ)) {
+                case "stack":
+                    maxStack = value;
+                    break;
+                case "locals":
+                    maxLocals = value;
+                    break;
+                default:
+                    errorListener.emitUnknownLimitType(limitSpec.typ.start);
+                    break;
+            }
+        }
+
+        if (errorListener.getNumberOfErrors() == 0) {
+            try {
+                // ignored by ASM unless the frame policy is NONE
+                method.visitMaxs(maxStack, maxLocals);
+            } catch (TypeNotPresentException e) {
+                // frames are computed right here, so this is where an unknown type surfaces
+                errorListener.emitUnresolvableType(ctx.name.start, name, e.typeName());
+            }
+        }
 
         return null;
     }
 
+    private int visitLimitValue(Token val) {
+        var text = val.getText();
+        if (text.startsWith("-") || text.endsWith("l") || text.length() > 5) {
+            errorListener.emitIllegalLimitValue(val, 0, 0xFFFF);
+            return 0;
+        }
+
+        var value = Integer.parseInt(text);
+        if (value > 0xFFFF) {
+            errorListener.emitIllegalLimitValue(val, 0, 0xFFFF);
+            return 0;
+        }
+        return value;
+    }
+
     private String getMethodSignature(
             String descriptor,
             GenericSignatureContext genericSignatureContext) {
@@ -353,7 +484,7 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
 
     @Override
     public String visitGenericSignature(GenericSignatureContext ctx) {
-        return ctx.getText();
+        return Utils.getText(ctx);
     }
 
     @Override
@@ -372,7 +503,7 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
         var name = identifierVisitor.visitIdentifier(ctx.name);
         var descriptor = typeVisitor.visitTypeDescriptor(ctx.typeDescriptor());
 
-        var field = classVisitor.visitField(
+        var field = target().visitField(
                 access,
                 name,
                 descriptor,
@@ -401,6 +532,17 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
         throw new UnsupportedOperationException("Cannot provide default result.");
     }
 
+    /**
+     * Returns the {@linkplain ClassVisitor} code is generated into. Once an error has been
+     * reported, generated code is going to be discarded anyway, so the remaining traversal
+     * only performs semantic analysis.
+     */
+    private ClassVisitor target() {
+        return errorListener.getNumberOfErrors() == 0
+                ? classVisitor
+                : NoOpClassVisitor.INSTANCE;
+    }
+
     private int visitAccessSpecs(List<AccessSpecContext> specs) {
         var access = 0;
         for (AccessSpecContext spec : specs) {
@@ -409,4 +551,16 @@ class AssemblerVisitor extends JasmBaseVisitor<Object> {
         return access;
     }
 
+    private static class DetachedMethodSpec {
+
+        private final DetachedMethod method;
+        private final DeferredErrorListener errorListener;
+
+        private DetachedMethodSpec(DetachedMethod method, DeferredErrorListener errorListener) {
+            this.method = method;
+            this.errorListener = errorListener;
+        }
+
+    }
+
 }
@@ -20,37 +20,226 @@ package dk.skrypalle.jasm.assembler;
 import dk.skrypalle.jasm.assembler.err.ErrorListener;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static dk.skrypalle.jasm.assembler.AssemblerOptions.defaults;
+import static java.util.concurrent.ForkJoinPool.commonPool;
 
 public final class Assemblers {
 
     public static Assembler fromString(
             String jasmSourceCode,
             String sourceName,
+            AssemblerOptions options,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return new AssemblerFromString(jasmSourceCode, sourceName, options, errorListener, verbose);
+    }
+
+    public static Assembler fromString(
+            String jasmSourceCode,
+            String sourceName,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return fromString(jasmSourceCode, sourceName, defaults(), errorListener, verbose);
+    }
+
+    public static Assembler fromString(
+            String jasmSourceCode,
+            AssemblerOptions options,
             ErrorListener errorListener,
             boolean verbose) {
-        return new AssemblerFromString(jasmSourceCode, sourceName, errorListener, verbose);
+        return fromString(jasmSourceCode, "<nil>", options, errorListener, verbose);
     }
 
     public static Assembler fromString(
             String jasmSourceCode,
             ErrorListener errorListener,
             boolean verbose) {
-        return new AssemblerFromString(jasmSourceCode, "<nil>", errorListener, verbose);
+        return fromString(jasmSourceCode, "<nil>", errorListener, verbose);
+    }
+
+    public static Assembler fromFile(
+            Path jasmSourceFile,
+            AssemblerOptions options,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return new AssemblerFromFile(jasmSourceFile, options, errorListener, verbose);
     }
 
     public static Assembler fromFile(
             Path jasmSourceFile,
             ErrorListener errorListener,
             boolean verbose) {
-        return new AssemblerFromFile(jasmSourceFile, errorListener, verbose);
+        return fromFile(jasmSourceFile, defaults(), errorListener, verbose);
+    }
+
+    public static Assembler fromFile(
+            File jasmSourceFile,
+            AssemblerOptions options,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return fromFile(jasmSourceFile.toPath(), options, errorListener, verbose);
     }
 
     public static Assembler fromFile(
             File jasmSourceFile,
             ErrorListener errorListener,
             boolean verbose) {
-        return new AssemblerFromFile(jasmSourceFile.toPath(), errorListener, verbose);
+        return fromFile(jasmSourceFile.toPath(), errorListener, verbose);
+    }
+
+    /**
+     * Creates a batch assembler for the provided source files, assembling them in parallel on
+     * the provided executor.
+     *
+     * @param jasmSourceFiles      the source files to assemble
+     * @param options              the assembler options applied to every source file
+     * @param executor             the executor to assemble the source files on
+     * @param errorListenerFactory creates a dedicated error listener per source name
+     * @param verbose              whether to report errors verbosely
+     * @return the batch assembler
+     */
+    public static BatchAssembler fromFiles(
+            Collection<Path> jasmSourceFiles,
+            AssemblerOptions options,
+            Executor executor,
+            Function<String, ? extends ErrorListener> errorListenerFactory,
+            boolean verbose) {
+        var sources = jasmSourceFiles.stream()
+                .map(file -> new BatchAssembler.Source(
+                        file.toString(),
+                        () -> readSilently(file),
+                        (batchOptions, errorListener, content) -> new AssemblerFromFile(
+                                file,
+                                content,
+                                batchOptions,
+                                errorListener,
+                                verbose
+                        )
+                ))
+                .collect(Collectors.toList());
+        return new BatchAssembler(sources, options, executor, errorListenerFactory);
+    }
+
+    public static BatchAssembler fromFiles(
+            Collection<Path> jasmSourceFiles,
+            AssemblerOptions options,
+            Function<String, ? extends ErrorListener> errorListenerFactory,
+            boolean verbose) {
+        return fromFiles(jasmSourceFiles, options, commonPool(), errorListenerFactory, verbose);
+    }
+
+    public static BatchAssembler fromFiles(
+            Collection<Path> jasmSourceFiles,
+            Function<String, ? extends ErrorListener> errorListenerFactory,
+            boolean verbose) {
+        return fromFiles(jasmSourceFiles, defaults(), errorListenerFactory, verbose);
+    }
+
+    /**
+     * Creates a batch assembler for the provided source code, assembling it in parallel on the
+     * provided executor.
+     *
+     * @param jasmSourcesByName the source code to assemble, keyed by source name
+     * @param options              the assembler options applied to every source
+     * @param executor             the executor to assemble the sources on
+     * @param errorListenerFactory creates a dedicated error listener per source name
+     * @param verbose              whether to report errors verbosely
+     * @return the batch assembler
+     */
+    public static BatchAssembler fromStrings(
+            Map<String, String> jasmSourcesByName,
+            AssemblerOptions options,
+            Executor executor,
+            Function<String, ? extends ErrorListener> errorListenerFactory,
+            boolean verbose) {
+        var sources = jasmSourcesByName.entrySet().stream()
+                .map(entry -> new BatchAssembler.Source(
+                        entry.getKey(),
+                        () -> entry.getValue().getBytes(StandardCharsets.UTF_8),
+                        (batchOptions, errorListener, content) -> fromString(
+                                entry.getValue(),
+                                entry.getKey(),
+                                batchOptions,
+                                errorListener,
+                                verbose
+                        )
+                ))
+                .collect(Collectors.toList());
+        return new BatchAssembler(sources, options, executor, errorListenerFactory);
+    }
+
+    public static BatchAssembler fromStrings(
+            Map<String, String> jasmSourcesByName,
+            AssemblerOptions options,
+            Function<String, ? extends ErrorListener> errorListenerFactory,
+            boolean verbose) {
+        return fromStrings(jasmSourcesByName, options, commonPool(), errorListenerFactory, verbose);
+    }
+
+    public static BatchAssembler fromStrings(
+            Map<String, String> jasmSourcesByName,
+            Function<String, ? extends ErrorListener> errorListenerFactory,
+            boolean verbose) {
+        return fromStrings(jasmSourcesByName, defaults(), errorListenerFactory, verbose);
+    }
+
+    /**
+     * Creates a class hierarchy over the system modules of the running JVM and the provided
+     * classpath. Assemblers using it as their
+     * {@linkplain AssemblerOptions#withClassHierarchyProvider(ClassHierarchyProvider) class
+     * hierarchy provider} can compute the stack map frames of classes referring to classes that
+     * are part of neither the JDK nor the assembled sources.
+     *
+     * <p>The returned index keeps the jar files of the classpath open until it is closed.
+     *
+     * @param classpath jar files and directories containing class files laid out by package
+     * @return the class hierarchy index
+     * @throws IOException              if a jar file cannot be opened
+     * @throws IllegalArgumentException if a classpath entry is neither a file nor a directory
+     */
+    public static ClassHierarchyIndex classHierarchyOf(Collection<Path> classpath)
+            throws IOException {
+        var index = new ClassHierarchyIndex().addSystemModules();
+        try {
+            for (Path entry : classpath) {
+                if (Files.isDirectory(entry)) {
+                    index.addDirectory(entry);
+                } else if (Files.isRegularFile(entry)) {
+                    index.addJar(entry);
+                } else {
+                    throw new IllegalArgumentException(
+                            "Classpath entry is neither a file nor a directory: " + entry
+                    );
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                index.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+        return index;
+    }
+
+    private static byte[] readSilently(Path jasmSourceFile) {
+        try {
+            return Files.readAllBytes(jasmSourceFile);
+        } catch (IOException e) {
+            // reported by the assembler of the file
+            return null;
+        }
     }
 
 }
@@ -21,24 +21,86 @@ import dk.skrypalle.jasm.Utils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
 public class Assembly {
 
     private final String jvmClassName;
     private final byte[] binaryData;
 
+    /**
+     * Creates a new assembly taking ownership of the provided binary data, i.e. the array must
+     * not be modified afterwards.
+     */
     Assembly(String jvmClassName, byte[] binaryData) {
         this.jvmClassName = jvmClassName;
-        this.binaryData = binaryData.clone();
+        this.binaryData = binaryData;
     }
 
     public String getJvmClassName() {
         return jvmClassName;
     }
 
+    /**
+     * Returns a copy of the assembled class file.
+     *
+     * <p>Prefer {@linkplain #asByteBuffer()} or one of the {@code writeTo} methods, which do not
+     * copy the class file.
+     *
+     * @return a copy of the assembled class file
+     */
     public byte[] getBinaryData() {
         return binaryData.clone();
     }
 
+    /**
+     * Returns a read-only view of the assembled class file. The position of the returned buffer
+     * is zero and its limit is the size of the class file.
+     *
+     * @return a read-only view of the assembled class file
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(binaryData).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the size of the assembled class file in bytes.
+     *
+     * @return the size of the assembled class file
+     */
+    public int getSize() {
+        return binaryData.length;
+    }
+
+    /**
+     * Writes the assembled class file to the provided channel.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if writing to the channel fails
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        var buffer = asByteBuffer();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes the assembled class file to the provided stream. The stream is handed copies of the
+     * class file only, just like a channel is handed a read-only view, and is not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        // not closed - that would close the stream of the caller
+        writeTo(Channels.newChannel(out));
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
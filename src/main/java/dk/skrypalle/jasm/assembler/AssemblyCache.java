@@ -0,0 +1,266 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import org.objectweb.asm.ClassReader;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An on-disk cache of assembled class files, keyed by the content of the source they have been
+ * assembled from.
+ *
+ * <p>The key of an entry is a SHA-256 hash over the source, the version of the assembler and
+ * the {@linkplain AssemblerOptions} affecting the output. The source is hashed with its line
+ * terminators normalized and its trailing line terminators removed, as neither affects the
+ * assembled class file, so checking out a source with different line endings still hits the
+ * cache. The version of the assembler is a
+ * fingerprint of its own code, so entries written by a different build of the assembler are never
+ * hit. A hit skips lexing, parsing, semantic analysis and code generation altogether. If the
+ * fingerprint cannot be computed, e.g. because the code of the assembler cannot be read, nothing
+ * is cached.
+ *
+ * <p>Sources assembled with a class hierarchy provider other than the immutable
+ * {@linkplain ClassHierarchyIndex#systemModules()} are not cached, as their output depends on
+ * classes that are not part of the key. The sources of a {@linkplain BatchAssembler} are the
+ * exception: the class headers of the whole batch are part of the key of every source of the
+ * batch.
+ *
+ * <p>The cache may be shared by concurrent assemblers and processes. Entries are written
+ * atomically, and entries that cannot be read are treated as misses.
+ */
+public final class AssemblyCache {
+
+    private static final String ENTRY_EXTENSION = ".class";
+
+    private final Path directory;
+
+    private AssemblyCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns a cache storing its entries in the provided directory. The directory is created
+     * when the first entry is stored.
+     *
+     * @param directory the cache directory
+     * @return the cache
+     */
+    public static AssemblyCache atDirectory(Path directory) {
+        return new AssemblyCache(Objects.requireNonNull(directory, "directory").toAbsolutePath());
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    boolean accepts(AssemblerOptions options) {
+        return AssemblerVersion.FINGERPRINT != null
+                && isStable(options.getClassHierarchyProvider());
+    }
+
+    private static boolean isStable(ClassHierarchyProvider classHierarchyProvider) {
+        if (classHierarchyProvider instanceof BatchClassHierarchy) {
+            return isStable(((BatchClassHierarchy) classHierarchyProvider).getParent());
+        }
+        return classHierarchyProvider == ClassHierarchyIndex.systemModules();
+    }
+
+    String key(byte[] source, AssemblerOptions options) {
+        var digest = newDigest();
+        digest.update(AssemblerVersion.FINGERPRINT);
+        digest.update(optionsKey(options).getBytes(StandardCharsets.UTF_8));
+        var classHierarchyProvider = options.getClassHierarchyProvider();
+        if (classHierarchyProvider instanceof BatchClassHierarchy) {
+            // hashed separately, so the boundary between hierarchy and source is unambiguous
+            var fingerprint = ((BatchClassHierarchy) classHierarchyProvider).fingerprint();
+            digest.update(newDigest().digest(fingerprint));
+        }
+        updateNormalized(digest, source);
+        return toHex(digest.digest());
+    }
+
+    private static void updateNormalized(MessageDigest digest, byte[] source) {
+        // '\r' and '\n' never occur within a multi-byte UTF-8 sequence
+        var end = source.length;
+        while (end > 0 && (source[end - 1] == '\n' || source[end - 1] == '\r')) {
+            end--;
+        }
+
+        var start = 0;
+        for (int i = 0; i < end; i++) {
+            if (source[i] == '\r') {
+                digest.update(source, start, i - start);
+                digest.update((byte) '\n');
+                if (i + 1 < end && source[i + 1] == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        digest.update(source, start, end - start);
+    }
+
+    Assembly lookup(String key) {
+        var entry = entry(key);
+        try {
+            if (!Files.isRegularFile(entry)) {
+                return null;
+            }
+            var binaryData = Files.readAllBytes(entry);
+            return new Assembly(new ClassReader(binaryData).getClassName(), binaryData);
+        } catch (IOException | RuntimeException e) {
+            // a broken entry is as good as a missing one - it will be overwritten on store
+            return null;
+        }
+    }
+
+    void store(String key, Assembly assembly) {
+        var entry = entry(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            var temp = Files.createTempFile(entry.getParent(), key, ".tmp");
+            try {
+                try (var channel = Files.newByteChannel(temp, StandardOpenOption.WRITE)) {
+                    assembly.writeTo(channel);
+                }
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // the cache is an optimization only; failing to fill it must not fail the assembly
+        }
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2) + ENTRY_EXTENSION);
+    }
+
+    private static String optionsKey(AssemblerOptions options) {
+        return "singlePass=" + options.isSinglePass()
+                + ";framePolicy=" + options.getFramePolicy()
+                + ";java=" + Runtime.version();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform implementation is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        var hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        AssemblyCache other = (AssemblyCache) obj;
+        return directory.equals(other.directory);
+    }
+
+    @Override
+    public int hashCode() {
+        return directory.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AssemblyCache{"
+                + "directory=" + directory
+                + '}';
+    }
+
+    /**
+     * Lazily computes the fingerprint of the assembler's own code, i.e. of the jar or class
+     * directory {@linkplain AssemblyCache} has been loaded from. The fingerprint is
+     * {@code null} if the code source is unknown.
+     */
+    private static class AssemblerVersion {
+
+        private static final byte[] FINGERPRINT = fingerprint();
+
+        private static byte[] fingerprint() {
+            var digest = newDigest();
+            CodeSource codeSource = AssemblyCache.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null) {
+                // there is no way to tell builds apart, so nothing is cached at all
+                return null;
+            }
+
+            try {
+                var location = Paths.get(codeSource.getLocation().toURI());
+                if (Files.isDirectory(location)) {
+                    for (Path file : listFiles(location)) {
+                        var name = location.relativize(file).toString();
+                        digest.update(name.getBytes(StandardCharsets.UTF_8));
+                        digest.update(Files.readAllBytes(file));
+                    }
+                } else {
+                    digest.update(Files.readAllBytes(location));
+                }
+                return digest.digest();
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                // e.g. an unreadable class file or a code source outside the default file
+                // system - without a fingerprint nothing is cached at all, and failing here
+                // would render the whole class unloadable
+                return null;
+            }
+        }
+
+        private static List<Path> listFiles(Path directory) throws IOException {
+            try (Stream<Path> files = Files.walk(directory)) {
+                return files
+                        .filter(Files::isRegularFile)
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+
+    }
+
+}
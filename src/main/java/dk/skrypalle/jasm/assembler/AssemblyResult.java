@@ -0,0 +1,74 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import dk.skrypalle.jasm.assembler.err.ErrorListener;
+
+/**
+ * The outcome of assembling a single source as part of a {@linkplain BatchAssembler batch}.
+ */
+public final class AssemblyResult {
+
+    private final String sourceName;
+    private final Assembly assembly;
+    private final ErrorListener errorListener;
+
+    AssemblyResult(String sourceName, Assembly assembly, ErrorListener errorListener) {
+        this.sourceName = sourceName;
+        this.assembly = assembly;
+        this.errorListener = errorListener;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    /**
+     * Returns the assembly of the source, or {@code null} if assembling the source failed. In
+     * that case, the failure has been reported to {@linkplain #getErrorListener()}.
+     *
+     * @return the assembly or {@code null}
+     */
+    public Assembly getAssembly() {
+        return assembly;
+    }
+
+    /**
+     * Returns the error listener that has been created for, and exclusively received the
+     * diagnostics of, this source.
+     *
+     * @return the error listener of this source
+     */
+    public ErrorListener getErrorListener() {
+        return errorListener;
+    }
+
+    public boolean isSuccessful() {
+        return assembly != null;
+    }
+
+    @Override
+    public String toString() {
+        return "AssemblyResult{"
+                + "sourceName=" + sourceName
+                + ", successful=" + isSuccessful()
+                + ", numberOfErrors=" + errorListener.getNumberOfErrors()
+                + '}';
+    }
+
+}
@@ -17,56 +17,76 @@
  */
 package dk.skrypalle.jasm.assembler;
 
+import dk.skrypalle.jasm.assembler.err.DeferredErrorListener;
 import dk.skrypalle.jasm.assembler.err.ErrorListener;
+import dk.skrypalle.jasm.generated.JasmParser.JasmFileContext;
 import org.antlr.v4.runtime.CharStream;
-import org.objectweb.asm.ClassWriter;
 
 import java.util.Objects;
 
-import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
-import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
-
 abstract class BaseAssembler implements Assembler {
 
+    protected final AssemblerOptions options;
     protected final ErrorListener errorListener;
     protected final boolean verbose;
 
-    BaseAssembler(ErrorListener errorListener, boolean verbose) {
+    BaseAssembler(AssemblerOptions options, ErrorListener errorListener, boolean verbose) {
+        this.options = Objects.requireNonNull(options, "options");
         this.errorListener = Objects.requireNonNull(errorListener, "errorListener");
         this.verbose = verbose;
     }
 
     @Override
     public final Assembly assemble() {
+        var cache = options.getCache();
+        if (cache != null && cache.accepts(options)) {
+            return assembleCached(cache);
+        }
+
         var input = getInput();
         if (input == null) {
             return null;
         }
+        return assemble(input);
+    }
 
+    private Assembly assemble(CharStream input) {
         try {
+            if (options.isParallelMethods() && !options.isFailFast()) {
+                // lexical errors are held back until the input turns out to be free of syntax
+                // errors, in which case they would have been reported first anyway
+                var lexicalErrors = new DeferredErrorListener();
+                var lexer = new AssemblerLexer(input, lexicalErrors);
+                var root = ParallelMethodParser.parseJasmFile(lexer);
+                if (root != null) {
+                    lexicalErrors.replayTo(errorListener);
+                    return assemble(root, lexer.hasStackDirectives());
+                }
+
+                // a syntax error - parse again sequentially, which reports lexical and syntax
+                // errors in the usual order
+                input.seek(0);
+            }
+
             var lexer = new AssemblerLexer(input, errorListener);
             var parser = new AssemblerParser(lexer, errorListener);
 
-            var root = parser.jasmFile();
+            if (options.isFailFast()) {
+                return assembleFailFast(lexer, parser);
+            }
+
+            var root = parser.parseJasmFile();
             if (parser.getNumberOfSyntaxErrors() > 0) {
                 return null;
             }
 
-            // pass 1: semantic analysis
-            new AssemblerVisitor(errorListener, NoOpClassVisitor.INSTANCE)
-                    .visit(root);
-
+            return assemble(root, lexer.hasStackDirectives());
+        } catch (Throwable t) {
             if (errorListener.getNumberOfErrors() > 0) {
+                // code generation choked on input that has already been reported as erroneous
                 return null;
             }
 
-            // pass 2: code generation analysis
-            var classWriter = new ClassWriter(COMPUTE_MAXS | COMPUTE_FRAMES);
-            var visitor = new AssemblerVisitor(errorListener, classWriter);
-            visitor.visit(root);
-
-            return new Assembly(visitor.getClassName(), classWriter.toByteArray());
-        } catch (Throwable t) {
             var sourceName = input.getSourceName();
             if (verbose) {
                 errorListener.emitUnexpectedErrorWhileAssembling(sourceName, t);
@@ -77,6 +97,118 @@ abstract class BaseAssembler implements Assembler {
         }
     }
 
+    private Assembly assemble(JasmFileContext root, boolean hasExplicitFrames) {
+        if (options.isSinglePass()) {
+            return assembleSinglePass(root, hasExplicitFrames);
+        }
+        return assembleTwoPass(root, hasExplicitFrames);
+    }
+
+    private Assembly assembleCached(AssemblyCache cache) {
+        var source = getSource();
+        if (source == null) {
+            return null;
+        }
+
+        var key = cache.key(source, options);
+        var assembly = cache.lookup(key);
+        if (assembly != null) {
+            return assembly;
+        }
+
+        var input = getInput(source);
+        if (input == null) {
+            return null;
+        }
+
+        assembly = assemble(input);
+        if (assembly != null) {
+            cache.store(key, assembly);
+        }
+        return assembly;
+    }
+
+    private Assembly assembleFailFast(AssemblerLexer lexer, AssemblerParser parser) {
+        var root = parser.parseJasmFileFailFast();
+        if (root == null || errorListener.getNumberOfErrors() > 0) {
+            // a syntax error or a lexical error, which does not prevent the parser from succeeding
+            return null;
+        }
+
+        // the semantic pass stops at the first error, so the class writer is never created
+        // for erroneous input
+        return assembleTwoPass(root, lexer.hasStackDirectives());
+    }
+
+    private Assembly assembleSinglePass(JasmFileContext root, boolean hasExplicitFrames) {
+        // semantic analysis and code generation in one go; the output is discarded on error
+        var classWriter = newClassWriter(hasExplicitFrames);
+        var visitor = new AssemblerVisitor(
+                errorListener,
+                classWriter,
+                options
+        );
+        visitor.visit(root);
+
+        if (errorListener.getNumberOfErrors() > 0) {
+            return null;
+        }
+
+        return new Assembly(visitor.getClassName(), classWriter.toByteArray());
+    }
+
+    private Assembly assembleTwoPass(JasmFileContext root, boolean hasExplicitFrames) {
+        // pass 1: semantic analysis
+        new AssemblerVisitor(
+                errorListener,
+                NoOpClassVisitor.INSTANCE,
+                options
+        ).visit(root);
+
+        if (errorListener.getNumberOfErrors() > 0) {
+            return null;
+        }
+
+        // pass 2: code generation analysis
+        var classWriter = newClassWriter(hasExplicitFrames);
+        var visitor = new AssemblerVisitor(
+                errorListener,
+                classWriter,
+                options
+        );
+        visitor.visit(root);
+
+        if (errorListener.getNumberOfErrors() > 0) {
+            // e.g. stack map frames depending on an unknown type
+            return null;
+        }
+
+        return new Assembly(visitor.getClassName(), classWriter.toByteArray());
+    }
+
+    private DeferredClassWriter newClassWriter(boolean hasExplicitFrames) {
+        return new DeferredClassWriter(
+                options.getFramePolicy(),
+                hasExplicitFrames,
+                options.getClassHierarchyProvider()
+        );
+    }
+
     protected abstract CharStream getInput();
 
+    /**
+     * Returns the input stream over a source previously obtained via {@linkplain #getSource()}.
+     *
+     * @param source the raw UTF-8 encoded source
+     * @return the input stream, or {@code null} if the source could not be decoded
+     */
+    protected abstract CharStream getInput(byte[] source);
+
+    /**
+     * Returns the raw UTF-8 encoded source, i.e. the content the cache key is computed from.
+     *
+     * @return the source, or {@code null} if it could not be read
+     */
+    protected abstract byte[] getSource();
+
 }
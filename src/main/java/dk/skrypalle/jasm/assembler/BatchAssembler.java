@@ -0,0 +1,210 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import dk.skrypalle.jasm.assembler.err.ErrorListener;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Assembles a batch of sources in parallel.
+ *
+ * <p>Each source is assembled by its own {@linkplain Assembler}, which reports to its own
+ * {@linkplain ErrorListener} obtained from the error listener factory. Diagnostics of different
+ * sources are therefore never mixed, even though the sources are assembled concurrently.
+ *
+ * <p>Before any source is assembled, the class headers of all sources are read, so that the
+ * stack map frames of every class can be computed with respect to every other class of the
+ * batch, not just with respect to the class hierarchy provider of the assembler options.
+ */
+public final class BatchAssembler {
+
+    private final List<Source> sources;
+    private final AssemblerOptions options;
+    private final Executor executor;
+    private final Function<String, ? extends ErrorListener> errorListenerFactory;
+
+    BatchAssembler(
+            List<Source> sources,
+            AssemblerOptions options,
+            Executor executor,
+            Function<String, ? extends ErrorListener> errorListenerFactory) {
+        this.sources = List.copyOf(sources);
+        this.options = options;
+        this.executor = executor;
+        this.errorListenerFactory = errorListenerFactory;
+    }
+
+    /**
+     * Submits all sources to the executor and returns their results in the order in which the
+     * sources have been provided.
+     *
+     * <p>The returned stream waits for each result as it is consumed, so results can be
+     * processed while later sources are still being assembled.
+     *
+     * @return the results in source order
+     */
+    public Stream<AssemblyResult> assemble() {
+        var classHierarchy = new BatchClassHierarchy(options.getClassHierarchyProvider());
+        var contents = new byte[sources.size()][];
+        var headers = IntStream.range(0, sources.size())
+                .mapToObj(i -> CompletableFuture.runAsync(
+                        () -> contents[i] = scanHeader(sources.get(i), classHierarchy),
+                        executor
+                ))
+                .toArray(CompletableFuture[]::new);
+
+        // no source is assembled before the headers of all sources are known
+        var allHeaders = CompletableFuture.allOf(headers);
+        var batchOptions = options.withClassHierarchyProvider(classHierarchy);
+        var futures = IntStream.range(0, sources.size())
+                .mapToObj(i -> allHeaders.thenApplyAsync(
+                        ignored -> assembleSource(i, contents, batchOptions),
+                        executor
+                ))
+                .collect(Collectors.toList());
+        return futures.stream()
+                .map(CompletableFuture::join);
+    }
+
+    /**
+     * Assembles the sources one after the other on the thread consuming the returned stream,
+     * ignoring the executor of this batch. The headers of all sources are read up front, but
+     * each source is assembled only when its result is consumed, so only the results that have
+     * not been consumed yet are held in memory.
+     *
+     * @return the results in source order
+     */
+    public Stream<AssemblyResult> assembleSequentially() {
+        var classHierarchy = new BatchClassHierarchy(options.getClassHierarchyProvider());
+        var contents = new byte[sources.size()][];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = scanHeader(sources.get(i), classHierarchy);
+        }
+
+        var batchOptions = options.withClassHierarchyProvider(classHierarchy);
+        return IntStream.range(0, sources.size())
+                .mapToObj(i -> assembleSource(i, contents, batchOptions));
+    }
+
+    private static byte[] scanHeader(Source source, BatchClassHierarchy classHierarchy) {
+        var content = source.content.get();
+        if (content == null) {
+            return null;
+        }
+
+        try {
+            var header = ClassHeader.scan(AssemblerFromFile.decode(content, source.name));
+            if (header != null) {
+                classHierarchy.addClassHeader(header);
+            }
+        } catch (IOException | RuntimeException e) {
+            // the source is broken - its assembler is going to report why
+        }
+        return content;
+    }
+
+    private AssemblyResult assembleSource(
+            int index,
+            byte[][] contents,
+            AssemblerOptions batchOptions) {
+        var source = sources.get(index);
+        var content = contents[index];
+        // the content is not needed any more once the source has been assembled
+        contents[index] = null;
+
+        ErrorListener errorListener = errorListenerFactory.apply(source.name);
+        var assembly = source.assemblerFactory
+                .create(batchOptions, errorListener, content)
+                .assemble();
+        return new AssemblyResult(source.name, assembly, errorListener);
+    }
+
+    /**
+     * Assembles all sources and returns their results keyed by source name, iterating in the
+     * order in which the sources have been provided.
+     *
+     * @return the results by source name
+     */
+    public Map<String, AssemblyResult> assembleAll() {
+        return assemble().collect(Collectors.toMap(
+                AssemblyResult::getSourceName,
+                Function.identity(),
+                (first, second) -> {
+                    throw new IllegalStateException(
+                            "duplicate source name " + first.getSourceName()
+                    );
+                },
+                LinkedHashMap::new
+        ));
+    }
+
+    public int size() {
+        return sources.size();
+    }
+
+    static final class Source {
+
+        private final String name;
+        private final Supplier<byte[]> content;
+        private final AssemblerFactory assemblerFactory;
+
+        /**
+         * Creates a source of a batch.
+         *
+         * @param name             the name of the source
+         * @param content          reads the raw UTF-8 encoded source without reporting errors,
+         *                         yields {@code null} if the source cannot be read
+         * @param assemblerFactory creates the assembler of the source from the content read
+         *                         for the header scan
+         */
+        Source(String name, Supplier<byte[]> content, AssemblerFactory assemblerFactory) {
+            this.name = name;
+            this.content = content;
+            this.assemblerFactory = assemblerFactory;
+        }
+
+    }
+
+    @FunctionalInterface
+    interface AssemblerFactory {
+
+        /**
+         * Creates the assembler of a source.
+         *
+         * @param options       the options of the batch
+         * @param errorListener the error listener of the source
+         * @param content       the content of the source, or {@code null} if it could not be
+         *                      read
+         * @return the assembler
+         */
+        Assembler create(AssemblerOptions options, ErrorListener errorListener, byte[] content);
+
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class hierarchy of a batch of sources, i.e. the headers of all classes of the batch, backed
+ * by the class hierarchy provider the batch is assembled with.
+ *
+ * <p>The headers of the batch take precedence, so every class of the batch may refer to every
+ * other class of the batch when computing stack map frames.
+ */
+class BatchClassHierarchy implements ClassHierarchyProvider {
+
+    private final ClassHierarchyProvider parent;
+    private final Map<String, ClassHeader> headers;
+
+    private volatile byte[] fingerprint;
+
+    BatchClassHierarchy(ClassHierarchyProvider parent) {
+        this.parent = parent;
+        this.headers = new ConcurrentHashMap<>();
+    }
+
+    void addClassHeader(ClassHeader header) {
+        headers.put(header.getName(), header);
+        fingerprint = null;
+    }
+
+    ClassHierarchyProvider getParent() {
+        return parent;
+    }
+
+    @Override
+    public ClassHeader getClassHeader(String internalName) {
+        var header = headers.get(internalName);
+        return header == null
+                ? parent.getClassHeader(internalName)
+                : header;
+    }
+
+    /**
+     * Returns a stable representation of all headers of the batch, so that the output of a
+     * source can be cached for as long as the hierarchy of the batch does not change.
+     *
+     * @return the headers of the batch, sorted by class name
+     */
+    byte[] fingerprint() {
+        var cached = fingerprint;
+        if (cached == null) {
+            cached = computeFingerprint();
+            fingerprint = cached;
+        }
+        return cached;
+    }
+
+    private byte[] computeFingerprint() {
+        var buf = new StringBuilder();
+        new TreeMap<>(headers).forEach((name, header) -> buf
+                .append(name).append(':')
+                .append(header.getSuperName()).append(':')
+                .append(String.join(",", header.interfaces())).append(':')
+                .append(header.isInterface()).append('\n'));
+        return buf.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
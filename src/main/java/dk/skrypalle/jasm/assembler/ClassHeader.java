@@ -0,0 +1,266 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import dk.skrypalle.jasm.assembler.err.DeferredErrorListener;
+import dk.skrypalle.jasm.generated.JasmLexer;
+import org.antlr.v4.runtime.CharStream;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.objectweb.asm.Opcodes;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * The part of a class file that describes the position of a class within the type hierarchy.
+ */
+public final class ClassHeader {
+
+    private static final String[] NO_INTERFACES = new String[0];
+
+    private static final byte CONSTANT_UTF8 = 1;
+    private static final byte CONSTANT_INTEGER = 3;
+    private static final byte CONSTANT_FLOAT = 4;
+    private static final byte CONSTANT_LONG = 5;
+    private static final byte CONSTANT_DOUBLE = 6;
+    private static final byte CONSTANT_CLASS = 7;
+    private static final byte CONSTANT_STRING = 8;
+    private static final byte CONSTANT_FIELDREF = 9;
+    private static final byte CONSTANT_METHODREF = 10;
+    private static final byte CONSTANT_INTERFACE_METHODREF = 11;
+    private static final byte CONSTANT_NAME_AND_TYPE = 12;
+    private static final byte CONSTANT_METHOD_HANDLE = 15;
+    private static final byte CONSTANT_METHOD_TYPE = 16;
+    private static final byte CONSTANT_DYNAMIC = 17;
+    private static final byte CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final byte CONSTANT_MODULE = 19;
+    private static final byte CONSTANT_PACKAGE = 20;
+
+    private final String name;
+    private final String superName;
+    private final String[] interfaces;
+    private final boolean isInterface;
+
+    /**
+     * Creates a new class header.
+     *
+     * @param name the internal name of the class
+     * @param superName the internal name of the super class, or {@code null} for
+     *     {@code java/lang/Object}
+     * @param interfaces the internal names of the directly implemented interfaces
+     * @param isInterface whether the class is an interface
+     */
+    public ClassHeader(String name, String superName, String[] interfaces, boolean isInterface) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.superName = superName;
+        this.interfaces = interfaces == null
+                ? NO_INTERFACES
+                : interfaces.clone();
+        this.isInterface = isInterface;
+    }
+
+    /**
+     * Reads the header of the provided class file.
+     *
+     * <p>Only the constant pool and the fields following it are decoded. Since none of the
+     * version dependent parts of the class file format are touched, this works for class files
+     * of any version, including ones newer than the bundled ASM version supports.
+     *
+     * @param classFile the binary class file
+     * @return the header of the class file
+     * @throws IllegalArgumentException if the provided bytes are not a class file
+     */
+    public static ClassHeader read(byte[] classFile) {
+        try {
+            return readHeader(ByteBuffer.wrap(classFile));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated class file", e);
+        }
+    }
+
+    /**
+     * Reads the header of a jasm source without assembling it, i.e. only the beginning of the
+     * source up to and including its {@code .implements} directives is lexed and parsed.
+     * Errors are not reported, they are up to the assembler of the source.
+     *
+     * @param jasmSource the jasm source
+     * @return the class header, or {@code null} if the source does not start with a valid header
+     */
+    static ClassHeader scan(CharStream jasmSource) {
+        // errors are discarded
+        var errorListener = new DeferredErrorListener();
+        var lexer = new AssemblerLexer(jasmSource, errorListener);
+        var header = new AssemblerParser(lexer, errorListener).parseHeader();
+        if (header == null) {
+            return null;
+        }
+
+        var classSpec = header.classSpec();
+        var superSpec = header.superSpec();
+        var isInterface = classSpec.accessSpec().stream()
+                .anyMatch(accessSpec -> accessSpec.start.getType() == JasmLexer.INTERFACE);
+        return new ClassHeader(
+                classSpec.name.getText(),
+                superSpec.name == null ? null : superSpec.name.getText(),
+                header.implementsSpec().stream()
+                        .map(implementsSpec -> implementsSpec.name.getText())
+                        .toArray(String[]::new),
+                isInterface
+        );
+    }
+
+    private static ClassHeader readHeader(ByteBuffer buf) {
+        if (buf.getInt() != 0xCAFEBABE) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        buf.getShort(); // minor version
+        buf.getShort(); // major version
+
+        var constantPoolCount = Short.toUnsignedInt(buf.getShort());
+        var offsets = new int[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            offsets[i] = buf.position();
+            var tag = buf.get();
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    var length = Short.toUnsignedInt(buf.getShort());
+                    buf.position(buf.position() + length);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    buf.position(buf.position() + 8);
+                    i++; // 8-byte constants take up two entries
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    buf.position(buf.position() + 3);
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    buf.position(buf.position() + 2);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    buf.position(buf.position() + 4);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        var access = Short.toUnsignedInt(buf.getShort());
+        var name = readClassName(buf, offsets, buf.getShort());
+        var superName = readClassName(buf, offsets, buf.getShort());
+        var interfaces = new String[Short.toUnsignedInt(buf.getShort())];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = readClassName(buf, offsets, buf.getShort());
+        }
+
+        return new ClassHeader(
+                name,
+                superName,
+                interfaces,
+                (access & Opcodes.ACC_INTERFACE) != 0
+        );
+    }
+
+    private static String readClassName(ByteBuffer buf, int[] offsets, short index) {
+        var classIndex = Short.toUnsignedInt(index);
+        if (classIndex == 0) {
+            return null;
+        }
+
+        var nameIndex = Short.toUnsignedInt(buf.getShort(offsets[classIndex] + 1));
+        var utf8Offset = offsets[nameIndex];
+        var length = Short.toUnsignedInt(buf.getShort(utf8Offset + 1));
+        try {
+            // the constant pool stores modified UTF-8, which is exactly what readUTF expects
+            var in = new ByteArrayInputStream(buf.array(), utf8Offset + 1, length + 2);
+            return new DataInputStream(in).readUTF();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed class name", e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public String[] getInterfaces() {
+        return interfaces.clone();
+    }
+
+    public boolean isInterface() {
+        return isInterface;
+    }
+
+    String[] interfaces() {
+        return interfaces;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        ClassHeader other = (ClassHeader) obj;
+        return new EqualsBuilder()
+                .append(this.name, other.name)
+                .append(this.superName, other.superName)
+                .append(this.interfaces, other.interfaces)
+                .append(this.isInterface, other.isInterface)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(17, 37)
+                .append(name)
+                .append(superName)
+                .append(interfaces)
+                .append(isInterface)
+                .toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
@@ -0,0 +1,284 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@linkplain ClassHierarchyProvider} backed by a cache of class headers.
+ *
+ * <p>Headers are either registered explicitly, e.g. for classes assembled alongside, or read
+ * lazily from the class files found in the registered jars, directories and the {@code jrt:/}
+ * image of the running JVM. Classes are never loaded. Every header is read at most once, and
+ * lookups that did not find a class are cached as well.
+ */
+public final class ClassHierarchyIndex implements ClassHierarchyProvider, Closeable {
+
+    private static final ClassHeader UNKNOWN = new ClassHeader("?", null, null, false);
+
+    private static final ClassHierarchyIndex SYSTEM = new ClassHierarchyIndex()
+            .addSystemModules()
+            .freeze();
+
+    private final Map<String, ClassHeader> headers;
+    private final List<ClassFileSource> sources;
+    private final List<FileSystem> openFileSystems;
+
+    private boolean frozen;
+
+    /**
+     * Creates a new, empty index.
+     */
+    public ClassHierarchyIndex() {
+        headers = new ConcurrentHashMap<>();
+        sources = new CopyOnWriteArrayList<>();
+        openFileSystems = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Returns the shared index over the {@code jrt:/} image of the running JVM.
+     *
+     * <p>The shared index is immutable, i.e. neither headers nor sources can be registered. Its
+     * content only depends on the running JVM, which makes it a stable key for an
+     * {@linkplain AssemblyCache}.
+     *
+     * @return the shared index over the system modules
+     */
+    public static ClassHierarchyIndex systemModules() {
+        return SYSTEM;
+    }
+
+    /**
+     * Registers the {@code jrt:/} image of the running JVM as a source of class files.
+     *
+     * @return this index
+     * @throws UnsupportedOperationException if this is the shared index over the system modules
+     */
+    public ClassHierarchyIndex addSystemModules() {
+        checkNotFrozen();
+        var jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        sources.add(new JrtSource(jrt));
+        return this;
+    }
+
+    /**
+     * Registers a jar file as a source of class files. Class files are read straight from the
+     * archive. The archive stays open until this index is closed.
+     *
+     * @param jarFile the path to the jar file
+     * @return this index
+     * @throws IOException                   if the jar file cannot be opened
+     * @throws UnsupportedOperationException if this is the shared index over the system modules
+     */
+    public ClassHierarchyIndex addJar(Path jarFile) throws IOException {
+        checkNotFrozen();
+        var fileSystem = FileSystems.newFileSystem(jarFile, (ClassLoader) null);
+        openFileSystems.add(fileSystem);
+        sources.add(new DirectorySource(fileSystem.getPath("/")));
+        return this;
+    }
+
+    /**
+     * Registers a directory containing class files, laid out by package, as a source of class
+     * files.
+     *
+     * @param directory the root directory
+     * @return this index
+     * @throws UnsupportedOperationException if this is the shared index over the system modules
+     */
+    public ClassHierarchyIndex addDirectory(Path directory) {
+        checkNotFrozen();
+        sources.add(new DirectorySource(Objects.requireNonNull(directory, "directory")));
+        return this;
+    }
+
+    /**
+     * Registers the header of the provided class file.
+     *
+     * @param classFile the binary class file
+     * @return this index
+     * @throws UnsupportedOperationException if this is the shared index over the system modules
+     */
+    public ClassHierarchyIndex addClassFile(byte[] classFile) {
+        return addClassHeader(ClassHeader.read(classFile));
+    }
+
+    /**
+     * Registers the provided class header, replacing any header previously known by the same
+     * name.
+     *
+     * @param header the class header
+     * @return this index
+     * @throws UnsupportedOperationException if this is the shared index over the system modules
+     */
+    public ClassHierarchyIndex addClassHeader(ClassHeader header) {
+        checkNotFrozen();
+        headers.put(header.getName(), header);
+        return this;
+    }
+
+    @Override
+    public ClassHeader getClassHeader(String internalName) {
+        var header = headers.get(internalName);
+        if (header == null) {
+            header = lookup(internalName);
+            var previous = headers.putIfAbsent(internalName, header);
+            if (previous != null) {
+                header = previous;
+            }
+        }
+
+        return header == UNKNOWN
+                ? null
+                : header;
+    }
+
+    private ClassHierarchyIndex freeze() {
+        frozen = true;
+        return this;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException(
+                    "The shared index over the system modules is immutable"
+            );
+        }
+    }
+
+    private ClassHeader lookup(String internalName) {
+        try {
+            for (ClassFileSource source : sources) {
+                var classFile = source.read(internalName);
+                if (classFile != null) {
+                    return ClassHeader.read(classFile);
+                }
+            }
+            return UNKNOWN;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read class file of " + internalName, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        var errors = new ArrayList<IOException>();
+        for (FileSystem fileSystem : openFileSystems) {
+            try {
+                fileSystem.close();
+            } catch (IOException e) {
+                errors.add(e);
+            }
+        }
+        openFileSystems.clear();
+
+        if (!errors.isEmpty()) {
+            var error = errors.get(0);
+            errors.stream().skip(1).forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    private interface ClassFileSource {
+
+        byte[] read(String internalName) throws IOException;
+
+    }
+
+    private static class DirectorySource implements ClassFileSource {
+
+        private final Path root;
+
+        private DirectorySource(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        public byte[] read(String internalName) throws IOException {
+            var classFile = root.resolve(internalName + ".class");
+            return Files.isRegularFile(classFile)
+                    ? Files.readAllBytes(classFile)
+                    : null;
+        }
+
+    }
+
+    private static class JrtSource implements ClassFileSource {
+
+        private final FileSystem jrt;
+        private final Map<String, List<Path>> modulesByPackage;
+
+        private JrtSource(FileSystem jrt) {
+            this.jrt = jrt;
+            this.modulesByPackage = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public byte[] read(String internalName) throws IOException {
+            var slash = internalName.lastIndexOf('/');
+            if (slash == -1) {
+                return null;
+            }
+
+            var packageName = internalName.substring(0, slash).replace('/', '.');
+            for (Path module : getModules(packageName)) {
+                var classFile = module.resolve(internalName + ".class");
+                if (Files.isRegularFile(classFile)) {
+                    return Files.readAllBytes(classFile);
+                }
+            }
+            return null;
+        }
+
+        private List<Path> getModules(String packageName) throws IOException {
+            var modules = modulesByPackage.get(packageName);
+            if (modules != null) {
+                return modules;
+            }
+
+            // /packages/<package>/<module> links to /modules/<module>
+            modules = new ArrayList<>();
+            var packageDirectory = jrt.getPath("/packages", packageName);
+            if (Files.isDirectory(packageDirectory)) {
+                try (var stream = Files.newDirectoryStream(packageDirectory)) {
+                    for (Path link : stream) {
+                        modules.add(jrt.getPath("/modules", link.getFileName().toString()));
+                    }
+                }
+            }
+
+            modulesByPackage.putIfAbsent(packageName, modules);
+            return modules;
+        }
+
+    }
+
+}
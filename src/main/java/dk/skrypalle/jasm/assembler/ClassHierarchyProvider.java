@@ -0,0 +1,37 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+/**
+ * Provides the type hierarchy needed to compute stack map frames, without loading any classes
+ * into the assembler's own JVM.
+ *
+ * <p>Implementations must be safe for use by multiple threads, since assemblers running in
+ * parallel may share one provider.
+ */
+public interface ClassHierarchyProvider {
+
+    /**
+     * Looks up the header of the class with the provided internal name.
+     *
+     * @param internalName the internal name of the class, i.e. {@code java/lang/String}
+     * @return the class header, or {@code null} if the class is unknown to this provider
+     */
+    ClassHeader getClassHeader(String internalName);
+
+}
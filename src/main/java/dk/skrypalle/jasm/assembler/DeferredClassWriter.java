@@ -0,0 +1,168 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import dk.skrypalle.jasm.Utils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * {@linkplain ClassVisitor} that defers creating the underlying
+ * {@linkplain org.objectweb.asm.ClassWriter} until the class header has been visited, because
+ * the {@linkplain FramePolicy} may depend on the bytecode version.
+ *
+ * <p>If the frame policy {@linkplain FramePolicy#computesFramesPerMethod(int, boolean) computes
+ * frames per method}, every method is recorded up to its {@code visitMaxs} call. A method
+ * declaring frames of its own is replayed as-is. Any other method is replayed into a scratch
+ * class writer computing its frames first, and copied from there.
+ */
+class DeferredClassWriter extends ClassVisitor {
+
+    private final FramePolicy framePolicy;
+    private final boolean hasExplicitFrames;
+    private final ClassHierarchyProvider classHierarchyProvider;
+
+    private int version;
+    private boolean computesFramesPerMethod;
+    private ClassHeader header;
+
+    private String pendingSource;
+    private String pendingDebug;
+    private boolean hasPendingSource;
+
+    DeferredClassWriter(
+            FramePolicy framePolicy,
+            boolean hasExplicitFrames,
+            ClassHierarchyProvider classHierarchyProvider) {
+        super(Utils.ASM_VERSION);
+        this.framePolicy = framePolicy;
+        this.hasExplicitFrames = hasExplicitFrames;
+        this.classHierarchyProvider = classHierarchyProvider;
+    }
+
+    @Override
+    public void visit(
+            int version,
+            int access,
+            String name,
+            String signature,
+            String superName,
+            String[] interfaces) {
+        this.version = version;
+        this.computesFramesPerMethod = framePolicy.computesFramesPerMethod(
+                version,
+                hasExplicitFrames
+        );
+        this.header = new ClassHeader(
+                name,
+                superName,
+                interfaces,
+                (access & Opcodes.ACC_INTERFACE) != 0
+        );
+        var classWriter = new HierarchyAwareClassWriter(
+                framePolicy.toClassWriterFlags(version, hasExplicitFrames),
+                classHierarchyProvider,
+                header
+        );
+        if (hasPendingSource) {
+            // replay in original order to retain the constant pool layout
+            classWriter.visitSource(pendingSource, pendingDebug);
+        }
+
+        cv = classWriter;
+        super.visit(version, access, name, signature, superName, interfaces);
+    }
+
+    @Override
+    public void visitSource(String source, String debug) {
+        if (cv == null) {
+            pendingSource = source;
+            pendingDebug = debug;
+            hasPendingSource = true;
+        } else {
+            super.visitSource(source, debug);
+        }
+    }
+
+    @Override
+    public MethodVisitor visitMethod(
+            int access,
+            String name,
+            String descriptor,
+            String signature,
+            String[] exceptions) {
+        if (!computesFramesPerMethod) {
+            return super.visitMethod(access, name, descriptor, signature, exceptions);
+        }
+
+        var method = new DetachedMethod();
+        var recorder = method.visitMethod(access, name, descriptor, signature, exceptions);
+        return new MethodVisitor(api, recorder) {
+            @Override
+            public void visitMaxs(int maxStack, int maxLocals) {
+                super.visitMaxs(maxStack, maxLocals);
+                acceptMethod(method);
+            }
+        };
+    }
+
+    private void acceptMethod(DetachedMethod method) {
+        if (method.hasFrames()) {
+            method.accept(cv);
+            return;
+        }
+
+        var frameWriter = new HierarchyAwareClassWriter(
+                ClassWriter.COMPUTE_FRAMES,
+                classHierarchyProvider,
+                header
+        );
+        frameWriter.visit(
+                version,
+                header.isInterface() ? Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT : 0,
+                header.getName(),
+                null,
+                header.getSuperName(),
+                header.getInterfaces()
+        );
+        method.accept(frameWriter);
+        frameWriter.visitEnd();
+
+        // the scratch class holds nothing but the method, including its computed frames
+        var classWriter = cv;
+        new ClassReader(frameWriter.toByteArray()).accept(new ClassVisitor(api) {
+            @Override
+            public MethodVisitor visitMethod(
+                    int access,
+                    String name,
+                    String descriptor,
+                    String signature,
+                    String[] exceptions) {
+                return classWriter.visitMethod(access, name, descriptor, signature, exceptions);
+            }
+        }, 0);
+    }
+
+    byte[] toByteArray() {
+        return ((HierarchyAwareClassWriter) cv).toByteArray();
+    }
+
+}
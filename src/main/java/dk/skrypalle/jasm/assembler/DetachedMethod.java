@@ -0,0 +1,250 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import dk.skrypalle.jasm.Utils;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A method generated detached from the {@linkplain ClassVisitor} it belongs to.
+ *
+ * <p>The method header and every call to its {@linkplain MethodVisitor} are recorded, so the
+ * method can be generated on any thread and replayed into the actual class visitor later on.
+ * Replaying issues exactly the same calls in exactly the same order as visiting the class visitor
+ * directly would have, hence the generated class file is identical.
+ */
+class DetachedMethod extends ClassVisitor {
+
+    private final List<Consumer<MethodVisitor>> calls = new ArrayList<>();
+
+    private int access;
+    private String name;
+    private String descriptor;
+    private String signature;
+    private String[] exceptions;
+    private boolean visited;
+    private boolean hasFrames;
+
+    DetachedMethod() {
+        super(Utils.ASM_VERSION);
+    }
+
+    @Override
+    public MethodVisitor visitMethod(
+            int access,
+            String name,
+            String descriptor,
+            String signature,
+            String[] exceptions) {
+        if (visited) {
+            throw new IllegalStateException("A detached method can only be visited once.");
+        }
+
+        this.access = access;
+        this.name = name;
+        this.descriptor = descriptor;
+        this.signature = signature;
+        this.exceptions = exceptions == null ? null : exceptions.clone();
+        this.visited = true;
+        return new Recorder();
+    }
+
+    /**
+     * Returns whether the recorded method declares stack map frames of its own.
+     *
+     * @return {@code true} if at least one frame has been recorded
+     */
+    boolean hasFrames() {
+        return hasFrames;
+    }
+
+    /**
+     * Replays the recorded method into the provided class visitor.
+     *
+     * @param classVisitor the class visitor the method belongs to
+     */
+    void accept(ClassVisitor classVisitor) {
+        if (!visited) {
+            return;
+        }
+
+        var methodVisitor = classVisitor.visitMethod(
+                access,
+                name,
+                descriptor,
+                signature,
+                exceptions
+        );
+        for (Consumer<MethodVisitor> call : calls) {
+            call.accept(methodVisitor);
+        }
+    }
+
+    private class Recorder extends MethodVisitor {
+
+        private Recorder() {
+            super(Utils.ASM_VERSION);
+        }
+
+        @Override
+        public void visitCode() {
+            calls.add(MethodVisitor::visitCode);
+        }
+
+        @Override
+        public void visitFrame(
+                int type,
+                int numLocal,
+                Object[] local,
+                int numStack,
+                Object[] stack) {
+            var localCopy = local == null ? null : local.clone();
+            var stackCopy = stack == null ? null : stack.clone();
+            hasFrames = true;
+            calls.add(mv -> mv.visitFrame(type, numLocal, localCopy, numStack, stackCopy));
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            calls.add(mv -> mv.visitInsn(opcode));
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            calls.add(mv -> mv.visitIntInsn(opcode, operand));
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int var) {
+            calls.add(mv -> mv.visitVarInsn(opcode, var));
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            calls.add(mv -> mv.visitTypeInsn(opcode, type));
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            calls.add(mv -> mv.visitFieldInsn(opcode, owner, name, descriptor));
+        }
+
+        @Override
+        public void visitMethodInsn(
+                int opcode,
+                String owner,
+                String name,
+                String descriptor,
+                boolean isInterface) {
+            calls.add(mv -> mv.visitMethodInsn(opcode, owner, name, descriptor, isInterface));
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(
+                String name,
+                String descriptor,
+                Handle bootstrapMethodHandle,
+                Object... bootstrapMethodArguments) {
+            var arguments = bootstrapMethodArguments.clone();
+            calls.add(mv -> mv.visitInvokeDynamicInsn(
+                    name,
+                    descriptor,
+                    bootstrapMethodHandle,
+                    arguments
+            ));
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            calls.add(mv -> mv.visitJumpInsn(opcode, label));
+        }
+
+        @Override
+        public void visitLabel(Label label) {
+            calls.add(mv -> mv.visitLabel(label));
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            calls.add(mv -> mv.visitLdcInsn(value));
+        }
+
+        @Override
+        public void visitIincInsn(int var, int increment) {
+            calls.add(mv -> mv.visitIincInsn(var, increment));
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+            var labelsCopy = labels.clone();
+            calls.add(mv -> mv.visitTableSwitchInsn(min, max, dflt, labelsCopy));
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+            var keysCopy = keys.clone();
+            var labelsCopy = labels.clone();
+            calls.add(mv -> mv.visitLookupSwitchInsn(dflt, keysCopy, labelsCopy));
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+            calls.add(mv -> mv.visitMultiANewArrayInsn(descriptor, numDimensions));
+        }
+
+        @Override
+        public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+            calls.add(mv -> mv.visitTryCatchBlock(start, end, handler, type));
+        }
+
+        @Override
+        public void visitLocalVariable(
+                String name,
+                String descriptor,
+                String signature,
+                Label start,
+                Label end,
+                int index) {
+            calls.add(mv -> mv.visitLocalVariable(name, descriptor, signature, start, end, index));
+        }
+
+        @Override
+        public void visitLineNumber(int line, Label start) {
+            calls.add(mv -> mv.visitLineNumber(line, start));
+        }
+
+        @Override
+        public void visitMaxs(int maxStack, int maxLocals) {
+            calls.add(mv -> mv.visitMaxs(maxStack, maxLocals));
+        }
+
+        @Override
+        public void visitEnd() {
+            calls.add(MethodVisitor::visitEnd);
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Determines which parts of the method code attributes the assembler computes by itself.
+ */
+public enum FramePolicy {
+
+    /**
+     * Compute stack map frames as well as the maximum stack size and number of locals. Explicit
+     * {@code .stack} directives are ignored.
+     */
+    FRAMES("frames"),
+
+    /**
+     * Compute the maximum stack size and number of locals only. No stack map frames are
+     * generated, except for those declared by explicit {@code .stack} directives.
+     */
+    MAXS_ONLY("maxs-only"),
+
+    /**
+     * Compute nothing. The maximum stack size and number of locals are taken from the
+     * {@code .limit stack} and {@code .limit locals} directives of each method, and default to
+     * {@code 0} if absent.
+     */
+    NONE("none"),
+
+    /**
+     * Behave like {@linkplain #FRAMES} for class files of version 50 or above, which require a
+     * StackMapTable, and like {@linkplain #MAXS_ONLY} for older class files. The decision is
+     * made per method: the frames of a method declaring them via {@code .stack} directives are
+     * used as-is, while the frames of every other method of the same class are computed.
+     */
+    AUTO("auto");
+
+    private final String displayName;
+
+    FramePolicy(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Parses the display name of a frame policy, i.e. {@code maxs-only}.
+     *
+     * @param displayName the display name of the frame policy
+     * @return the frame policy
+     * @throws IllegalArgumentException if there is no frame policy of the provided name
+     */
+    public static FramePolicy fromDisplayName(String displayName) {
+        for (FramePolicy policy : values()) {
+            if (policy.displayName.equals(displayName)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException(String.format(
+                "unknown frame policy '%s' - expected one of frames, maxs-only, none, auto",
+                displayName
+        ));
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    int toClassWriterFlags(int version, boolean hasExplicitFrames) {
+        switch (this) {
+            case FRAMES:
+                return ClassWriter.COMPUTE_FRAMES;
+            case MAXS_ONLY:
+                return ClassWriter.COMPUTE_MAXS;
+            case NONE:
+                return 0;
+            case AUTO:
+                return !hasExplicitFrames && requiresFrames(version)
+                        ? ClassWriter.COMPUTE_FRAMES
+                        : ClassWriter.COMPUTE_MAXS;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Returns whether the frames of each method must be computed separately, because the class
+     * mixes methods declaring their frames via {@code .stack} directives with methods that
+     * don't. The class writer then only computes the maxs, as returned by
+     * {@linkplain #toClassWriterFlags(int, boolean)}.
+     */
+    boolean computesFramesPerMethod(int version, boolean hasExplicitFrames) {
+        return this == AUTO && hasExplicitFrames && requiresFrames(version);
+    }
+
+    private static boolean requiresFrames(int version) {
+        return (version & 0xFFFF) >= Opcodes.V1_6;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import org.objectweb.asm.ClassWriter;
+
+/**
+ * {@linkplain ClassWriter} resolving common super classes through a
+ * {@linkplain ClassHierarchyProvider} instead of loading classes via reflection.
+ *
+ * <p>The class currently being written is always known, even if the provider has never heard
+ * of it. Merging a class neither the provider nor this writer know about fails with a
+ * {@linkplain TypeNotPresentException}, just like the default {@linkplain ClassWriter} does if a
+ * class cannot be loaded. Guessing {@code java/lang/Object} instead would yield stack map frames
+ * the JVM rejects at verification time.
+ */
+class HierarchyAwareClassWriter extends ClassWriter {
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private final ClassHierarchyProvider classHierarchyProvider;
+    private final ClassHeader header;
+
+    HierarchyAwareClassWriter(
+            int flags,
+            ClassHierarchyProvider classHierarchyProvider,
+            ClassHeader header) {
+        super(flags);
+        this.classHierarchyProvider = classHierarchyProvider;
+        this.header = header;
+    }
+
+    @Override
+    protected String getCommonSuperClass(String type1, String type2) {
+        var header1 = resolve(type1);
+        var header2 = resolve(type2);
+
+        if (isAssignableFrom(type1, header2)) {
+            return type1;
+        }
+        if (isAssignableFrom(type2, header1)) {
+            return type2;
+        }
+        if (header1.isInterface() || header2.isInterface()) {
+            return OBJECT;
+        }
+
+        var current = header1;
+        do {
+            var superName = current.getSuperName();
+            if (superName == null) {
+                return OBJECT;
+            }
+            current = resolve(superName);
+        } while (!isAssignableFrom(current.getName(), header2));
+
+        return current.getName();
+    }
+
+    private boolean isAssignableFrom(String target, ClassHeader type) {
+        if (OBJECT.equals(target) || target.equals(type.getName())) {
+            return true;
+        }
+
+        var superName = type.getSuperName();
+        if (superName != null && isAssignableFrom(target, resolve(superName))) {
+            return true;
+        }
+        for (String interfaceName : type.interfaces()) {
+            // an unknown interface is fine - merging with an interface yields Object anyway
+            var interfaceHeader = lookup(interfaceName);
+            if (interfaceHeader != null && isAssignableFrom(target, interfaceHeader)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ClassHeader resolve(String internalName) {
+        var resolved = lookup(internalName);
+        if (resolved == null) {
+            throw new TypeNotPresentException(internalName, null);
+        }
+        return resolved;
+    }
+
+    private ClassHeader lookup(String internalName) {
+        if (header.getName().equals(internalName)) {
+            return header;
+        }
+        return classHierarchyProvider.getClassHeader(internalName);
+    }
+
+}
@@ -26,6 +26,8 @@ import dk.skrypalle.jasm.generated.JasmParser.MethodNameContext;
 import dk.skrypalle.jasm.generated.JasmParser.StringContext;
 import org.apache.commons.text.StringEscapeUtils;
 
+import static dk.skrypalle.jasm.assembler.AssemblerUtils.normalizeLineTerminators;
+
 class IdentifierVisitor extends JasmBaseVisitor<Object> {
 
     private final ErrorListener errorListener;
@@ -52,7 +54,7 @@ class IdentifierVisitor extends JasmBaseVisitor<Object> {
 
     @Override
     public String visitString(StringContext ctx) {
-        var raw = ctx.getText();
+        var raw = normalizeLineTerminators(ctx.getText());
         return StringEscapeUtils.unescapeJava(raw.substring(1, raw.length() - 1));
     }
 
@@ -17,6 +17,7 @@
  */
 package dk.skrypalle.jasm.assembler;
 
+import dk.skrypalle.jasm.assembler.err.ErrorListener;
 import dk.skrypalle.jasm.generated.JasmBaseVisitor;
 import dk.skrypalle.jasm.generated.JasmParser.AaloadInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.AastoreInstrContext;
@@ -64,6 +65,8 @@ import dk.skrypalle.jasm.generated.JasmParser.FdivInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.FloadInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.FmulInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.FnegInstrContext;
+import dk.skrypalle.jasm.generated.JasmParser.FrameTypeContext;
+import dk.skrypalle.jasm.generated.JasmParser.FrameTypeListContext;
 import dk.skrypalle.jasm.generated.JasmParser.FremInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.FreturnInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.FstoreInstrContext;
@@ -149,20 +152,25 @@ import dk.skrypalle.jasm.generated.JasmParser.MonitorexitInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.MultianewarrayInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.NewarrayInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.NopInstrContext;
+import dk.skrypalle.jasm.generated.JasmParser.NullFrameTypeContext;
 import dk.skrypalle.jasm.generated.JasmParser.Pop2InstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.PutFieldInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.PutStaticInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.RetInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.SaloadInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.SastoreInstrContext;
+import dk.skrypalle.jasm.generated.JasmParser.StackDirectiveContext;
 import dk.skrypalle.jasm.generated.JasmParser.SwapInstrContext;
 import dk.skrypalle.jasm.generated.JasmParser.TableSwitchContext;
+import dk.skrypalle.jasm.generated.JasmParser.TypeFrameTypeContext;
+import dk.skrypalle.jasm.generated.JasmParser.UninitializedFrameTypeContext;
 import org.antlr.v4.runtime.Token;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -185,6 +193,7 @@ import static dk.skrypalle.jasm.generated.JasmParser.ReturnInstrContext;
 
 class InstructionVisitor extends JasmBaseVisitor<Object> {
 
+    private final ErrorListener errorListener;
     private final MethodVisitor methodVisitor;
     private final LabelTracker labelTracker;
     private final BootstrapTracker bootstrapTracker;
@@ -192,10 +201,12 @@ class InstructionVisitor extends JasmBaseVisitor<Object> {
     private final TypeVisitor typeVisitor;
 
     InstructionVisitor(
+            ErrorListener errorListener,
             MethodVisitor methodVisitor,
             LabelTracker labelTracker,
             BootstrapTracker bootstrapTracker, IdentifierVisitor identifierVisitor,
             TypeVisitor typeVisitor) {
+        this.errorListener = errorListener;
         this.methodVisitor = methodVisitor;
         this.labelTracker = labelTracker;
         this.bootstrapTracker = bootstrapTracker;
@@ -1409,4 +1420,123 @@ class InstructionVisitor extends JasmBaseVisitor<Object> {
         return null;
     }
 
+    @Override
+    public Object visitStackDirective(StackDirectiveContext ctx) {
+        var kind = ctx.kind.start;
+        var frameTypes = ctx.frameType();
+        var hasCount = ctx.count != null;
+        var hasLists = ctx.loc != null;
+        switch (identifierVisitor.visitIdentifier(ctx.kind)) {
+            case "same":
+                if (hasCount || hasLists || !frameTypes.isEmpty()) {
+                    errorListener.emitIllegalFrameOperands(kind, "no operands");
+                    break;
+                }
+                methodVisitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+                break;
+            case "same1":
+                if (hasCount || hasLists || frameTypes.size() != 1) {
+                    errorListener.emitIllegalFrameOperands(kind, "one verification type");
+                    break;
+                }
+                methodVisitor.visitFrame(Opcodes.F_SAME1, 0, null, 1, visitFrameTypes(frameTypes));
+                break;
+            case "append":
+                if (hasCount || hasLists || frameTypes.isEmpty() || frameTypes.size() > 3) {
+                    errorListener.emitIllegalFrameOperands(kind, "one to three verification types");
+                    break;
+                }
+                var appended = visitFrameTypes(frameTypes);
+                methodVisitor.visitFrame(Opcodes.F_APPEND, appended.length, appended, 0, null);
+                break;
+            case "chop":
+                if (!hasCount || !ctx.count.getText().matches("^[1-3]$")) {
+                    errorListener.emitIllegalFrameOperands(kind, "one to three chopped locals");
+                    break;
+                }
+                var chopped = Integer.parseInt(ctx.count.getText());
+                methodVisitor.visitFrame(Opcodes.F_CHOP, chopped, null, 0, null);
+                break;
+            case "full":
+                if (!hasLists) {
+                    errorListener.emitIllegalFrameOperands(kind, "lists of locals and stack types");
+                    break;
+                }
+                var locals = visitFrameTypeList(ctx.loc);
+                var stack = visitFrameTypeList(ctx.stk);
+                methodVisitor.visitFrame(
+                        Opcodes.F_FULL,
+                        locals.length,
+                        locals,
+                        stack.length,
+                        stack
+                );
+                break;
+            default:
+                errorListener.emitUnknownFrameType(kind);
+                break;
+        }
+        return null;
+    }
+
+    @Override
+    public Object[] visitFrameTypeList(FrameTypeListContext ctx) {
+        return visitFrameTypes(ctx.frameType());
+    }
+
+    private Object[] visitFrameTypes(List<FrameTypeContext> frameTypes) {
+        return frameTypes.stream()
+                .map(this::visit)
+                .toArray();
+    }
+
+    @Override
+    public Object visitNullFrameType(NullFrameTypeContext ctx) {
+        return Opcodes.NULL;
+    }
+
+    @Override
+    public Object visitUninitializedFrameType(UninitializedFrameTypeContext ctx) {
+        if (!"uninitialized".equals(identifierVisitor.visitIdentifier(ctx.kind))) {
+            errorListener.emitUnknownVerificationType(ctx.kind.start);
+        }
+        // the label of the 'new' instruction that created the uninitialized object
+        var labelName = visitLabel(ctx.dst);
+        return labelTracker.getLabel(labelName);
+    }
+
+    @Override
+    public Object visitTypeFrameType(TypeFrameTypeContext ctx) {
+        var type = ctx.typ;
+        if (type.primitiveType() != null) {
+            switch (identifierVisitor.visitIdentifier(type.primitiveType().identifier())) {
+                case "top":
+                    return Opcodes.TOP;
+                case "I":
+                    return Opcodes.INTEGER;
+                case "F":
+                    return Opcodes.FLOAT;
+                case "J":
+                    return Opcodes.LONG;
+                case "D":
+                    return Opcodes.DOUBLE;
+                case "uninitializedThis":
+                    return Opcodes.UNINITIALIZED_THIS;
+                default:
+                    errorListener.emitUnknownVerificationType(type.start);
+                    return Opcodes.TOP;
+            }
+        }
+        if (type.genericType() != null) {
+            errorListener.emitUnknownVerificationType(type.start);
+            return Opcodes.TOP;
+        }
+
+        // reference types are represented by their internal name, array types by descriptor
+        var descriptor = (String) typeVisitor.visit(type);
+        return type.classType() != null
+                ? descriptor.substring(1, descriptor.length() - 1)
+                : descriptor;
+    }
+
 }
@@ -0,0 +1,148 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler;
+
+import dk.skrypalle.jasm.generated.JasmParser;
+import dk.skrypalle.jasm.generated.JasmParser.JasmFileContext;
+import dk.skrypalle.jasm.generated.JasmParser.MemberSpecContext;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Parses the methods of a jasm file in parallel.
+ *
+ * <p>The whole input is lexed up front and split at the {@code .method} and
+ * {@code .end method} directives. Each method is parsed by a parser of its own on the common
+ * {@linkplain java.util.concurrent.ForkJoinPool ForkJoinPool}, while the rest of the input, i.e.
+ * the header, the fields and the line terminators in between, is parsed as a file without
+ * methods. The parsed methods are then put back in place, which yields a parse tree equivalent to
+ * that of {@linkplain AssemblerParser#parseJasmFile()}. Tokens keep their line and column, so
+ * errors found in the parse tree are reported at the same position.
+ *
+ * <p>Only the fast SLL prediction mode is used and no errors are reported. If any part of the
+ * input cannot be parsed that way, parsing fails as a whole and the input has to be parsed
+ * sequentially, which reports the syntax errors.
+ */
+final class ParallelMethodParser {
+
+    /**
+     * Parses the whole input of the provided token source, e.g. an {@linkplain AssemblerLexer}.
+     *
+     * @param tokenSource the token source of the whole input
+     * @return the parse tree of the whole input, or {@code null} if it cannot be parsed in
+     *     parallel
+     */
+    static JasmFileContext parseJasmFile(TokenSource tokenSource) {
+        var tokenStream = new CommonTokenStream(tokenSource);
+        tokenStream.fill();
+        var tokens = tokenStream.getTokens();
+
+        var skeleton = new ArrayList<Token>(tokens.size());
+        var methods = new ArrayList<List<Token>>();
+        var methodStart = -1;
+        for (int i = 0; i < tokens.size(); i++) {
+            var type = tokens.get(i).getType();
+            if (type == JasmParser.METHOD_DIRECTIVE) {
+                if (methodStart != -1) {
+                    // a method lacking its end - up to the sequential parser to report
+                    return null;
+                }
+                methodStart = i;
+            } else if (methodStart == -1) {
+                skeleton.add(tokens.get(i));
+            } else if (type == JasmParser.END_METHOD_DIRECTIVE) {
+                methods.add(tokens.subList(methodStart, i + 1));
+                methodStart = -1;
+            }
+        }
+        if (methodStart != -1) {
+            return null;
+        }
+
+        var memberSpecs = methods.parallelStream()
+                .map(ParallelMethodParser::parseMemberSpec)
+                .collect(Collectors.toList());
+        var root = parseSkeleton(skeleton, tokenSource.getSourceName());
+        if (root == null || memberSpecs.contains(null)) {
+            return null;
+        }
+
+        for (MemberSpecContext memberSpec : memberSpecs) {
+            memberSpec.parent = root;
+        }
+        var children = new ArrayList<ParseTree>(root.children.size() + memberSpecs.size());
+        children.addAll(root.children);
+        children.addAll(memberSpecs);
+        children.sort(Comparator.comparingInt(ParallelMethodParser::getStartIndex));
+        root.children = children;
+        return root;
+    }
+
+    private static JasmFileContext parseSkeleton(List<Token> tokens, String sourceName) {
+        var parser = newSllParser(tokens, sourceName);
+        try {
+            return parser.jasmFile();
+        } catch (ParseCancellationException e) {
+            return null;
+        }
+    }
+
+    private static MemberSpecContext parseMemberSpec(List<Token> tokens) {
+        var parser = newSllParser(tokens, null);
+        try {
+            var memberSpec = parser.memberSpec();
+            // the method has to span all of its tokens, just as it would within the file
+            return parser.getCurrentToken().getType() == Token.EOF
+                    ? memberSpec
+                    : null;
+        } catch (ParseCancellationException e) {
+            return null;
+        }
+    }
+
+    private static JasmParser newSllParser(List<Token> tokens, String sourceName) {
+        var parser = new JasmParser(new CommonTokenStream(new ListTokenSource(tokens, sourceName)));
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.removeErrorListeners();
+        return parser;
+    }
+
+    private static int getStartIndex(ParseTree tree) {
+        var token = tree instanceof TerminalNode
+                ? ((TerminalNode) tree).getSymbol()
+                : ((ParserRuleContext) tree).getStart();
+        return token.getStartIndex();
+    }
+
+    private ParallelMethodParser() { /* static utility */ }
+
+}
@@ -32,6 +32,24 @@ class TypeTokenMap {
         methodMap = new HashMap<>();
     }
 
+    /**
+     * Creates a map sharing the class type tokens of the provided map, with method type tokens
+     * of its own. The class type tokens of the provided map must not change afterwards.
+     */
+    private TypeTokenMap(Map<String, String> classMap) {
+        this.classMap = classMap;
+        this.methodMap = new HashMap<>();
+    }
+
+    /**
+     * Returns a map for visiting a single method independently of all other methods.
+     *
+     * @return a map sharing the class type tokens of this map
+     */
+    TypeTokenMap forMethod() {
+        return new TypeTokenMap(classMap);
+    }
+
     void mapClassSignature(String signature) {
         mapSignature(signature, classMap);
     }
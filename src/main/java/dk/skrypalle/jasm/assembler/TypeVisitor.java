@@ -17,6 +17,7 @@
  */
 package dk.skrypalle.jasm.assembler;
 
+import dk.skrypalle.jasm.Utils;
 import dk.skrypalle.jasm.assembler.err.ErrorListener;
 import dk.skrypalle.jasm.generated.JasmBaseVisitor;
 import dk.skrypalle.jasm.generated.JasmParser.GenericTypeContext;
@@ -144,9 +145,9 @@ class TypeVisitor extends JasmBaseVisitor<Object> {
     @Override
     public Object visitRegularGenericType(RegularGenericTypeContext ctx) {
         if (ctx.wildcard != null) {
-            return ctx.wildcard.getText() + ctx.typeToken.getText();
+            return ctx.wildcard.getText() + Utils.getText(ctx.typeToken);
         }
-        return ctx.type().getText();
+        return Utils.getText(ctx.type());
     }
 
     @Override
@@ -0,0 +1,64 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.assembler.err;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An {@linkplain ErrorListener} holding back all errors until they are replayed into another
+ * error listener.
+ *
+ * <p>This allows inputs to be processed concurrently while their errors are still reported in a
+ * deterministic order.
+ */
+public class DeferredErrorListener extends ErrorListener {
+
+    private final List<Consumer<ErrorListener>> errors = new ArrayList<>();
+
+    @Override
+    protected void emitSourceError(String sourceName, int line, int column, String message) {
+        errors.add(target -> target.replaySourceError(sourceName, line, column, message));
+    }
+
+    @Override
+    protected void emitGeneralError(String message) {
+        errors.add(target -> target.replayGeneralError(message));
+    }
+
+    @Override
+    protected void emitGeneralError(String message, Throwable error) {
+        errors.add(target -> target.replayGeneralError(message, error));
+    }
+
+    /**
+     * Emits all errors held back so far to the provided error listener, in the order in which
+     * they have been emitted to this listener, and forgets about them afterwards. Every replayed
+     * error, including general errors, counts towards the
+     * {@linkplain #getNumberOfErrors() number of errors} of the target, so the target can tell
+     * that errors have been reported on behalf of the deferred input.
+     *
+     * @param target the error listener to emit the errors to
+     */
+    public void replayTo(ErrorListener target) {
+        errors.forEach(error -> error.accept(target));
+        errors.clear();
+    }
+
+}
@@ -28,8 +28,39 @@ public abstract class ErrorListener {
 
     private final AtomicInteger numberOfErrors;
 
+    private volatile int maxErrors;
+
     protected ErrorListener() {
         numberOfErrors = new AtomicInteger();
+        maxErrors = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Sets the error cap, i.e. the number of errors after which the analysis of the current input
+     * is aborted. By default, there is no cap and the whole input is analyzed.
+     *
+     * @param maxErrors the error cap, must be at least 1
+     */
+    public void setMaxErrors(int maxErrors) {
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException("maxErrors must be at least 1, was " + maxErrors);
+        }
+        this.maxErrors = maxErrors;
+    }
+
+    public final int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * Returns whether the error cap has been reached, in which case the analysis of the current
+     * input is supposed to be aborted.
+     *
+     * @return {@code true} if at least as many errors as allowed by the cap have been emitted
+     * @see #setMaxErrors(int)
+     */
+    public final boolean isMaxErrorsReached() {
+        return numberOfErrors.get() >= maxErrors;
     }
 
     //region general errors
@@ -156,6 +187,73 @@ public abstract class ErrorListener {
         failGeneral(error, "Failed writing assembled class file to '%s'", outputFile);
     }
 
+    /**
+     * Emits error when a glob pattern provided as input does not match any file.
+     *
+     * @param pattern the glob pattern that did not match any file
+     */
+    public void emitNoInputFilesMatching(String pattern) {
+        failGeneral("No input files matching '%s'.", pattern);
+    }
+
+    /**
+     * Emits error when the provided number of parallel jobs is less than one.
+     *
+     * @param jobs the provided number of parallel jobs
+     */
+    public void emitIllegalNumberOfJobs(int jobs) {
+        failGeneral("The number of jobs must be at least 1 (was %d).", jobs);
+    }
+
+    /**
+     * Emits error when the provided error cap is less than one.
+     *
+     * @param maxErrors the provided error cap
+     */
+    public void emitIllegalMaxErrors(int maxErrors) {
+        failGeneral("The maximum number of errors must be at least 1 (was %d).", maxErrors);
+    }
+
+    /**
+     * Emits error summarizing how many of the provided files failed to assemble.
+     *
+     * @param failed the number of files that failed to assemble
+     * @param total  the number of provided files
+     */
+    public void emitFilesFailedToAssemble(int failed, int total) {
+        failGeneral("%d of %d files failed to assemble.", failed, total);
+    }
+
+    /**
+     * Emits error when an entry of the provided classpath is neither a file nor a directory.
+     *
+     * @param entry the offending classpath entry
+     */
+    public void emitIllegalClasspathEntry(Path entry) {
+        failGeneral("Classpath entry '%s' is neither a jar file nor a directory.", entry);
+    }
+
+    /**
+     * Emits error when the jar files of the provided classpath could not be opened.
+     *
+     * @param classpath the provided classpath
+     */
+    public void emitUnexpectedErrorWhileReadingClasspath(String classpath) {
+        failGeneral("Failed reading classpath '%s'", classpath);
+    }
+
+    /**
+     * Emits error when the jar files of the provided classpath could not be opened.
+     *
+     * <p>This method is called when the driving {@linkplain Assembler} is run in verbose mode.
+     *
+     * @param classpath the provided classpath
+     * @param error     the underlying IO error
+     */
+    public void emitUnexpectedErrorWhileReadingClasspath(String classpath, IOException error) {
+        failGeneral(error, "Failed reading classpath '%s'", classpath);
+    }
+
     //endregion general errors
 
     /**
@@ -253,6 +351,121 @@ public abstract class ErrorListener {
         );
     }
 
+    /**
+     * Emits error when encountering a {@code .limit} directive of unknown type during semantic
+     * analysis.
+     *
+     * @param offendingToken the token that caused the error
+     */
+    public void emitUnknownLimitType(Token offendingToken) {
+        fail(
+                offendingToken,
+                "unknown limit type '%s' - expected stack or locals",
+                offendingToken.getText()
+        );
+    }
+
+    /**
+     * Emits error when encountering a {@code .limit} directive with a value out of range during
+     * semantic analysis.
+     *
+     * @param offendingToken the token that caused the error
+     * @param minAllowed     the minimum (inclusive) allowed limit
+     * @param maxAllowed     the maximum (inclusive) allowed limit
+     */
+    public void emitIllegalLimitValue(Token offendingToken, int minAllowed, int maxAllowed) {
+        fail(
+                offendingToken,
+                "illegal limit '%s' - expect interval [%d; %d]",
+                offendingToken.getText(),
+                minAllowed,
+                maxAllowed
+        );
+    }
+
+    /**
+     * Emits error when encountering a {@code .stack} directive of unknown frame type during
+     * semantic analysis.
+     *
+     * @param offendingToken the token that caused the error
+     */
+    public void emitUnknownFrameType(Token offendingToken) {
+        fail(
+                offendingToken,
+                "unknown frame type '%s' - expected same, same1, append, chop or full",
+                offendingToken.getText()
+        );
+    }
+
+    /**
+     * Emits error when encountering a {@code .stack} directive whose operands do not match its
+     * frame type during semantic analysis.
+     *
+     * @param offendingToken the token that caused the error
+     * @param expected       description of the operands expected by the frame type
+     */
+    public void emitIllegalFrameOperands(Token offendingToken, String expected) {
+        fail(
+                offendingToken,
+                "illegal operands for frame type '%s' - expected %s",
+                offendingToken.getText(),
+                expected
+        );
+    }
+
+    /**
+     * Emits error when encountering an unknown verification type in a {@code .stack} directive
+     * during semantic analysis.
+     *
+     * @param offendingToken the token that caused the error
+     */
+    public void emitUnknownVerificationType(Token offendingToken) {
+        fail(
+                offendingToken,
+                "unknown verification type '%s'",
+                offendingToken.getText()
+        );
+    }
+
+    /**
+     * Emits error when the stack map frames of a method cannot be computed during code
+     * generation, because a type they depend on is neither part of the assembled sources nor of
+     * the class hierarchy.
+     *
+     * @param position   the token declaring the method
+     * @param methodName the name of the method whose frames cannot be computed
+     * @param typeName   the internal name of the unknown type
+     */
+    public void emitUnresolvableType(Token position, String methodName, String typeName) {
+        fail(
+                position,
+                "cannot compute stack map frames of '%s' - unknown type '%s', "
+                        + "add it to the classpath",
+                methodName,
+                typeName
+        );
+    }
+
+    void replaySourceError(String sourceName, int line, int column, String message) {
+        fail(sourceName, line, column, "%s", message);
+    }
+
+    void replayGeneralError(String message) {
+        try {
+            emitGeneralError(message);
+        } finally {
+            numberOfErrors.incrementAndGet();
+        }
+    }
+
+    void replayGeneralError(String message, Throwable error) {
+        try {
+            emitGeneralError(message, error);
+        } finally {
+            numberOfErrors.incrementAndGet();
+        }
+    }
+
     private void fail(Token position, String format, Object... args) {
         fail(position.getTokenSource().getSourceName(),
                 position.getLine(),
@@ -308,6 +521,13 @@ public abstract class ErrorListener {
         return "'" + s + "'";
     }
 
+    /**
+     * Returns the number of errors counted so far. Source errors are counted as they are emitted.
+     * General errors are not, unless they are replayed from a {@linkplain DeferredErrorListener},
+     * in which case they count towards the number of errors of the listener replayed to.
+     *
+     * @return the number of errors counted so far
+     */
     public final int getNumberOfErrors() {
         return numberOfErrors.get();
     }
@@ -17,17 +17,39 @@
  */
 package dk.skrypalle.jasm.cli;
 
+import dk.skrypalle.jasm.assembler.AssemblerOptions;
 import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.assembler.AssemblyCache;
+import dk.skrypalle.jasm.assembler.ClassHierarchyIndex;
+import dk.skrypalle.jasm.assembler.FramePolicy;
 import dk.skrypalle.jasm.assembler.err.ConsoleErrorListener;
+import dk.skrypalle.jasm.assembler.err.DeferredErrorListener;
+import dk.skrypalle.jasm.assembler.err.ErrorListener;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.ITypeConverter;
 import picocli.CommandLine.Option;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static picocli.CommandLine.Parameters;
 
@@ -40,9 +62,16 @@ import static picocli.CommandLine.Parameters;
 public class Jasm implements Callable<Integer> {
 
     private static final Path PWD = Paths.get(".").toAbsolutePath();
+    private static final String JASM_FILE_EXTENSION = ".jasm";
+    private static final String GLOB_META_CHARS = "*?[{";
 
-    @Parameters(index = "0", description = "The file to assemble.")
-    private Path file;
+    @Parameters(
+            arity = "1..*",
+            paramLabel = "FILE",
+            description = "The files to assemble. Directories are searched recursively for "
+                    + "*.jasm files, glob patterns (e.g. 'src/**/*.jasm') are expanded."
+    )
+    private List<String> inputs;
 
     @Option(names = {"-d", "--directory"}, description = "Output base directory. Default is pwd.")
     private Path workingDirectory;
@@ -50,6 +79,50 @@ public class Jasm implements Callable<Integer> {
     @Option(names = {"-v", "--verbose"}, description = "Enable verbose error and logging output.")
     private boolean verbose;
 
+    @Option(
+            names = {"-f", "--frames"},
+            paramLabel = "POLICY",
+            converter = FramePolicyConverter.class,
+            description = "Frame computation policy. One of frames, maxs-only, none or auto. "
+                    + "Default is auto."
+    )
+    private FramePolicy framePolicy = FramePolicy.AUTO;
+
+    @Option(
+            names = {"-j", "--jobs"},
+            paramLabel = "N",
+            description = "Number of files to assemble in parallel. Default is 1."
+    )
+    private int jobs = 1;
+
+    @Option(
+            names = {"--cache"},
+            paramLabel = "DIR",
+            description = "Cache directory. Unchanged sources are not assembled again."
+    )
+    private Path cacheDirectory;
+
+    @Option(
+            names = {"--fail-fast"},
+            description = "Abort assembling a file at its first error."
+    )
+    private boolean failFast;
+
+    @Option(
+            names = {"-cp", "--classpath"},
+            paramLabel = "PATH",
+            description = "Jar files and directories to look up classes in, which are referred "
+                    + "to by the assembled files, separated by the platform's path separator."
+    )
+    private String classpath;
+
+    @Option(
+            names = {"--max-errors"},
+            paramLabel = "N",
+            description = "Abort assembling a file after N errors. Default is no limit."
+    )
+    private Integer maxErrors;
+
     @Override
     public Integer call() {
         var errorListener = new ConsoleErrorListener();
@@ -60,15 +133,22 @@ public class Jasm implements Callable<Integer> {
                 return 1;
             }
         }
+        if (jobs < 1) {
+            errorListener.emitIllegalNumberOfJobs(jobs);
+            return 1;
+        }
+        if (maxErrors != null && maxErrors < 1) {
+            errorListener.emitIllegalMaxErrors(maxErrors);
+            return 1;
+        }
 
-        var asm = Assemblers.fromFile(
-                PWD.relativize(file.toAbsolutePath()).normalize(),
-                errorListener,
-                verbose
-        );
-        var assembly = asm.assemble();
+        var classpathEntries = parseClasspath(errorListener);
+        if (classpathEntries == null) {
+            return 1;
+        }
 
-        if (assembly == null) {
+        var files = collectSourceFiles(errorListener);
+        if (files == null) {
             // an error must have occurred and it has been displayed via the error-listener
             return 1;
         }
@@ -77,6 +157,200 @@ public class Jasm implements Callable<Integer> {
                 ? PWD
                 : workingDirectory.toAbsolutePath();
 
+        ExecutorService executorService = jobs == 1
+                ? null
+                : Executors.newFixedThreadPool(jobs);
+        Executor executor = executorService == null
+                ? Runnable::run
+                : executorService;
+
+        int failed = 0;
+        ClassHierarchyIndex classHierarchy = null;
+        try {
+            var options = AssemblerOptions.defaults()
+                    .withFramePolicy(framePolicy)
+                    .withFailFast(failFast);
+            if (cacheDirectory != null) {
+                options = options.withCache(AssemblyCache.atDirectory(cacheDirectory));
+            }
+            if (!classpathEntries.isEmpty()) {
+                classHierarchy = openClassHierarchy(classpathEntries, errorListener);
+                if (classHierarchy == null) {
+                    return 1;
+                }
+                options = options.withClassHierarchyProvider(classHierarchy);
+            }
+
+            var batch = Assemblers.fromFiles(
+                    files,
+                    options,
+                    executor,
+                    sourceName -> newSourceErrorListener(),
+                    verbose
+            );
+            // a single job assembles each file only when the previous one has been written
+            var results = executorService == null
+                    ? batch.assembleSequentially().iterator()
+                    : batch.assemble().iterator();
+
+            while (results.hasNext()) {
+                var result = results.next();
+                // diagnostics are flushed in source order, so they don't interleave between files
+                ((DeferredErrorListener) result.getErrorListener()).replayTo(errorListener);
+
+                if (!result.isSuccessful() || !write(result.getAssembly(), outDir, errorListener)) {
+                    failed++;
+                }
+            }
+        } finally {
+            if (executorService != null) {
+                executorService.shutdown();
+            }
+            closeClassHierarchy(classHierarchy);
+        }
+
+        if (failed > 0 && files.size() > 1) {
+            errorListener.emitFilesFailedToAssemble(failed, files.size());
+        }
+        return failed == 0 ? 0 : 1;
+    }
+
+    private List<Path> parseClasspath(ErrorListener errorListener) {
+        if (classpath == null) {
+            return List.of();
+        }
+
+        var entries = new ArrayList<Path>();
+        for (String entry : classpath.split(Pattern.quote(File.pathSeparator))) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            var path = Paths.get(entry);
+            if (!Files.isRegularFile(path) && !Files.isDirectory(path)) {
+                errorListener.emitIllegalClasspathEntry(path);
+                return null;
+            }
+            entries.add(path);
+        }
+        return entries;
+    }
+
+    private ClassHierarchyIndex openClassHierarchy(
+            List<Path> classpathEntries,
+            ErrorListener errorListener) {
+        try {
+            return Assemblers.classHierarchyOf(classpathEntries);
+        } catch (IOException e) {
+            if (verbose) {
+                errorListener.emitUnexpectedErrorWhileReadingClasspath(classpath, e);
+            } else {
+                errorListener.emitUnexpectedErrorWhileReadingClasspath(classpath);
+            }
+            return null;
+        }
+    }
+
+    private static void closeClassHierarchy(ClassHierarchyIndex classHierarchy) {
+        if (classHierarchy == null) {
+            return;
+        }
+
+        try {
+            classHierarchy.close();
+        } catch (IOException e) {
+            // the jar files have been read only - there is nothing to lose
+        }
+    }
+
+    private DeferredErrorListener newSourceErrorListener() {
+        var errorListener = new DeferredErrorListener();
+        if (maxErrors != null) {
+            errorListener.setMaxErrors(maxErrors);
+        }
+        return errorListener;
+    }
+
+    private List<Path> collectSourceFiles(ErrorListener errorListener) {
+        Set<Path> files = new LinkedHashSet<>();
+        boolean hasErrors = false;
+        for (var input : inputs) {
+            try {
+                if (isGlob(input)) {
+                    var matches = expandGlob(input);
+                    if (matches.isEmpty()) {
+                        errorListener.emitNoInputFilesMatching(input);
+                        hasErrors = true;
+                    }
+                    files.addAll(matches);
+                } else if (Files.isDirectory(Paths.get(input))) {
+                    files.addAll(findJasmFiles(Paths.get(input)));
+                } else {
+                    // non-existing or unreadable files are reported by the assembler
+                    files.add(PWD.relativize(Paths.get(input).toAbsolutePath()).normalize());
+                }
+            } catch (IOException e) {
+                if (verbose) {
+                    errorListener.emitUnexpectedErrorWhileReadingInputFile(Paths.get(input), e);
+                } else {
+                    errorListener.emitUnexpectedErrorWhileReadingInputFile(Paths.get(input));
+                }
+                hasErrors = true;
+            }
+        }
+        return hasErrors
+                ? null
+                : new ArrayList<>(files);
+    }
+
+    private static boolean isGlob(String input) {
+        return indexOfGlobMetaChar(input) >= 0;
+    }
+
+    private static int indexOfGlobMetaChar(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (GLOB_META_CHARS.indexOf(input.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Path> expandGlob(String pattern) throws IOException {
+        // walk the longest leading part of the pattern that does not contain any meta characters
+        var firstMetaChar = indexOfGlobMetaChar(pattern);
+        var lastSeparator = Math.max(
+                pattern.lastIndexOf('/', firstMetaChar),
+                pattern.lastIndexOf(File.separatorChar, firstMetaChar)
+        );
+        var baseDirectory = Paths.get(lastSeparator < 0 ? "" : pattern.substring(0, lastSeparator));
+        if (!Files.isDirectory(baseDirectory)) {
+            return List.of();
+        }
+
+        var matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        try (Stream<Path> paths = Files.walk(baseDirectory)) {
+            return paths
+                    .filter(matcher::matches)
+                    .filter(Files::isRegularFile)
+                    .map(path -> PWD.relativize(path.toAbsolutePath()).normalize())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<Path> findJasmFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths
+                    .filter(path -> path.toString().endsWith(JASM_FILE_EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .map(path -> PWD.relativize(path.toAbsolutePath()).normalize())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private boolean write(Assembly assembly, Path outDir, ErrorListener errorListener) {
         var outFile = outDir.resolve(assembly.getJvmClassName() + ".class");
         var dirToCreate = outFile.getParent();
         assert dirToCreate != null;
@@ -89,21 +363,46 @@ public class Jasm implements Callable<Integer> {
             } else {
                 errorListener.emitOutputDirectoryCreationFailure(dirToCreate);
             }
-            return 1;
+            return false;
         }
 
         try {
-            Files.write(outFile, assembly.getBinaryData());
+            if (hasContent(outFile, assembly)) {
+                // leave the file untouched, so its modification time stays the same
+                return true;
+            }
+            try (var channel = Files.newByteChannel(
+                    outFile,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                assembly.writeTo(channel);
+            }
         } catch (IOException e) {
             if (verbose) {
                 errorListener.emitUnexpectedErrorWhileWritingOutputFile(outFile, e);
             } else {
                 errorListener.emitUnexpectedErrorWhileWritingOutputFile(outFile);
             }
-            return 1;
+            return false;
+        }
+
+        return true;
+    }
+
+    private static boolean hasContent(Path file, Assembly assembly) throws IOException {
+        return Files.isRegularFile(file)
+                && Files.size(file) == assembly.getSize()
+                && ByteBuffer.wrap(Files.readAllBytes(file)).equals(assembly.asByteBuffer());
+    }
+
+    static class FramePolicyConverter implements ITypeConverter<FramePolicy> {
+
+        @Override
+        public FramePolicy convert(String value) {
+            return FramePolicy.fromDisplayName(value);
         }
 
-        return 0;
     }
 
     public static void main(String... args) {
@@ -17,17 +17,26 @@
  */
 package dk.skrypalle.jasm.cli;
 
+import dk.skrypalle.jasm.disassembler.BulkDisassembler;
+import dk.skrypalle.jasm.disassembler.BulkDisassembly;
+import dk.skrypalle.jasm.disassembler.Disassembler;
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
 import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.disassembler.MethodFilter;
 import dk.skrypalle.jasm.disassembler.err.ConsoleErrorListener;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Parameters;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import static picocli.CommandLine.Option;
@@ -36,21 +45,65 @@ import static picocli.CommandLine.Option;
         name = "jdsm",
         mixinStandardHelpOptions = true,
         version = "jdsm 0.1",
-        description = "Disassembles JVM .class files to jASM source files."
+        description = "Disassembles JVM .class files to jASM source files. Jars, directories "
+                + "and JDK modules are disassembled into a mirrored tree of jASM source files."
 )
 public class Jdsm implements Callable<Integer> {
 
     private static final Path PWD = Paths.get(".").toAbsolutePath();
 
-    @Parameters(index = "0", description = "The file to assemble.")
+    @Parameters(
+            index = "0",
+            arity = "0..1",
+            description = "The .class file, jar or directory to disassemble."
+    )
     private Path file;
 
+    @Option(
+            names = {"-m", "--module"},
+            paramLabel = "MODULE",
+            description = "Disassemble all classes of a module of the running JDK, e.g. "
+                    + "java.base, instead of a file."
+    )
+    private String module;
+
     @Option(names = {"-d", "--directory"}, description = "Output base directory. Default is pwd.")
     private Path workingDirectory;
 
     @Option(names = {"-v", "--verbose"}, description = "Enable verbose error and logging output.")
     private boolean verbose;
 
+    @Option(
+            names = {"-f", "--frames"},
+            description = "Emit stack map frames as .stack directives, so that jasm does not "
+                    + "need to compute them again."
+    )
+    private boolean emitFrames;
+
+    @Option(
+            names = {"--skip-debug"},
+            description = "Do not decode debug information, i.e. omit .source, .line and .var "
+                    + "directives. Useful if only the instructions are of interest."
+    )
+    private boolean skipDebug;
+
+    @Option(
+            names = {"--method"},
+            paramLabel = "NAME[DESCRIPTOR]",
+            description = "Only disassemble the methods with the given name, e.g. main, or name "
+                    + "and descriptor, e.g. 'main([Ljava/lang/String;)V'. May be repeated. "
+                    + "Default is all methods."
+    )
+    private List<String> methodSpecs = new ArrayList<>();
+
+    @Option(
+            names = {"-j", "--jobs"},
+            paramLabel = "N",
+            description = "Number of classes to disassemble in parallel when disassembling a jar, "
+                    + "directory or module. Default is the number of available processors."
+    )
+    private int jobs = Runtime.getRuntime().availableProcessors();
+
     @Override
     public Integer call() {
         var errorListener = new ConsoleErrorListener();
@@ -61,15 +114,119 @@ public class Jdsm implements Callable<Integer> {
                 return 1;
             }
         }
+        if (jobs < 1) {
+            errorListener.emitIllegalNumberOfJobs(jobs);
+            return 1;
+        }
+        if ((file == null) == (module == null)) {
+            errorListener.emitInputMustBeFileOrModule();
+            return 1;
+        }
 
-        var dsm = Disassemblers.fromFile(
-                PWD.relativize(file.toAbsolutePath()).normalize(),
-                errorListener,
-                verbose
-        );
-        var jasmSourceCode = dsm.disassemble();
+        var methodFilter = parseMethodFilter(errorListener);
+        if (methodFilter == null) {
+            return 1;
+        }
 
-        if (jasmSourceCode == null) {
+        var options = DisassemblerOptions.defaults()
+                .withEmitFrames(emitFrames)
+                .withSkipDebug(skipDebug)
+                .withMethodFilter(methodFilter);
+        if (module != null) {
+            return disassembleAll(
+                    Disassemblers.fromModule(module, options, jobs, errorListener, verbose),
+                    errorListener
+            );
+        }
+
+        var inputFile = PWD.relativize(file.toAbsolutePath()).normalize();
+        if (Files.isDirectory(inputFile)) {
+            return disassembleAll(
+                    Disassemblers.fromDirectory(inputFile, options, jobs, errorListener, verbose),
+                    errorListener
+            );
+        }
+        if (inputFile.getFileName().toString().endsWith(".jar")) {
+            return disassembleAll(
+                    Disassemblers.fromJar(inputFile, options, jobs, errorListener, verbose),
+                    errorListener
+            );
+        }
+
+        var dsm = Disassemblers.fromFile(inputFile, options, errorListener, verbose);
+
+        Path tmpFile;
+        try {
+            tmpFile = Files.createTempFile("jdsm", ".jasm");
+        } catch (IOException e) {
+            var tmpDir = Paths.get(System.getProperty("java.io.tmpdir"));
+            return emitWriteFailure(errorListener, tmpDir, e);
+        }
+
+        try {
+            return disassembleTo(dsm, tmpFile, errorListener);
+        } finally {
+            try {
+                Files.deleteIfExists(tmpFile);
+            } catch (IOException ignored) {
+                // best effort - the file lives in the temp directory anyway
+            }
+        }
+    }
+
+    private MethodFilter parseMethodFilter(ConsoleErrorListener errorListener) {
+        if (methodSpecs.isEmpty()) {
+            return MethodFilter.all();
+        }
+
+        MethodFilter methodFilter = null;
+        for (var methodSpec : methodSpecs) {
+            MethodFilter specFilter;
+            try {
+                specFilter = MethodFilter.parse(methodSpec);
+            } catch (IllegalArgumentException e) {
+                errorListener.emitIllegalMethodSpec(methodSpec);
+                return null;
+            }
+            methodFilter = methodFilter == null ? specFilter : methodFilter.or(specFilter);
+        }
+        return methodFilter;
+    }
+
+    private int disassembleAll(BulkDisassembler dsm, ConsoleErrorListener errorListener) {
+        var outDir = workingDirectory == null
+                ? PWD
+                : workingDirectory.toAbsolutePath();
+
+        BulkDisassembly disassembly;
+        try {
+            disassembly = dsm.disassembleTo(outDir);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+
+        var failed = disassembly.getFailedSourceNames().size();
+        if (failed > 0) {
+            errorListener.emitClassesFailedToDisassemble(
+                    failed,
+                    disassembly.getNumberOfClasses()
+            );
+        }
+        return disassembly.isSuccessful() ? 0 : 1;
+    }
+
+    private int disassembleTo(Disassembler dsm, Path tmpFile, ConsoleErrorListener errorListener) {
+        String jvmClassName;
+        try (var out = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+            jvmClassName = dsm.disassembleTo(out);
+        } catch (IOException e) {
+            return emitWriteFailure(errorListener, tmpFile, e);
+        } catch (UncheckedIOException e) {
+            return emitWriteFailure(errorListener, tmpFile, e.getCause());
+        }
+
+        if (jvmClassName == null) {
             // an error must have occurred and it has been displayed via the error-listener
             return 1;
         }
@@ -78,7 +235,7 @@ public class Jdsm implements Callable<Integer> {
                 ? PWD
                 : workingDirectory.toAbsolutePath();
 
-        var outFile = outDir.resolve(jasmSourceCode.getJvmClassName() + ".jasm");
+        var outFile = outDir.resolve(jvmClassName + ".jasm");
         var dirToCreate = outFile.getParent();
         assert dirToCreate != null;
 
@@ -94,19 +251,23 @@ public class Jdsm implements Callable<Integer> {
         }
 
         try {
-            Files.writeString(outFile, jasmSourceCode.getJasmSourceCode(), StandardCharsets.UTF_8);
+            Files.move(tmpFile, outFile, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
-            if (verbose) {
-                errorListener.emitUnexpectedErrorWhileWritingOutputFile(outFile, e);
-            } else {
-                errorListener.emitUnexpectedErrorWhileWritingOutputFile(outFile);
-            }
-            return 1;
+            return emitWriteFailure(errorListener, outFile, e);
         }
 
         return 0;
     }
 
+    private int emitWriteFailure(ConsoleErrorListener errorListener, Path file, IOException e) {
+        if (verbose) {
+            errorListener.emitUnexpectedErrorWhileWritingOutputFile(file, e);
+        } else {
+            errorListener.emitUnexpectedErrorWhileWritingOutputFile(file);
+        }
+        return 1;
+    }
+
     public static void main(String[] args) {
         var exitCode = new CommandLine(new Jdsm()).execute(args);
         System.exit(exitCode);
@@ -19,18 +19,36 @@ package dk.skrypalle.jasm.disassembler;
 
 import dk.skrypalle.jasm.disassembler.err.ErrorListener;
 
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
 abstract class BaseDisassembler implements Disassembler {
 
+    protected final DisassemblerOptions options;
     protected final ErrorListener errorListener;
     protected final boolean verbose;
 
-    BaseDisassembler(ErrorListener errorListener, boolean verbose) {
+    BaseDisassembler(DisassemblerOptions options, ErrorListener errorListener, boolean verbose) {
+        this.options = Objects.requireNonNull(options, "options");
         this.errorListener = errorListener;
         this.verbose = verbose;
     }
 
     @Override
     public Disassembly disassemble() {
+        var buf = new StringBuilder();
+        var jvmClassName = disassembleTo(buf);
+        if (jvmClassName == null) {
+            return null;
+        }
+
+        return new Disassembly(jvmClassName, buf.toString());
+    }
+
+    @Override
+    public String disassembleTo(Appendable out) {
+        Objects.requireNonNull(out, "out");
+
         var input = getInput();
         if (input == null) {
             return null;
@@ -39,23 +57,29 @@ abstract class BaseDisassembler implements Disassembler {
         try {
 
             var reader = input.getInputReader();
-            var labelTrackerMap = new LabelTrackerMap();
+            var parsingOptions = options.getParsingOptions();
+            LabelTrackerMap labelTrackerMap = null;
 
-            var labelVisitor = new DisassemblerLabelClassVisitor(labelTrackerMap);
-            reader.accept(labelVisitor, 0);
+            if (!options.isSinglePass()) {
+                labelTrackerMap = new LabelTrackerMap();
+                var labelVisitor = new DisassemblerLabelClassVisitor(labelTrackerMap, options);
+                reader.accept(labelVisitor, parsingOptions);
 
-            labelTrackerMap.link();
+                labelTrackerMap.link();
+            }
 
-            var visitor = new DisassemblerClassVisitor(labelTrackerMap);
-            reader.accept(visitor, 0);
+            var visitor = new DisassemblerClassVisitor(labelTrackerMap, options, out);
+            reader.accept(visitor, parsingOptions);
 
             if (errorListener.getNumberOfErrors() > 0) {
                 return null;
             }
 
-            var jasmSourceCode = visitor.dumpJasmSourceCode();
-            return new Disassembly(reader.getClassName(), jasmSourceCode);
+            return reader.getClassName();
 
+        } catch (UncheckedIOException e) {
+            // failing to write the output is not a disassembler error
+            throw e;
         } catch (Throwable t) {
             if (verbose) {
                 errorListener.emitUnexpectedErrorWhileDisassembling(input.getSourceName(), t);
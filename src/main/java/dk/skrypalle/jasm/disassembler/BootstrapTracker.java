@@ -22,7 +22,7 @@ class BootstrapTracker {
     private int index;
 
     String nextLabel() {
-        return String.format("bootstrap_%d", index++);
+        return "bootstrap_" + index++;
     }
 
 }
@@ -0,0 +1,393 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import dk.skrypalle.jasm.disassembler.err.ErrorListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Disassembles all class files of a jar, a directory or a module of the running JDK's
+ * {@code jrt:/} image into a mirrored tree of jASM source files, i.e.
+ * {@code com/example/Foo.class} is disassembled to
+ * {@code <output directory>/com/example/Foo.jasm}.
+ *
+ * <p>Class files are read sequentially, straight from the jar without extracting it, and handed
+ * to a fixed number of worker threads via a bounded queue. At most a few class files per worker
+ * are thus held in memory at any time. Each worker streams the source code of a class directly
+ * into its output file.
+ *
+ * <p>All workers report to the same {@linkplain ErrorListener}, which therefore has to be
+ * thread-safe.
+ */
+public final class BulkDisassembler {
+
+    private static final int QUEUE_CAPACITY_PER_WORKER = 4;
+    private static final ClassEntry END_OF_INPUT = new ClassEntry(null, null, null);
+    private static final URI JRT_URI = URI.create("jrt:/");
+
+    private final Path input;
+    private final ClassEntryReader reader;
+    private final BiConsumer<ErrorListener, Path> missingInputReporter;
+    private final DisassemblerOptions options;
+    private final int parallelism;
+    private final ErrorListener errorListener;
+    private final boolean verbose;
+
+    private BulkDisassembler(
+            Path input,
+            ClassEntryReader reader,
+            BiConsumer<ErrorListener, Path> missingInputReporter,
+            DisassemblerOptions options,
+            int parallelism,
+            ErrorListener errorListener,
+            boolean verbose) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        this.input = Objects.requireNonNull(input, "input");
+        this.reader = reader;
+        this.missingInputReporter = missingInputReporter;
+        this.options = Objects.requireNonNull(options, "options");
+        this.parallelism = parallelism;
+        this.errorListener = errorListener;
+        this.verbose = verbose;
+    }
+
+    static BulkDisassembler fromJar(
+            Path jar,
+            DisassemblerOptions options,
+            int parallelism,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return new BulkDisassembler(
+                jar,
+                BulkDisassembler::readJar,
+                ErrorListener::emitInputFileDoesNotExist,
+                options,
+                parallelism,
+                errorListener,
+                verbose
+        );
+    }
+
+    static BulkDisassembler fromDirectory(
+            Path directory,
+            DisassemblerOptions options,
+            int parallelism,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return new BulkDisassembler(
+                directory,
+                BulkDisassembler::readDirectory,
+                ErrorListener::emitInputFileDoesNotExist,
+                options,
+                parallelism,
+                errorListener,
+                verbose
+        );
+    }
+
+    static BulkDisassembler fromModule(
+            String moduleName,
+            DisassemblerOptions options,
+            int parallelism,
+            ErrorListener errorListener,
+            boolean verbose) {
+        Objects.requireNonNull(moduleName, "moduleName");
+        var jrt = FileSystems.getFileSystem(JRT_URI);
+        return new BulkDisassembler(
+                jrt.getPath("/modules", moduleName),
+                BulkDisassembler::readDirectory,
+                (listener, path) -> listener.emitModuleNotFound(moduleName),
+                options,
+                parallelism,
+                errorListener,
+                verbose
+        );
+    }
+
+    /**
+     * Disassembles all class files and writes the jASM source files into the provided
+     * directory, replacing existing files. Failures are reported to the error listener and do
+     * not stop the remaining class files from being disassembled.
+     *
+     * @param outputDirectory the root of the mirrored output tree
+     * @return the outcome of disassembling all class files
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the
+     *                              workers
+     * @throws RuntimeException     the first unchecked exception thrown on a worker thread, e.g.
+     *                              by the error listener, once all class files have been
+     *                              processed
+     */
+    public BulkDisassembly disassembleTo(Path outputDirectory) throws InterruptedException {
+        if (!Files.exists(input)) {
+            missingInputReporter.accept(errorListener, input);
+            return new BulkDisassembly(0, List.of(), false);
+        }
+
+        var outDir = outputDirectory.toAbsolutePath().normalize();
+        var queue = new ArrayBlockingQueue<ClassEntry>(parallelism * QUEUE_CAPACITY_PER_WORKER);
+        var numberOfClasses = new AtomicInteger();
+        var failed = Collections.synchronizedList(new ArrayList<String>());
+        var workerFailure = new AtomicReference<RuntimeException>();
+
+        var workers = new ArrayList<Thread>();
+        for (int i = 0; i < parallelism; i++) {
+            var worker = new Thread(
+                    () -> work(queue, outDir, numberOfClasses, failed, workerFailure),
+                    "jdsm-worker-" + i
+            );
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        var inputReadable = true;
+        var completed = false;
+        try {
+            try {
+                reader.read(input, queue::put);
+            } catch (IOException e) {
+                inputReadable = false;
+                emitReadFailure(e);
+            } catch (UncheckedIOException e) {
+                inputReadable = false;
+                emitReadFailure(e.getCause());
+            }
+
+            for (int i = 0; i < parallelism; i++) {
+                queue.put(END_OF_INPUT);
+            }
+            for (var worker : workers) {
+                worker.join();
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                workers.forEach(Thread::interrupt);
+            }
+        }
+        if (workerFailure.get() != null) {
+            throw workerFailure.get();
+        }
+
+        List<String> failedSourceNames;
+        synchronized (failed) {
+            failedSourceNames = failed.stream()
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        return new BulkDisassembly(numberOfClasses.get(), failedSourceNames, inputReadable);
+    }
+
+    private void emitReadFailure(IOException e) {
+        if (verbose) {
+            errorListener.emitUnexpectedErrorWhileReadingInputFile(input, e);
+        } else {
+            errorListener.emitUnexpectedErrorWhileReadingInputFile(input);
+        }
+    }
+
+    private void work(
+            BlockingQueue<ClassEntry> queue,
+            Path outDir,
+            AtomicInteger numberOfClasses,
+            List<String> failed,
+            AtomicReference<RuntimeException> workerFailure) {
+        try {
+            ClassEntry entry;
+            while ((entry = queue.take()) != END_OF_INPUT) {
+                numberOfClasses.incrementAndGet();
+                boolean disassembled;
+                try {
+                    disassembled = disassemble(entry, outDir);
+                } catch (RuntimeException e) {
+                    // e.g. thrown by the error listener. keep draining the queue, so that the
+                    // reader does not block forever, and rethrow on the calling thread
+                    workerFailure.compareAndSet(null, e);
+                    disassembled = false;
+                }
+                if (!disassembled) {
+                    failed.add(entry.sourceName);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean disassemble(ClassEntry entry, Path outDir) {
+        var jasmPath = entry.path.substring(0, entry.path.length() - ".class".length()) + ".jasm";
+        var outFile = outDir.resolve(jasmPath).normalize();
+        if (!outFile.startsWith(outDir)) {
+            errorListener.emitIllegalEntryName(entry.sourceName);
+            return false;
+        }
+
+        var dirToCreate = outFile.getParent();
+        try {
+            Files.createDirectories(dirToCreate);
+        } catch (IOException e) {
+            if (verbose) {
+                errorListener.emitOutputDirectoryCreationFailure(dirToCreate, e);
+            } else {
+                errorListener.emitOutputDirectoryCreationFailure(dirToCreate);
+            }
+            return false;
+        }
+
+        var dsm = Disassemblers.fromBinary(
+                entry.binaryData,
+                entry.sourceName,
+                options,
+                errorListener,
+                verbose
+        );
+
+        String jvmClassName;
+        try (var out = Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)) {
+            jvmClassName = dsm.disassembleTo(out);
+        } catch (IOException e) {
+            emitWriteFailure(outFile, e);
+            return false;
+        } catch (UncheckedIOException e) {
+            emitWriteFailure(outFile, e.getCause());
+            return false;
+        }
+
+        if (jvmClassName == null) {
+            try {
+                Files.deleteIfExists(outFile);
+            } catch (IOException ignored) {
+                // the failure has already been reported - the incomplete file is a leftover
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void emitWriteFailure(Path outFile, IOException e) {
+        if (verbose) {
+            errorListener.emitUnexpectedErrorWhileWritingOutputFile(outFile, e);
+        } else {
+            errorListener.emitUnexpectedErrorWhileWritingOutputFile(outFile);
+        }
+    }
+
+    private static void readJar(Path jar, ClassEntrySink sink)
+            throws IOException, InterruptedException {
+        try (var zipFile = new ZipFile(jar.toFile())) {
+            var entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+                if (isClassFile(entry)) {
+                    byte[] binaryData;
+                    try (var in = zipFile.getInputStream(entry)) {
+                        binaryData = in.readAllBytes();
+                    }
+                    var sourceName = jar + "!/" + entry.getName();
+                    sink.accept(new ClassEntry(entry.getName(), sourceName, binaryData));
+                }
+            }
+        }
+    }
+
+    private static boolean isClassFile(ZipEntry entry) {
+        return !entry.isDirectory() && entry.getName().endsWith(".class");
+    }
+
+    private static void readDirectory(Path directory, ClassEntrySink sink)
+            throws IOException, InterruptedException {
+        if (!Files.isDirectory(directory)) {
+            throw new NotDirectoryException(directory.toString());
+        }
+
+        List<Path> classFiles;
+        try (var paths = Files.walk(directory)) {
+            classFiles = paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".class"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for (var classFile : classFiles) {
+            var relativePath = directory.relativize(classFile).toString()
+                    .replace(classFile.getFileSystem().getSeparator(), "/");
+            var binaryData = Files.readAllBytes(classFile);
+            sink.accept(new ClassEntry(relativePath, classFile.toString(), binaryData));
+        }
+    }
+
+    public Path getInput() {
+        return input;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @FunctionalInterface
+    private interface ClassEntryReader {
+
+        void read(Path input, ClassEntrySink sink) throws IOException, InterruptedException;
+
+    }
+
+    @FunctionalInterface
+    private interface ClassEntrySink {
+
+        void accept(ClassEntry entry) throws InterruptedException;
+
+    }
+
+    private static final class ClassEntry {
+
+        private final String path;
+        private final String sourceName;
+        private final byte[] binaryData;
+
+        private ClassEntry(String path, String sourceName, byte[] binaryData) {
+            this.path = path;
+            this.sourceName = sourceName;
+            this.binaryData = binaryData;
+        }
+
+    }
+
+}
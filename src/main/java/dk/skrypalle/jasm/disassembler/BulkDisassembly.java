@@ -0,0 +1,80 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import java.util.List;
+
+/**
+ * The outcome of disassembling all class files of a jar or directory with a
+ * {@linkplain BulkDisassembler}.
+ */
+public final class BulkDisassembly {
+
+    private final int numberOfClasses;
+    private final List<String> failedSourceNames;
+    private final boolean inputReadable;
+
+    BulkDisassembly(int numberOfClasses, List<String> failedSourceNames, boolean inputReadable) {
+        this.numberOfClasses = numberOfClasses;
+        this.failedSourceNames = List.copyOf(failedSourceNames);
+        this.inputReadable = inputReadable;
+    }
+
+    /**
+     * Returns the number of class files that have been read, including the failed ones.
+     *
+     * @return the number of class files
+     */
+    public int getNumberOfClasses() {
+        return numberOfClasses;
+    }
+
+    /**
+     * Returns the source names of all class files that failed to disassemble, in lexicographic
+     * order. The failures have been reported to the error listener.
+     *
+     * @return the source names of the failed class files
+     */
+    public List<String> getFailedSourceNames() {
+        return failedSourceNames;
+    }
+
+    /**
+     * Returns whether the jar or directory could be read completely. If {@code false}, some of
+     * its class files might not have been disassembled at all.
+     *
+     * @return {@code true} if the input could be read completely
+     */
+    public boolean isInputReadable() {
+        return inputReadable;
+    }
+
+    public boolean isSuccessful() {
+        return inputReadable && failedSourceNames.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkDisassembly{"
+                + "numberOfClasses=" + numberOfClasses
+                + ", numberOfFailures=" + failedSourceNames.size()
+                + ", inputReadable=" + inputReadable
+                + '}';
+    }
+
+}
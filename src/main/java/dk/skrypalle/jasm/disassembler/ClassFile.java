@@ -19,21 +19,33 @@ package dk.skrypalle.jasm.disassembler;
 
 import org.objectweb.asm.Opcodes;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
+/**
+ * Writes the source code of a class to an {@linkplain Appendable} while it is being visited.
+ *
+ * <p>The class header is written as soon as the first member is added. Every member is written
+ * once the next one is added or the class is {@linkplain #finish() finished}, i.e. once it has
+ * been visited completely. Only a single member is thus held in memory at any time, and the line
+ * buffers of a written method are {@linkplain #newMethodSpec() reused} for the next one.
+ *
+ * <p>{@linkplain IOException IOExceptions} thrown by the {@linkplain Appendable} are rethrown as
+ * {@linkplain UncheckedIOException UncheckedIOExceptions}.
+ */
 class ClassFile {
 
+    private final Appendable out;
     private String version;
     private String source;
     private final ClassSpec classSpec;
-    private final List<DisassemblerMethodVisitor> methodVisitors;
-    private final List<DisassemblerFieldVisitor> fieldVisitors;
+    private boolean headerWritten;
+    private Object pendingMember;
+    private MethodSpec writtenMethodSpec;
 
-    ClassFile() {
+    ClassFile(Appendable out) {
+        this.out = out;
         classSpec = new ClassSpec();
-        methodVisitors = new ArrayList<>();
-        fieldVisitors = new ArrayList<>();
     }
 
     public void setVersion(int version) {
@@ -81,36 +93,78 @@ class ClassFile {
         return classSpec;
     }
 
+    MethodSpec newMethodSpec() {
+        writePendingMember();
+        if (writtenMethodSpec == null) {
+            return new MethodSpec();
+        }
+
+        var methodSpec = new MethodSpec(writtenMethodSpec);
+        writtenMethodSpec = null;
+        return methodSpec;
+    }
+
     void addMethodVisitor(DisassemblerMethodVisitor methodVisitor) {
-        methodVisitors.add(methodVisitor);
+        addMember(methodVisitor);
     }
 
     void addFieldVisitor(DisassemblerFieldVisitor fieldVisitor) {
-        fieldVisitors.add(fieldVisitor);
+        addMember(fieldVisitor);
+    }
+
+    void finish() {
+        writePendingMember();
+        writeHeader();
+    }
+
+    private void addMember(Object member) {
+        writePendingMember();
+        writeHeader();
+        pendingMember = member;
     }
 
-    @Override
-    public String toString() {
+    private void writeHeader() {
+        if (headerWritten) {
+            return;
+        }
+
         StringBuilder buf = new StringBuilder();
         buf.append(".bytecode ").append(version).append('\n');
         if (source != null) {
             buf.append(".source \"").append(source).append("\"\n");
         }
         buf.append(classSpec.toString());
+        write(buf);
+        headerWritten = true;
+    }
 
-        for (DisassemblerFieldVisitor fieldVisitor : fieldVisitors) {
-            buf.append('\n');
-            var fieldSpec = fieldVisitor.getFieldSpec();
-            buf.append(fieldSpec.toString());
+    private void writePendingMember() {
+        if (pendingMember == null) {
+            return;
         }
 
-        for (DisassemblerMethodVisitor methodVisitor : methodVisitors) {
-            buf.append('\n');
-            var methodSpec = methodVisitor.getMethodSpec();
-            buf.append(methodSpec.toString());
+        try {
+            out.append('\n');
+            if (pendingMember instanceof DisassemblerFieldVisitor) {
+                var fieldSpec = ((DisassemblerFieldVisitor) pendingMember).getFieldSpec();
+                out.append(fieldSpec.toString());
+            } else {
+                var methodSpec = ((DisassemblerMethodVisitor) pendingMember).getMethodSpec();
+                methodSpec.writeTo(out);
+                writtenMethodSpec = methodSpec;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        pendingMember = null;
+    }
 
-        return buf.toString();
+    private void write(CharSequence text) {
+        try {
+            out.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
 }
@@ -21,4 +21,19 @@ public interface Disassembler {
 
     Disassembly disassemble();
 
+    /**
+     * Disassembles the input and writes the jASM source code to {@code out} while the input is
+     * being decoded. Every member of the class is written as soon as it has been decoded, so at
+     * most a single member is held in memory at any time. Wrap a {@linkplain java.io.Writer}
+     * into a {@linkplain java.io.BufferedWriter} if it is expensive to write to.
+     *
+     * <p>If an error occurs, the source code written so far is incomplete and has to be
+     * discarded.
+     *
+     * @param out the destination of the jASM source code
+     * @return the JVM class name of the disassembled class, or {@code null} if an error occurred
+     * @throws java.io.UncheckedIOException if writing to {@code out} fails
+     */
+    String disassembleTo(Appendable out);
+
 }
@@ -25,17 +25,23 @@ import org.objectweb.asm.MethodVisitor;
 public class DisassemblerClassVisitor extends ClassVisitor {
 
     private final LabelTrackerMap labelTrackerMap;
+    private final DisassemblerOptions options;
     private final ClassFile classFile;
 
-    DisassemblerClassVisitor(LabelTrackerMap labelTrackerMap) {
+    /**
+     * Creates a new class visitor writing the source code to {@code out}. If
+     * {@code labelTrackerMap} is {@code null}, the labels of each method are named in a single
+     * pass instead of being looked up from a prior label pass.
+     */
+    DisassemblerClassVisitor(
+            LabelTrackerMap labelTrackerMap,
+            DisassemblerOptions options,
+            Appendable out) {
         super(Utils.ASM_VERSION);
 
         this.labelTrackerMap = labelTrackerMap;
-        classFile = new ClassFile();
-    }
-
-    String dumpJasmSourceCode() {
-        return classFile.toString();
+        this.options = options;
+        classFile = new ClassFile(out);
     }
 
     @Override
@@ -67,19 +73,31 @@ public class DisassemblerClassVisitor extends ClassVisitor {
             String descriptor,
             String signature,
             String[] exceptions) {
-        var labelTracker = labelTrackerMap.getLabelTrackerForMethod(
-                access,
-                name,
-                descriptor,
-                signature,
-                exceptions);
+        if (!options.getMethodFilter().matches(name, descriptor)) {
+            // returning null makes ASM skip the method's code entirely
+            return null;
+        }
 
-        var methodVisitor = new DisassemblerMethodVisitor(labelTracker);
-        var methodSpec = methodVisitor.getMethodSpec();
+        LabelNamer labelNamer = labelTrackerMap == null
+                ? new SinglePassLabelTracker()
+                : labelTrackerMap.getLabelTrackerForMethod(
+                        access,
+                        name,
+                        descriptor,
+                        signature,
+                        exceptions);
+
+        var methodSpec = classFile.newMethodSpec();
         methodSpec.setAccess(access);
         methodSpec.setName(name);
         methodSpec.setDescriptor(descriptor);
         methodSpec.setSignature(signature);
+
+        var methodVisitor = new DisassemblerMethodVisitor(
+                labelNamer,
+                options.isEmitFrames(),
+                methodSpec
+        );
         classFile.addMethodVisitor(methodVisitor);
         return methodVisitor;
     }
@@ -100,4 +118,9 @@ public class DisassemblerClassVisitor extends ClassVisitor {
         return fieldVisitor;
     }
 
+    @Override
+    public void visitEnd() {
+        classFile.finish();
+    }
+
 }
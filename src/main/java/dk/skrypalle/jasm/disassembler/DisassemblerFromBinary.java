@@ -28,9 +28,10 @@ class DisassemblerFromBinary extends BaseDisassembler {
     DisassemblerFromBinary(
             byte[] binaryClassFile,
             String sourceName,
+            DisassemblerOptions options,
             ErrorListener errorListener,
             boolean verbose) {
-        super(errorListener, verbose);
+        super(options, errorListener, verbose);
 
         this.binaryClassFile = binaryClassFile;
         this.sourceName = sourceName;
@@ -38,7 +39,18 @@ class DisassemblerFromBinary extends BaseDisassembler {
 
     @Override
     protected DisassemblerInput getInput() {
-        return new DisassemblerInput(new ClassReader(binaryClassFile), sourceName);
+        try {
+            return new DisassemblerInput(new ClassReader(binaryClassFile), sourceName);
+        } catch (RuntimeException e) {
+            // ClassReader rejects truncated or malformed class files eagerly
+            if (verbose) {
+                errorListener.emitUnexpectedErrorWhileDisassembling(sourceName, e);
+            } else {
+                errorListener.emitUnexpectedErrorWhileDisassembling(sourceName);
+            }
+
+            return null;
+        }
     }
 
 }
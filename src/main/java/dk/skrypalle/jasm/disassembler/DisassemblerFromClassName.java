@@ -30,8 +30,12 @@ class DisassemblerFromClassName extends BaseDisassembler {
 
     private final String className;
 
-    DisassemblerFromClassName(String className, ErrorListener errorListener, boolean verbose) {
-        super(errorListener, verbose);
+    DisassemblerFromClassName(
+            String className,
+            DisassemblerOptions options,
+            ErrorListener errorListener,
+            boolean verbose) {
+        super(options, errorListener, verbose);
 
         this.className = className;
     }
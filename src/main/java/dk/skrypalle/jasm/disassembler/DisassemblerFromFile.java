@@ -28,8 +28,12 @@ class DisassemblerFromFile extends BaseDisassembler {
 
     private final Path inputFile;
 
-    DisassemblerFromFile(Path inputFile, ErrorListener errorListener, boolean verbose) {
-        super(errorListener, verbose);
+    DisassemblerFromFile(
+            Path inputFile,
+            DisassemblerOptions options,
+            ErrorListener errorListener,
+            boolean verbose) {
+        super(options, errorListener, verbose);
 
         this.inputFile = inputFile;
     }
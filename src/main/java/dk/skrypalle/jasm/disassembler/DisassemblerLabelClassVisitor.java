@@ -24,11 +24,13 @@ import org.objectweb.asm.MethodVisitor;
 class DisassemblerLabelClassVisitor extends ClassVisitor {
 
     private final LabelTrackerMap labelTrackerMap;
+    private final DisassemblerOptions options;
 
-    DisassemblerLabelClassVisitor(LabelTrackerMap labelTrackerMap) {
+    DisassemblerLabelClassVisitor(LabelTrackerMap labelTrackerMap, DisassemblerOptions options) {
         super(Utils.ASM_VERSION);
 
         this.labelTrackerMap = labelTrackerMap;
+        this.options = options;
     }
 
     @Override
@@ -38,6 +40,11 @@ class DisassemblerLabelClassVisitor extends ClassVisitor {
             String descriptor,
             String signature,
             String[] exceptions) {
+        if (!options.getMethodFilter().matches(name, descriptor)) {
+            // returning null makes ASM skip the method's code entirely
+            return null;
+        }
+
         var labelTracker = labelTrackerMap.getLabelTrackerForMethod(
                 access,
                 name,
@@ -45,7 +52,7 @@ class DisassemblerLabelClassVisitor extends ClassVisitor {
                 signature,
                 exceptions
         );
-        return new DisassemblerLabelMethodVisitor(labelTracker);
+        return new DisassemblerLabelMethodVisitor(labelTracker, options.isEmitFrames());
     }
 
 }
@@ -20,15 +20,18 @@ package dk.skrypalle.jasm.disassembler;
 import dk.skrypalle.jasm.Utils;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 
 class DisassemblerLabelMethodVisitor extends MethodVisitor {
 
     private final LabelTracker labelTracker;
+    private final boolean emitFrames;
 
-    DisassemblerLabelMethodVisitor(LabelTracker labelTracker) {
+    DisassemblerLabelMethodVisitor(LabelTracker labelTracker, boolean emitFrames) {
         super(Utils.ASM_VERSION);
 
         this.labelTracker = labelTracker;
+        this.emitFrames = emitFrames;
     }
 
     @Override
@@ -36,6 +39,32 @@ class DisassemblerLabelMethodVisitor extends MethodVisitor {
         labelTracker.recordLabelDef(label);
     }
 
+    @Override
+    public void visitFrame(
+            int type,
+            int numLocal,
+            Object[] local,
+            int numStack,
+            Object[] stack) {
+        if (!emitFrames) {
+            return;
+        }
+
+        // uninitialized types refer to the label of their 'new' instruction
+        if (type != Opcodes.F_CHOP) {
+            recordFrameTypeRefs(numLocal, local);
+        }
+        recordFrameTypeRefs(numStack, stack);
+    }
+
+    private void recordFrameTypeRefs(int numTypes, Object[] types) {
+        for (int i = 0; i < numTypes; i++) {
+            if (types[i] instanceof Label) {
+                labelTracker.recordLabelRef((Label) types[i]);
+            }
+        }
+    }
+
     @Override
     public void visitJumpInsn(int opcode, Label label) {
         labelTracker.recordLabelRef(label);
@@ -25,324 +25,61 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static dk.skrypalle.jasm.Utils.quoteKeywords;
-
+/**
+ * Renders the instructions and directives of a method straight into the
+ * {@linkplain LineBuffer line buffers} of its {@linkplain MethodSpec}. Mnemonics are looked up
+ * from {@linkplain Mnemonics opcode-indexed tables}, so rendering an instruction without string
+ * operands does not allocate any intermediate objects.
+ */
 class DisassemblerMethodVisitor extends MethodVisitor {
 
-    private final LabelTracker labelTracker;
+    private static final String INDENT = "  ";
+    private static final String DEFAULT_KEY = "default";
+
+    private final LabelNamer labelNamer;
+    private final boolean emitFrames;
     private final BootstrapTracker bootstrapTracker;
     private final MethodSpec methodSpec;
+    private final LineBuffer instructions;
 
-    DisassemblerMethodVisitor(LabelTracker labelTracker) {
+    DisassemblerMethodVisitor(LabelNamer labelNamer, boolean emitFrames, MethodSpec methodSpec) {
         super(Utils.ASM_VERSION);
 
-        this.labelTracker = labelTracker;
+        this.labelNamer = labelNamer;
+        this.emitFrames = emitFrames;
+        this.methodSpec = methodSpec;
         bootstrapTracker = new BootstrapTracker();
-        methodSpec = new MethodSpec();
+        instructions = methodSpec.getInstructions();
     }
 
     MethodSpec getMethodSpec() {
         return methodSpec;
     }
 
-    @Override
-    public void visitInsn(int opcode) {
-        methodSpec.addInstruction(parseInsn(opcode));
+    private LineBuffer instruction(int opcode) {
+        return instructions.append(INDENT).append(Mnemonics.ofOpcode(opcode));
     }
 
-    private String parseInsn(int opcode) {
-        switch (opcode) {
-            case Opcodes.NOP:
-                return "nop";
-            case Opcodes.ACONST_NULL:
-                return "ldc null";
-            case Opcodes.ICONST_M1:
-                return "ldc -1";
-            case Opcodes.ICONST_0:
-                return "ldc 0";
-            case Opcodes.ICONST_1:
-                return "ldc 1";
-            case Opcodes.ICONST_2:
-                return "ldc 2";
-            case Opcodes.ICONST_3:
-                return "ldc 3";
-            case Opcodes.ICONST_4:
-                return "ldc 4";
-            case Opcodes.ICONST_5:
-                return "ldc 5";
-            case Opcodes.LCONST_0:
-                return "ldc 0l";
-            case Opcodes.LCONST_1:
-                return "ldc 1l";
-            case Opcodes.FCONST_0:
-                return "ldc 0.0f";
-            case Opcodes.FCONST_1:
-                return "ldc 1.0f";
-            case Opcodes.FCONST_2:
-                return "ldc 2.0f";
-            case Opcodes.DCONST_0:
-                return "ldc 0.0";
-            case Opcodes.DCONST_1:
-                return "ldc 1.0";
-            case Opcodes.IALOAD:
-                return "iaload";
-            case Opcodes.LALOAD:
-                return "laload";
-            case Opcodes.FALOAD:
-                return "faload";
-            case Opcodes.DALOAD:
-                return "daload";
-            case Opcodes.AALOAD:
-                return "aaload";
-            case Opcodes.BALOAD:
-                return "baload";
-            case Opcodes.CALOAD:
-                return "caload";
-            case Opcodes.SALOAD:
-                return "saload";
-            case Opcodes.IASTORE:
-                return "iastore";
-            case Opcodes.LASTORE:
-                return "lastore";
-            case Opcodes.FASTORE:
-                return "fastore";
-            case Opcodes.DASTORE:
-                return "dastore";
-            case Opcodes.AASTORE:
-                return "aastore";
-            case Opcodes.BASTORE:
-                return "bastore";
-            case Opcodes.CASTORE:
-                return "castore";
-            case Opcodes.SASTORE:
-                return "sastore";
-            case Opcodes.POP:
-                return "pop";
-            case Opcodes.POP2:
-                return "pop2";
-            case Opcodes.DUP:
-                return "dup";
-            case Opcodes.DUP_X1:
-                return "dup_x1";
-            case Opcodes.DUP_X2:
-                return "dup_x2";
-            case Opcodes.DUP2:
-                return "dup2";
-            case Opcodes.DUP2_X1:
-                return "dup2_x1";
-            case Opcodes.DUP2_X2:
-                return "dup2_x2";
-            case Opcodes.SWAP:
-                return "swap";
-            case Opcodes.IADD:
-                return "iadd";
-            case Opcodes.LADD:
-                return "ladd";
-            case Opcodes.FADD:
-                return "fadd";
-            case Opcodes.DADD:
-                return "dadd";
-            case Opcodes.ISUB:
-                return "isub";
-            case Opcodes.LSUB:
-                return "lsub";
-            case Opcodes.FSUB:
-                return "fsub";
-            case Opcodes.DSUB:
-                return "dsub";
-            case Opcodes.IMUL:
-                return "imul";
-            case Opcodes.LMUL:
-                return "lmul";
-            case Opcodes.FMUL:
-                return "fmul";
-            case Opcodes.DMUL:
-                return "dmul";
-            case Opcodes.IDIV:
-                return "idiv";
-            case Opcodes.LDIV:
-                return "ldiv";
-            case Opcodes.FDIV:
-                return "fdiv";
-            case Opcodes.DDIV:
-                return "ddiv";
-            case Opcodes.IREM:
-                return "irem";
-            case Opcodes.LREM:
-                return "lrem";
-            case Opcodes.FREM:
-                return "frem";
-            case Opcodes.DREM:
-                return "drem";
-            case Opcodes.INEG:
-                return "ineg";
-            case Opcodes.LNEG:
-                return "lneg";
-            case Opcodes.FNEG:
-                return "fneg";
-            case Opcodes.DNEG:
-                return "dneg";
-            case Opcodes.ISHL:
-                return "ishl";
-            case Opcodes.LSHL:
-                return "lshl";
-            case Opcodes.ISHR:
-                return "ishr";
-            case Opcodes.LSHR:
-                return "lshr";
-            case Opcodes.IUSHR:
-                return "iushr";
-            case Opcodes.LUSHR:
-                return "lushr";
-            case Opcodes.IAND:
-                return "iand";
-            case Opcodes.LAND:
-                return "land";
-            case Opcodes.IOR:
-                return "ior";
-            case Opcodes.LOR:
-                return "lor";
-            case Opcodes.IXOR:
-                return "ixor";
-            case Opcodes.LXOR:
-                return "lxor";
-            case Opcodes.I2L:
-                return "i2l";
-            case Opcodes.I2F:
-                return "i2f";
-            case Opcodes.I2D:
-                return "i2d";
-            case Opcodes.L2I:
-                return "l2i";
-            case Opcodes.L2F:
-                return "l2f";
-            case Opcodes.L2D:
-                return "l2d";
-            case Opcodes.F2I:
-                return "f2i";
-            case Opcodes.F2L:
-                return "f2l";
-            case Opcodes.F2D:
-                return "f2d";
-            case Opcodes.D2I:
-                return "d2i";
-            case Opcodes.D2L:
-                return "d2l";
-            case Opcodes.D2F:
-                return "d2f";
-            case Opcodes.I2B:
-                return "i2b";
-            case Opcodes.I2C:
-                return "i2c";
-            case Opcodes.I2S:
-                return "i2s";
-            case Opcodes.LCMP:
-                return "lcmp";
-            case Opcodes.FCMPL:
-                return "fcmpl";
-            case Opcodes.FCMPG:
-                return "fcmpg";
-            case Opcodes.DCMPL:
-                return "dcmpl";
-            case Opcodes.DCMPG:
-                return "dcmpg";
-            case Opcodes.IRETURN:
-                return "ireturn";
-            case Opcodes.LRETURN:
-                return "lreturn";
-            case Opcodes.FRETURN:
-                return "freturn";
-            case Opcodes.DRETURN:
-                return "dreturn";
-            case Opcodes.ARETURN:
-                return "areturn";
-            case Opcodes.RETURN:
-                return "return";
-            case Opcodes.ARRAYLENGTH:
-                return "arraylength";
-            case Opcodes.ATHROW:
-                return "athrow";
-            case Opcodes.MONITORENTER:
-                return "monitorenter";
-            case Opcodes.MONITOREXIT:
-                return "monitorexit";
-            default:
-                throw new IllegalStateException();
-        }
+    @Override
+    public void visitInsn(int opcode) {
+        instruction(opcode).endLine();
     }
 
     @Override
     public void visitVarInsn(int opcode, int var) {
-        methodSpec.addInstruction(parseVarInsn(opcode) + " " + var);
-    }
-
-    private String parseVarInsn(int opcode) {
-        switch (opcode) {
-            case Opcodes.ILOAD:
-                return "iload";
-            case Opcodes.LLOAD:
-                return "lload";
-            case Opcodes.FLOAD:
-                return "fload";
-            case Opcodes.DLOAD:
-                return "dload";
-            case Opcodes.ALOAD:
-                return "aload";
-            case Opcodes.ISTORE:
-                return "istore";
-            case Opcodes.LSTORE:
-                return "lstore";
-            case Opcodes.FSTORE:
-                return "fstore";
-            case Opcodes.DSTORE:
-                return "dstore";
-            case Opcodes.ASTORE:
-                return "astore";
-            case Opcodes.RET:
-                return "ret";
-            default:
-                throw new IllegalStateException();
-        }
+        instruction(opcode).append(' ').append(var).endLine();
     }
 
     @Override
     public void visitIntInsn(int opcode, int operand) {
-        methodSpec.addInstruction(parseIntInsn(opcode, operand));
-    }
-
-    private String parseIntInsn(int opcode, int operand) {
         switch (opcode) {
             case Opcodes.BIPUSH:
             case Opcodes.SIPUSH:
-                return "ldc " + operand;
+                instruction(opcode).append(' ').append(operand).endLine();
+                break;
             case Opcodes.NEWARRAY:
-                return "newarray " + parseArrayType(operand);
-            default:
-                throw new IllegalStateException();
-        }
-    }
-
-    private String parseArrayType(int type) {
-        switch (type) {
-            case Opcodes.T_BOOLEAN:
-                return "Z";
-            case Opcodes.T_CHAR:
-                return "C";
-            case Opcodes.T_FLOAT:
-                return "F";
-            case Opcodes.T_DOUBLE:
-                return "D";
-            case Opcodes.T_BYTE:
-                return "B";
-            case Opcodes.T_SHORT:
-                return "S";
-            case Opcodes.T_INT:
-                return "I";
-            case Opcodes.T_LONG:
-                return "J";
+                instruction(opcode).append(' ').append(Mnemonics.ofArrayType(operand)).endLine();
+                break;
             default:
                 throw new IllegalStateException();
         }
@@ -350,21 +87,42 @@ class DisassemblerMethodVisitor extends MethodVisitor {
 
     @Override
     public void visitLdcInsn(Object value) {
+        var buf = instruction(Opcodes.LDC).append(' ');
         Class<?> valueClass = value.getClass();
-        var sanitizedValue = value.toString();
         if (valueClass == String.class) {
-            sanitizedValue = "\"" + StringEscapeUtils.escapeJava((String) value) + "\"";
-        }
-        if (valueClass == Float.class) {
-            sanitizedValue += "f";
+            appendString(buf, (String) value);
+        } else if (valueClass == Integer.class) {
+            buf.append((int) value);
+        } else if (valueClass == Float.class) {
+            buf.append(value.toString()).append('f');
+        } else if (valueClass == Long.class) {
+            buf.append(value.toString()).append('l');
+        } else if (valueClass == Type.class) {
+            buf.appendQuoted(value.toString());
+        } else {
+            buf.append(value.toString());
         }
-        if (valueClass == Long.class) {
-            sanitizedValue += "l";
+        buf.endLine();
+    }
+
+    private static void appendString(LineBuffer buf, String value) {
+        buf.append('"');
+        if (isPrintableAscii(value)) {
+            buf.append(value);
+        } else {
+            buf.append(StringEscapeUtils.escapeJava(value));
         }
-        if (valueClass == Type.class) {
-            sanitizedValue = Utils.quoteKeywords(sanitizedValue);
+        buf.append('"');
+    }
+
+    private static boolean isPrintableAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c < ' ' || c > '~' || c == '"' || c == '\\') {
+                return false;
+            }
         }
-        methodSpec.addInstruction("ldc " + sanitizedValue);
+        return true;
     }
 
     @Override
@@ -374,29 +132,19 @@ class DisassemblerMethodVisitor extends MethodVisitor {
             String name,
             String descriptor,
             boolean isInterface) {
-        var instruction = String.format(
-                "%s %s.%s:%s",
-                parseMethodInsn(opcode),
-                quoteKeywords(owner),
-                quoteKeywords(name),
-                quoteKeywords(descriptor)
-        );
-        methodSpec.addInstruction(instruction);
+        appendMember(instruction(opcode).append(' '), owner, name, descriptor).endLine();
     }
 
-    private String parseMethodInsn(int opcode) {
-        switch (opcode) {
-            case Opcodes.INVOKEVIRTUAL:
-                return "invokevirtual";
-            case Opcodes.INVOKESPECIAL:
-                return "invokespecial";
-            case Opcodes.INVOKESTATIC:
-                return "invokestatic";
-            case Opcodes.INVOKEINTERFACE:
-                return "invokeinterface";
-            default:
-                throw new IllegalStateException();
-        }
+    private static LineBuffer appendMember(
+            LineBuffer buf,
+            String owner,
+            String name,
+            String descriptor) {
+        return buf.appendQuoted(owner)
+                .append('.')
+                .appendQuoted(name)
+                .append(':')
+                .appendQuoted(descriptor);
     }
 
     @Override
@@ -406,229 +154,124 @@ class DisassemblerMethodVisitor extends MethodVisitor {
             Handle bootstrapMethodHandle,
             Object... bootstrapMethodArguments) {
         var label = bootstrapTracker.nextLabel();
-        methodSpec.addBootstrapDirective(String.format(".bootstrap %s", label));
-        methodSpec.addBootstrapDirective(String.format(
-                "  target %s",
-                parseHandle(bootstrapMethodHandle)
-        ));
+        var bootstrapDirectives = methodSpec.getBootstrapDirectives();
+        bootstrapDirectives.append(".bootstrap ").append(label).endLine();
+        appendHandle(bootstrapDirectives.append("  target "), bootstrapMethodHandle).endLine();
         if (bootstrapMethodArguments.length > 0) {
-            var args = Stream.of(bootstrapMethodArguments)
-                    .map(this::parseArgument)
-                    .collect(Collectors.joining(", "));
-            methodSpec.addBootstrapDirective("  args " + args);
+            bootstrapDirectives.append("  args ");
+            for (int i = 0; i < bootstrapMethodArguments.length; i++) {
+                if (i > 0) {
+                    bootstrapDirectives.append(", ");
+                }
+                appendArgument(bootstrapDirectives, bootstrapMethodArguments[i]);
+            }
+            bootstrapDirectives.endLine();
         }
 
-        methodSpec.addInstruction(String.format(
-                "invokedynamic %s:%s %s",
-                name,
-                descriptor,
-                label
-        ));
-    }
-
-    private String parseTag(int tag) {
-        switch (tag) {
-            case Opcodes.H_GETFIELD:
-                return "h_getfield";
-            case Opcodes.H_GETSTATIC:
-                return "h_getstatic";
-            case Opcodes.H_PUTFIELD:
-                return "h_putfield";
-            case Opcodes.H_PUTSTATIC:
-                return "h_putstatic";
-            case Opcodes.H_INVOKEVIRTUAL:
-                return "h_invokevirtual";
-            case Opcodes.H_INVOKESTATIC:
-                return "h_invokestatic";
-            case Opcodes.H_INVOKESPECIAL:
-                return "h_invokespecial";
-            case Opcodes.H_NEWINVOKESPECIAL:
-                return "h_newinvokespecial";
-            case Opcodes.H_INVOKEINTERFACE:
-                return "h_invokeinterface";
-            default:
-                throw new IllegalStateException();
-        }
+        instruction(Opcodes.INVOKEDYNAMIC)
+                .append(' ')
+                .append(name)
+                .append(':')
+                .append(descriptor)
+                .append(' ')
+                .append(label)
+                .endLine();
     }
 
-    private String parseHandle(Handle handle) {
-        return String.format(
-                "%s %s.%s:%s",
-                parseTag(handle.getTag()),
-                quoteKeywords(handle.getOwner()),
-                quoteKeywords(handle.getName()),
-                quoteKeywords(handle.getDesc())
-        );
+    private static LineBuffer appendHandle(LineBuffer buf, Handle handle) {
+        buf.append(Mnemonics.ofHandleTag(handle.getTag())).append(' ');
+        return appendMember(buf, handle.getOwner(), handle.getName(), handle.getDesc());
     }
 
-    private String parseArgument(Object arg) {
+    private static void appendArgument(LineBuffer buf, Object arg) {
         if (arg.getClass() == String.class) {
-            return "\"" + StringEscapeUtils.escapeJava((String) arg) + "\"";
+            appendString(buf, (String) arg);
+        } else if (arg instanceof Handle) {
+            appendHandle(buf, (Handle) arg);
+        } else if (arg instanceof Type) {
+            buf.appendQuoted(arg.toString());
+        } else {
+            buf.append(arg.toString());
         }
-        if (arg instanceof Handle) {
-            var handle = (Handle) arg;
-            return parseHandle(handle);
-        }
-        if (arg instanceof Type) {
-            return quoteKeywords(arg.toString());
-        }
-        return arg.toString();
     }
 
     @Override
     public void visitJumpInsn(int opcode, Label label) {
-        var labelName = labelTracker.refLabel();
-        var jump = parseJumpInsn(opcode);
-        methodSpec.addInstruction(jump + " " + labelName);
-    }
-
-    private String parseJumpInsn(int opcode) {
-        switch (opcode) {
-            case Opcodes.IFEQ:
-                return "ifeq";
-            case Opcodes.IFNE:
-                return "ifne";
-            case Opcodes.IFLT:
-                return "iflt";
-            case Opcodes.IFGE:
-                return "ifge";
-            case Opcodes.IFGT:
-                return "ifgt";
-            case Opcodes.IFLE:
-                return "ifle";
-            case Opcodes.IF_ICMPEQ:
-                return "if_icmpeq";
-            case Opcodes.IF_ICMPNE:
-                return "if_icmpne";
-            case Opcodes.IF_ICMPLT:
-                return "if_icmplt";
-            case Opcodes.IF_ICMPGE:
-                return "if_icmpge";
-            case Opcodes.IF_ICMPGT:
-                return "if_icmpgt";
-            case Opcodes.IF_ICMPLE:
-                return "if_icmple";
-            case Opcodes.IF_ACMPEQ:
-                return "if_acmpeq";
-            case Opcodes.IF_ACMPNE:
-                return "if_acmpne";
-            case Opcodes.GOTO:
-                return "goto";
-            case Opcodes.JSR:
-                return "jsr";
-            case Opcodes.IFNULL:
-                return "ifnull";
-            case Opcodes.IFNONNULL:
-                return "ifnonnull";
-            default:
-                throw new IllegalStateException();
-        }
+        instruction(opcode).append(' ').appendLabel(labelNamer.refLabel(label)).endLine();
     }
 
     @Override
     public void visitLabel(Label label) {
-        var labelName = labelTracker.defLabel();
-        if (labelName != null) {
-            methodSpec.addLabel(labelName);
-        }
+        instructions.appendLabelDefinition(labelNamer.defLabel(label));
     }
 
     @Override
     public void visitTypeInsn(int opcode, String type) {
-        methodSpec.addInstruction(parseTypeInsn(opcode) + " " + quoteKeywords(type));
-    }
-
-    private String parseTypeInsn(int opcode) {
-        switch (opcode) {
-            case Opcodes.NEW:
-                return "new";
-            case Opcodes.ANEWARRAY:
-                return "anewarray";
-            case Opcodes.CHECKCAST:
-                return "checkcast";
-            case Opcodes.INSTANCEOF:
-                return "instanceof";
-            default:
-                throw new IllegalStateException();
-        }
+        instruction(opcode).append(' ').appendQuoted(type).endLine();
     }
 
     @Override
     public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
-        var instruction = String.format(
-                "%s %s.%s:%s",
-                parseFieldInsn(opcode),
-                quoteKeywords(owner),
-                quoteKeywords(name),
-                quoteKeywords(descriptor)
-        );
-        methodSpec.addInstruction(instruction);
-    }
-
-    private String parseFieldInsn(int opcode) {
-        switch (opcode) {
-            case Opcodes.GETSTATIC:
-                return "getstatic";
-            case Opcodes.PUTSTATIC:
-                return "putstatic";
-            case Opcodes.GETFIELD:
-                return "getfield";
-            case Opcodes.PUTFIELD:
-                return "putfield";
-            default:
-                throw new IllegalStateException();
-        }
+        appendMember(instruction(opcode).append(' '), owner, name, descriptor).endLine();
     }
 
     @Override
     public void visitIincInsn(int var, int increment) {
-        methodSpec.addInstruction(String.format("iinc %d %d", var, increment));
+        instruction(Opcodes.IINC).append(' ').append(var).append(' ').append(increment).endLine();
     }
 
     @Override
     public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
-        methodSpec.addInstruction("lookupswitch");
+        instruction(Opcodes.LOOKUPSWITCH).endLine();
         var maxKeyLength = findMaxLookupKeyLength(keys);
 
-        for (int key : keys) {
-            methodSpec.addInstruction(String.format(
-                    "  %s: %s",
-                    indentLookupKey(maxKeyLength, key),
-                    labelTracker.refLabel()
-            ));
+        for (int i = 0; i < keys.length; i++) {
+            appendSwitchCase(maxKeyLength, keys[i], labels[i]);
         }
-        methodSpec.addInstruction(String.format(
-                "  %s: %s",
-                indentDefaultLookupKey(maxKeyLength),
-                labelTracker.refLabel()
-        ));
-        methodSpec.addInstruction("endswitch");
+        appendDefaultSwitchCase(maxKeyLength, dflt);
+        instructions.append(INDENT).append("endswitch").endLine();
     }
 
     @Override
     public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
-        var maxKeyLength = Math.max("default".length(), Integer.toString(max).length());
+        var maxKeyLength = Math.max(DEFAULT_KEY.length(), stringSize(max));
 
-        methodSpec.addInstruction("tableswitch");
+        instruction(Opcodes.TABLESWITCH).endLine();
         for (int i = min; i <= max; i++) {
-            methodSpec.addInstruction(String.format(
-                    "  %s: %s",
-                    indentLookupKey(maxKeyLength, i),
-                    labelTracker.refLabel()
-            ));
+            appendSwitchCase(maxKeyLength, i, labels[i - min]);
+        }
+        appendDefaultSwitchCase(maxKeyLength, dflt);
+        instructions.append(INDENT).append("endswitch").endLine();
+    }
+
+    private void appendSwitchCase(int maxKeyLength, int key, Label label) {
+        instructions.append(INDENT).append(INDENT);
+        appendPadding(maxKeyLength - stringSize(key));
+        instructions.append(key)
+                .append(": ")
+                .appendLabel(labelNamer.refLabel(label))
+                .endLine();
+    }
+
+    private void appendDefaultSwitchCase(int maxKeyLength, Label dflt) {
+        instructions.append(INDENT).append(INDENT);
+        appendPadding(maxKeyLength - DEFAULT_KEY.length());
+        instructions.append(DEFAULT_KEY)
+                .append(": ")
+                .appendLabel(labelNamer.refLabel(dflt))
+                .endLine();
+    }
+
+    private void appendPadding(int padding) {
+        for (int i = 0; i < padding; i++) {
+            instructions.append(' ');
         }
-        methodSpec.addInstruction(String.format(
-                "  %s: %s",
-                indentDefaultLookupKey(maxKeyLength),
-                labelTracker.refLabel()
-        ));
-        methodSpec.addInstruction("endswitch");
     }
 
-    private int findMaxLookupKeyLength(int[] keys) {
-        var maxKeyLength = "default".length();
+    private static int findMaxLookupKeyLength(int[] keys) {
+        var maxKeyLength = DEFAULT_KEY.length();
         for (int key : keys) {
-            var length = Integer.toString(key).length();
+            var length = stringSize(key);
             if (length > maxKeyLength) {
                 maxKeyLength = length;
             }
@@ -636,44 +279,136 @@ class DisassemblerMethodVisitor extends MethodVisitor {
         return maxKeyLength;
     }
 
-    private String indentLookupKey(int maxKeyLength, int key) {
-        return String.format("%" + maxKeyLength + "d", key);
-    }
-
-    private String indentDefaultLookupKey(int maxKeyLength) {
-        return String.format("%" + maxKeyLength + "s", "default");
+    /**
+     * Returns the length of the decimal string representation of {@code i}, i.e. the equivalent
+     * of {@code Integer.toString(i).length()}.
+     */
+    private static int stringSize(int i) {
+        var size = i < 0 ? 2 : 1;
+        var abs = Math.abs((long) i);
+        while (abs >= 10) {
+            abs /= 10;
+            size++;
+        }
+        return size;
     }
 
     @Override
     public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
-        methodSpec.addInstruction(String.format(
-                "multianewarray %s %d",
-                quoteKeywords(descriptor),
-                numDimensions
-        ));
+        instruction(Opcodes.MULTIANEWARRAY)
+                .append(' ')
+                .appendQuoted(descriptor)
+                .append(' ')
+                .append(numDimensions)
+                .endLine();
     }
 
     @Override
     public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
-        var startName = labelTracker.refLabel();
-        var endName = labelTracker.refLabel();
-        var handlerName = labelTracker.refLabel();
         var exceptionType = type == null
                 ? "any"
                 : type;
 
-        methodSpec.addExceptionDirective(String.format(
-                ".exception %s %s %s %s",
-                startName,
-                endName,
-                handlerName,
-                exceptionType
-        ));
+        methodSpec.getExceptionDirectives()
+                .append(".exception ")
+                .appendLabel(labelNamer.refLabel(start))
+                .append(' ')
+                .appendLabel(labelNamer.refLabel(end))
+                .append(' ')
+                .appendLabel(labelNamer.refLabel(handler))
+                .append(' ')
+                .append(exceptionType)
+                .endLine();
     }
 
     @Override
     public void visitLineNumber(int line, Label start) {
-        methodSpec.addInlineDirective(".line " + line);
+        instructions.append(".line ").append(line).endLine();
+    }
+
+    @Override
+    public void visitFrame(
+            int type,
+            int numLocal,
+            Object[] local,
+            int numStack,
+            Object[] stack) {
+        if (!emitFrames) {
+            return;
+        }
+
+        switch (type) {
+            case Opcodes.F_SAME:
+                instructions.append(".stack same");
+                break;
+            case Opcodes.F_SAME1:
+                instructions.append(".stack same1 ");
+                appendFrameTypes(numStack, stack);
+                break;
+            case Opcodes.F_APPEND:
+                instructions.append(".stack append ");
+                appendFrameTypes(numLocal, local);
+                break;
+            case Opcodes.F_CHOP:
+                instructions.append(".stack chop ").append(numLocal);
+                break;
+            case Opcodes.F_FULL:
+                // locals first - label references are recorded in this order
+                instructions.append(".stack full (");
+                appendFrameTypes(numLocal, local);
+                instructions.append(") (");
+                appendFrameTypes(numStack, stack);
+                instructions.append(')');
+                break;
+            default:
+                // expanded frames are never requested from the class reader
+                throw new IllegalStateException();
+        }
+        instructions.endLine();
+    }
+
+    private void appendFrameTypes(int numTypes, Object[] types) {
+        for (int i = 0; i < numTypes; i++) {
+            if (i > 0) {
+                instructions.append(' ');
+            }
+            appendFrameType(types[i]);
+        }
+    }
+
+    private void appendFrameType(Object type) {
+        if (type instanceof Label) {
+            instructions.append("uninitialized:").appendLabel(labelNamer.refLabel((Label) type));
+            return;
+        }
+        if (type instanceof String) {
+            var internalName = (String) type;
+            if (internalName.startsWith("[")) {
+                instructions.appendQuoted(internalName);
+            } else {
+                instructions.appendQuoted("L" + internalName + ";");
+            }
+            return;
+        }
+
+        var tag = (Integer) type;
+        if (tag.equals(Opcodes.TOP)) {
+            instructions.append("top");
+        } else if (tag.equals(Opcodes.INTEGER)) {
+            instructions.append("I");
+        } else if (tag.equals(Opcodes.FLOAT)) {
+            instructions.append("F");
+        } else if (tag.equals(Opcodes.LONG)) {
+            instructions.append("J");
+        } else if (tag.equals(Opcodes.DOUBLE)) {
+            instructions.append("D");
+        } else if (tag.equals(Opcodes.NULL)) {
+            instructions.append("null");
+        } else if (tag.equals(Opcodes.UNINITIALIZED_THIS)) {
+            instructions.append("uninitializedThis");
+        } else {
+            throw new IllegalStateException();
+        }
     }
 
     @Override
@@ -688,14 +423,18 @@ class DisassemblerMethodVisitor extends MethodVisitor {
                 ? descriptor
                 : signature;
 
-        methodSpec.addVarDirective(String.format(
-                ".var %d %s:%s %s %s",
-                index,
-                quoteKeywords(name),
-                quoteKeywords(jasmDescriptor),
-                labelTracker.refLabel(),
-                labelTracker.refLabel()
-        ));
+        methodSpec.getVarDirectives()
+                .append(".var ")
+                .append(index)
+                .append(' ')
+                .appendQuoted(name)
+                .append(':')
+                .appendQuoted(jasmDescriptor)
+                .append(' ')
+                .appendLabel(labelNamer.refLabel(start))
+                .append(' ')
+                .appendLabel(labelNamer.refLabel(end))
+                .endLine();
     }
 
 }
@@ -0,0 +1,267 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.objectweb.asm.ClassReader;
+
+import java.util.Objects;
+
+/**
+ * Immutable set of options controlling how a {@linkplain Disassembler} renders its output.
+ */
+public final class DisassemblerOptions {
+
+    private static final DisassemblerOptions DEFAULTS = new DisassemblerOptions(
+            false,
+            true,
+            false,
+            false,
+            MethodFilter.all()
+    );
+
+    private final boolean emitFrames;
+    private final boolean singlePass;
+    private final boolean skipDebug;
+    private final boolean skipFrames;
+    private final MethodFilter methodFilter;
+
+    private DisassemblerOptions(
+            boolean emitFrames,
+            boolean singlePass,
+            boolean skipDebug,
+            boolean skipFrames,
+            MethodFilter methodFilter) {
+        this.emitFrames = emitFrames;
+        this.singlePass = singlePass;
+        this.skipDebug = skipDebug;
+        this.skipFrames = skipFrames;
+        this.methodFilter = methodFilter;
+    }
+
+    /**
+     * Returns the default options.
+     *
+     * @return the default options
+     */
+    public static DisassemblerOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns whether stack map frames are emitted as {@code .stack} directives.
+     *
+     * <p>If {@code true}, the disassembled source can be re-assembled without having the
+     * assembler compute the stack map frames again. Defaults to {@code false}.
+     *
+     * @return {@code true} if stack map frames are emitted
+     */
+    public boolean isEmitFrames() {
+        return emitFrames;
+    }
+
+    /**
+     * Returns a copy of these options with the emit-frames flag set to the provided value.
+     *
+     * @param emitFrames whether to emit stack map frames as {@code .stack} directives
+     * @return a copy of these options
+     * @see #isEmitFrames()
+     */
+    public DisassemblerOptions withEmitFrames(boolean emitFrames) {
+        return new DisassemblerOptions(
+                emitFrames,
+                singlePass,
+                skipDebug,
+                skipFrames,
+                methodFilter
+        );
+    }
+
+    /**
+     * Returns whether each class file is decoded in a single pass.
+     *
+     * <p>If {@code false}, the class file is decoded twice: once to determine which labels are
+     * referenced and once more to render the source code. If {@code true}, the rendered lines of
+     * each method are buffered and their label names are filled in once the method has been
+     * decoded completely. Both modes yield identical output. Defaults to {@code true}.
+     *
+     * @return {@code true} if each class file is decoded in a single pass
+     */
+    public boolean isSinglePass() {
+        return singlePass;
+    }
+
+    /**
+     * Returns a copy of these options with the single-pass flag set to the provided value.
+     *
+     * @param singlePass whether to decode each class file in a single pass
+     * @return a copy of these options
+     * @see #isSinglePass()
+     */
+    public DisassemblerOptions withSinglePass(boolean singlePass) {
+        return new DisassemblerOptions(
+                emitFrames,
+                singlePass,
+                skipDebug,
+                skipFrames,
+                methodFilter
+        );
+    }
+
+    /**
+     * Returns whether debug information is skipped while decoding a class file.
+     *
+     * <p>If {@code true}, the source file, line numbers and local variables are not decoded at
+     * all, i.e. no {@code .source}, {@code .line} or {@code .var} directives are emitted. This is
+     * useful if only the instruction streams are of interest. Defaults to {@code false}.
+     *
+     * @return {@code true} if debug information is skipped
+     */
+    public boolean isSkipDebug() {
+        return skipDebug;
+    }
+
+    /**
+     * Returns a copy of these options with the skip-debug flag set to the provided value.
+     *
+     * @param skipDebug whether to skip debug information
+     * @return a copy of these options
+     * @see #isSkipDebug()
+     */
+    public DisassemblerOptions withSkipDebug(boolean skipDebug) {
+        return new DisassemblerOptions(
+                emitFrames,
+                singlePass,
+                skipDebug,
+                skipFrames,
+                methodFilter
+        );
+    }
+
+    /**
+     * Returns whether stack map frames are skipped while decoding a class file.
+     *
+     * <p>Frames are always skipped if they are not emitted, see {@linkplain #isEmitFrames()}.
+     * Setting this flag additionally suppresses the {@code .stack} directives if frames are to
+     * be emitted. Defaults to {@code false}.
+     *
+     * @return {@code true} if stack map frames are skipped
+     */
+    public boolean isSkipFrames() {
+        return skipFrames;
+    }
+
+    /**
+     * Returns a copy of these options with the skip-frames flag set to the provided value.
+     *
+     * @param skipFrames whether to skip stack map frames
+     * @return a copy of these options
+     * @see #isSkipFrames()
+     */
+    public DisassemblerOptions withSkipFrames(boolean skipFrames) {
+        return new DisassemblerOptions(
+                emitFrames,
+                singlePass,
+                skipDebug,
+                skipFrames,
+                methodFilter
+        );
+    }
+
+    /**
+     * Returns the filter selecting the methods to disassemble. Methods that are not selected are
+     * not decoded at all. Defaults to {@linkplain MethodFilter#all()}.
+     *
+     * @return the method filter
+     */
+    public MethodFilter getMethodFilter() {
+        return methodFilter;
+    }
+
+    /**
+     * Returns a copy of these options with the provided method filter.
+     *
+     * @param methodFilter the filter selecting the methods to disassemble
+     * @return a copy of these options
+     * @see #getMethodFilter()
+     */
+    public DisassemblerOptions withMethodFilter(MethodFilter methodFilter) {
+        return new DisassemblerOptions(
+                emitFrames,
+                singlePass,
+                skipDebug,
+                skipFrames,
+                Objects.requireNonNull(methodFilter, "methodFilter")
+        );
+    }
+
+    int getParsingOptions() {
+        var parsingOptions = 0;
+        if (skipDebug) {
+            parsingOptions |= ClassReader.SKIP_DEBUG;
+        }
+        if (skipFrames || !emitFrames) {
+            // frames that are not emitted do not affect the output, not even label names
+            parsingOptions |= ClassReader.SKIP_FRAMES;
+        }
+        return parsingOptions;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        DisassemblerOptions other = (DisassemblerOptions) obj;
+        return new EqualsBuilder()
+                .append(this.emitFrames, other.emitFrames)
+                .append(this.singlePass, other.singlePass)
+                .append(this.skipDebug, other.skipDebug)
+                .append(this.skipFrames, other.skipFrames)
+                .append(this.methodFilter, other.methodFilter)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(17, 37)
+                .append(emitFrames)
+                .append(singlePass)
+                .append(skipDebug)
+                .append(skipFrames)
+                .append(methodFilter)
+                .toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "DisassemblerOptions{"
+                + "emitFrames=" + emitFrames
+                + ", singlePass=" + singlePass
+                + ", skipDebug=" + skipDebug
+                + ", skipFrames=" + skipFrames
+                + ", methodFilter=" + methodFilter
+                + '}';
+    }
+
+}
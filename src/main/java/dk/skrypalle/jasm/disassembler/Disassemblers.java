@@ -21,28 +21,191 @@ import dk.skrypalle.jasm.disassembler.err.ErrorListener;
 
 import java.nio.file.Path;
 
+import static dk.skrypalle.jasm.disassembler.DisassemblerOptions.defaults;
+
 public final class Disassemblers {
 
+    /**
+     * Creates a disassembler reading the class file of the provided class from the class path.
+     *
+     * @param className     the fully qualified name of the class to disassemble
+     * @param options       the disassembler options
+     * @param errorListener the error listener to report errors to
+     * @param verbose       whether to report errors verbosely
+     * @return the disassembler
+     */
+    public static Disassembler fromClassName(
+            String className,
+            DisassemblerOptions options,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return new DisassemblerFromClassName(className, options, errorListener, verbose);
+    }
+
     public static Disassembler fromClassName(
             String className,
             ErrorListener errorListener,
             boolean verbose) {
-        return new DisassemblerFromClassName(className, errorListener, verbose);
+        return fromClassName(className, defaults(), errorListener, verbose);
     }
 
+    /**
+     * Creates a disassembler reading the provided binary class file.
+     *
+     * @param binaryClassFile the binary class file to disassemble
+     * @param sourceName      the name of the source used in error messages
+     * @param options         the disassembler options
+     * @param errorListener   the error listener to report errors to
+     * @param verbose         whether to report errors verbosely
+     * @return the disassembler
+     */
     public static Disassembler fromBinary(
             byte[] binaryClassFile,
             String sourceName,
+            DisassemblerOptions options,
             ErrorListener errorListener,
             boolean verbose) {
-        return new DisassemblerFromBinary(binaryClassFile, sourceName, errorListener, verbose);
+        return new DisassemblerFromBinary(
+                binaryClassFile,
+                sourceName,
+                options,
+                errorListener,
+                verbose
+        );
     }
 
+    public static Disassembler fromBinary(
+            byte[] binaryClassFile,
+            String sourceName,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return fromBinary(binaryClassFile, sourceName, defaults(), errorListener, verbose);
+    }
+
+    /**
+     * Creates a disassembler reading the provided class file.
+     *
+     * @param inputClassFile the class file to disassemble
+     * @param options        the disassembler options
+     * @param errorListener  the error listener to report errors to
+     * @param verbose        whether to report errors verbosely
+     * @return the disassembler
+     */
     public static Disassembler fromFile(
             Path inputClassFile,
+            DisassemblerOptions options,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return new DisassemblerFromFile(inputClassFile, options, errorListener, verbose);
+    }
+
+    public static Disassembler fromFile(
+            Path inputClassFile,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return fromFile(inputClassFile, defaults(), errorListener, verbose);
+    }
+
+    /**
+     * Creates a bulk disassembler reading all class files straight from the provided jar.
+     *
+     * @param jar           the jar to disassemble
+     * @param options       the disassembler options
+     * @param parallelism   the number of class files to disassemble in parallel
+     * @param errorListener the thread-safe error listener to report errors to
+     * @param verbose       whether to report errors verbosely
+     * @return the bulk disassembler
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1
+     * @see BulkDisassembler
+     */
+    public static BulkDisassembler fromJar(
+            Path jar,
+            DisassemblerOptions options,
+            int parallelism,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return BulkDisassembler.fromJar(jar, options, parallelism, errorListener, verbose);
+    }
+
+    public static BulkDisassembler fromJar(
+            Path jar,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return fromJar(jar, defaults(), defaultParallelism(), errorListener, verbose);
+    }
+
+    /**
+     * Creates a bulk disassembler reading all class files within the provided directory and its
+     * subdirectories.
+     *
+     * @param directory     the directory to disassemble
+     * @param options       the disassembler options
+     * @param parallelism   the number of class files to disassemble in parallel
+     * @param errorListener the thread-safe error listener to report errors to
+     * @param verbose       whether to report errors verbosely
+     * @return the bulk disassembler
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1
+     * @see BulkDisassembler
+     */
+    public static BulkDisassembler fromDirectory(
+            Path directory,
+            DisassemblerOptions options,
+            int parallelism,
             ErrorListener errorListener,
             boolean verbose) {
-        return new DisassemblerFromFile(inputClassFile, errorListener, verbose);
+        return BulkDisassembler.fromDirectory(
+                directory,
+                options,
+                parallelism,
+                errorListener,
+                verbose
+        );
+    }
+
+    public static BulkDisassembler fromDirectory(
+            Path directory,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return fromDirectory(directory, defaults(), defaultParallelism(), errorListener, verbose);
+    }
+
+    /**
+     * Creates a bulk disassembler reading all class files of a module of the running JDK, e.g.
+     * {@code java.base}, from the {@code jrt:/} file system.
+     *
+     * @param moduleName    the name of the module to disassemble
+     * @param options       the disassembler options
+     * @param parallelism   the number of class files to disassemble in parallel
+     * @param errorListener the thread-safe error listener to report errors to
+     * @param verbose       whether to report errors verbosely
+     * @return the bulk disassembler
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1
+     * @see BulkDisassembler
+     */
+    public static BulkDisassembler fromModule(
+            String moduleName,
+            DisassemblerOptions options,
+            int parallelism,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return BulkDisassembler.fromModule(
+                moduleName,
+                options,
+                parallelism,
+                errorListener,
+                verbose
+        );
+    }
+
+    public static BulkDisassembler fromModule(
+            String moduleName,
+            ErrorListener errorListener,
+            boolean verbose) {
+        return fromModule(moduleName, defaults(), defaultParallelism(), errorListener, verbose);
+    }
+
+    private static int defaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
     }
 
     private Disassemblers() { /* static utility */ }
@@ -0,0 +1,51 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import org.objectweb.asm.Label;
+
+import java.util.function.Supplier;
+
+/**
+ * Names the labels of a single method while it is being disassembled.
+ *
+ * <p>The returned names are either plain strings or {@linkplain Supplier suppliers} of strings
+ * that are resolved lazily, i.e. only once the whole method has been visited. Suppliers must
+ * not be queried any earlier.
+ */
+interface LabelNamer {
+
+    /**
+     * Returns the name of a label referenced by an instruction or directive.
+     *
+     * @param label the referenced label
+     * @return the name of the label
+     */
+    Object refLabel(Label label);
+
+    /**
+     * Returns the name of a label defined at the current position of the method, or
+     * {@code null} if it is known to be unreferenced. Suppliers of unreferenced labels supply
+     * {@code null}.
+     *
+     * @param label the defined label
+     * @return the name of the label or {@code null}
+     */
+    Object defLabel(Label label);
+
+}
@@ -21,9 +21,9 @@ import org.objectweb.asm.Label;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.stream.Collectors;
+import java.util.IdentityHashMap;
 
-class LabelTracker {
+class LabelTracker implements LabelNamer {
 
     private final Deque<Record> records;
 
@@ -66,15 +66,19 @@ class LabelTracker {
     }
 
     void link() {
-        var recordedRefs = records.stream()
-                .filter(Record::isRef)
-                .collect(Collectors.toList());
-
-        for (var ref : recordedRefs) {
-            for (Record record : records) {
-                if (record.isDef() && record.label == ref.label) {
-                    record.referenced = true;
-                    ref.ref = record;
+        var defsByLabel = new IdentityHashMap<Label, Record>();
+        for (Record record : records) {
+            if (record.isDef()) {
+                defsByLabel.put(record.label, record);
+            }
+        }
+
+        for (Record record : records) {
+            if (record.isRef()) {
+                var def = defsByLabel.get(record.label);
+                if (def != null) {
+                    def.referenced = true;
+                    record.ref = def;
                 }
             }
         }
@@ -89,15 +93,17 @@ class LabelTracker {
         }
     }
 
-    String refLabel() {
+    @Override
+    public Object refLabel(Label label) {
         var record = records.poll();
         if (record == null || !record.isRef()) {
             throw new IllegalStateException();
         }
-        return String.format("label_%d", record.ref.slot);
+        return "label_" + record.ref.slot;
     }
 
-    String defLabel() {
+    @Override
+    public Object defLabel(Label label) {
         var record = records.poll();
         if (record == null || !record.isDef()) {
             throw new IllegalStateException();
@@ -105,7 +111,7 @@ class LabelTracker {
         if (!record.referenced) {
             return null;
         }
-        return String.format("label_%d:", record.slot);
+        return "label_" + record.slot;
     }
 
 }
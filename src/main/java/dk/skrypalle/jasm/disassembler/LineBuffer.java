@@ -0,0 +1,183 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import dk.skrypalle.jasm.Utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Accumulates rendered source lines in a single growing buffer.
+ *
+ * <p>Label names supplied lazily by a {@link LabelNamer} cannot be rendered before the method has
+ * been visited completely. Such names are recorded as patches at their position in the buffer
+ * instead and filled in when the lines are {@linkplain #writeTo(Appendable) written}.
+ */
+final class LineBuffer {
+
+    private static final int INITIAL_PATCH_CAPACITY = 8;
+
+    private final StringBuilder text;
+    private int[] patchOffsets;
+    private Object[] patchNames;
+    private boolean[] patchDefinitions;
+    private int numPatches;
+
+    LineBuffer() {
+        text = new StringBuilder();
+    }
+
+    /**
+     * Discards all lines while retaining the allocated capacity for reuse.
+     */
+    void clear() {
+        text.setLength(0);
+        if (patchNames != null) {
+            Arrays.fill(patchNames, 0, numPatches, null);
+        }
+        numPatches = 0;
+    }
+
+    boolean isEmpty() {
+        return text.length() == 0 && numPatches == 0;
+    }
+
+    LineBuffer append(String str) {
+        text.append(str);
+        return this;
+    }
+
+    LineBuffer append(char c) {
+        text.append(c);
+        return this;
+    }
+
+    LineBuffer append(int i) {
+        text.append(i);
+        return this;
+    }
+
+    /**
+     * Appends the provided string with all keywords quoted, i.e. the equivalent of
+     * {@link dk.skrypalle.jasm.Utils#quoteKeywords(String)} without creating intermediate strings.
+     */
+    LineBuffer appendQuoted(String str) {
+        if (str == null) {
+            text.append((String) null);
+            return this;
+        }
+        if (str.indexOf('/') < 0) {
+            appendQuotedSegment(str, 0, str.length());
+            return this;
+        }
+
+        // empty segments are dropped, just like Utils.quoteKeywords does
+        var first = true;
+        var start = 0;
+        while (start <= str.length()) {
+            var end = str.indexOf('/', start);
+            if (end < 0) {
+                end = str.length();
+            }
+            if (end > start) {
+                if (!first) {
+                    text.append('/');
+                }
+                appendQuotedSegment(str, start, end);
+                first = false;
+            }
+            start = end + 1;
+        }
+        return this;
+    }
+
+    private void appendQuotedSegment(String str, int start, int end) {
+        if (Utils.isKeyword(str, start, end)) {
+            text.append('"').append(str, start, end).append('"');
+        } else {
+            text.append(str, start, end);
+        }
+    }
+
+    /**
+     * Appends the name of a referenced label.
+     */
+    LineBuffer appendLabel(Object name) {
+        if (name instanceof Supplier) {
+            addPatch(name, false);
+        } else {
+            text.append(name);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the line defining a label. Nothing is appended if the label is unreferenced.
+     */
+    LineBuffer appendLabelDefinition(Object name) {
+        if (name instanceof Supplier) {
+            addPatch(name, true);
+        } else if (name != null) {
+            text.append(name).append(":\n");
+        }
+        return this;
+    }
+
+    LineBuffer endLine() {
+        text.append('\n');
+        return this;
+    }
+
+    private void addPatch(Object name, boolean definition) {
+        if (patchOffsets == null) {
+            patchOffsets = new int[INITIAL_PATCH_CAPACITY];
+            patchNames = new Object[INITIAL_PATCH_CAPACITY];
+            patchDefinitions = new boolean[INITIAL_PATCH_CAPACITY];
+        } else if (numPatches == patchOffsets.length) {
+            var capacity = numPatches * 2;
+            patchOffsets = Arrays.copyOf(patchOffsets, capacity);
+            patchNames = Arrays.copyOf(patchNames, capacity);
+            patchDefinitions = Arrays.copyOf(patchDefinitions, capacity);
+        }
+
+        patchOffsets[numPatches] = text.length();
+        patchNames[numPatches] = name;
+        patchDefinitions[numPatches] = definition;
+        numPatches++;
+    }
+
+    void writeTo(Appendable out) throws IOException {
+        var start = 0;
+        for (int i = 0; i < numPatches; i++) {
+            var offset = patchOffsets[i];
+            out.append(text, start, offset);
+            start = offset;
+
+            var name = ((Supplier<?>) patchNames[i]).get();
+            if (!patchDefinitions[i]) {
+                out.append(String.valueOf(name));
+            } else if (name != null) {
+                out.append(name.toString()).append(":\n");
+            }
+        }
+        out.append(text, start, text.length());
+    }
+
+}
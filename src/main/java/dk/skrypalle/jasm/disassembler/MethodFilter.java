@@ -0,0 +1,234 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable selection of the methods a {@linkplain Disassembler} renders.
+ *
+ * <p>Methods that are not selected are skipped entirely, i.e. their code is not even decoded.
+ * The class header, fields and selected methods are rendered as usual.
+ */
+public final class MethodFilter {
+
+    private static final MethodFilter ALL = new MethodFilter(null, Map.of());
+
+    /** Names of the methods selected regardless of their descriptor. */
+    private final Set<String> names;
+    /** Descriptors of the selected methods, keyed by method name. */
+    private final Map<String, Set<String>> descriptors;
+
+    private MethodFilter(Set<String> names, Map<String, Set<String>> descriptors) {
+        this.names = names;
+        this.descriptors = descriptors;
+    }
+
+    /**
+     * Returns a filter selecting all methods.
+     *
+     * @return a filter selecting all methods
+     */
+    public static MethodFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Returns a filter selecting all methods with the provided name, regardless of their
+     * descriptor.
+     *
+     * @param name the method name, e.g. {@code <init>}
+     * @return a filter selecting the named methods
+     */
+    public static MethodFilter of(String name) {
+        requireName(name);
+        return new MethodFilter(Set.of(name), Map.of());
+    }
+
+    /**
+     * Returns a filter selecting the method with the provided name and descriptor.
+     *
+     * @param name       the method name, e.g. {@code main}
+     * @param descriptor the method descriptor, e.g. {@code ([Ljava/lang/String;)V}
+     * @return a filter selecting the method
+     * @throws IllegalArgumentException if {@code descriptor} is not a valid method descriptor
+     */
+    public static MethodFilter of(String name, String descriptor) {
+        requireName(name);
+        requireDescriptor(descriptor);
+        return new MethodFilter(Set.of(), Map.of(name, Set.of(descriptor)));
+    }
+
+    /**
+     * Parses a method specification of the form {@code name} or {@code name(descriptor)}, e.g.
+     * {@code main} or {@code main([Ljava/lang/String;)V}.
+     *
+     * @param spec the method specification
+     * @return a filter selecting the specified methods
+     * @throws IllegalArgumentException if {@code spec} is malformed
+     */
+    public static MethodFilter parse(String spec) {
+        Objects.requireNonNull(spec, "spec");
+
+        var descriptorStart = spec.indexOf('(');
+        if (descriptorStart < 0) {
+            return of(spec);
+        }
+        return of(spec.substring(0, descriptorStart), spec.substring(descriptorStart));
+    }
+
+    /**
+     * Returns a filter selecting all methods selected by this or the other filter.
+     *
+     * @param other the other filter
+     * @return the union of both filters
+     */
+    public MethodFilter or(MethodFilter other) {
+        Objects.requireNonNull(other, "other");
+        if (this == ALL || other == ALL) {
+            return ALL;
+        }
+
+        var unionNames = new HashSet<>(names);
+        unionNames.addAll(other.names);
+        var unionDescriptors = new HashMap<String, Set<String>>();
+        descriptors.forEach((name, set) -> unionDescriptors.put(name, new HashSet<>(set)));
+        other.descriptors.forEach((name, set) -> unionDescriptors
+                .computeIfAbsent(name, k -> new HashSet<>())
+                .addAll(set));
+        return new MethodFilter(Set.copyOf(unionNames), Map.copyOf(unionDescriptors));
+    }
+
+    /**
+     * Returns whether the method with the provided name and descriptor is selected.
+     *
+     * @param name       the method name
+     * @param descriptor the method descriptor
+     * @return {@code true} if the method is to be disassembled
+     */
+    public boolean matches(String name, String descriptor) {
+        if (this == ALL || names.contains(name)) {
+            return true;
+        }
+
+        var selectedDescriptors = descriptors.get(name);
+        return selectedDescriptors != null && selectedDescriptors.contains(descriptor);
+    }
+
+    private static void requireName(String name) {
+        Objects.requireNonNull(name, "name");
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("method name must not be empty");
+        }
+    }
+
+    private static void requireDescriptor(String descriptor) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        if (descriptor.isEmpty() || descriptor.charAt(0) != '(') {
+            throw new IllegalArgumentException("invalid method descriptor: " + descriptor);
+        }
+
+        var pos = 1;
+        while (pos < descriptor.length() && descriptor.charAt(pos) != ')') {
+            pos = skipFieldType(descriptor, pos);
+        }
+        if (pos >= descriptor.length()) {
+            throw new IllegalArgumentException("invalid method descriptor: " + descriptor);
+        }
+
+        pos++;
+        if (pos < descriptor.length() && descriptor.charAt(pos) == 'V') {
+            pos++;
+        } else {
+            pos = skipFieldType(descriptor, pos);
+        }
+        if (pos != descriptor.length()) {
+            throw new IllegalArgumentException("invalid method descriptor: " + descriptor);
+        }
+    }
+
+    private static int skipFieldType(String descriptor, int start) {
+        var pos = start;
+        while (pos < descriptor.length() && descriptor.charAt(pos) == '[') {
+            pos++;
+        }
+        if (pos >= descriptor.length()) {
+            throw new IllegalArgumentException("invalid method descriptor: " + descriptor);
+        }
+
+        switch (descriptor.charAt(pos)) {
+            case 'Z':
+            case 'C':
+            case 'B':
+            case 'S':
+            case 'I':
+            case 'F':
+            case 'J':
+            case 'D':
+                return pos + 1;
+            case 'L':
+                var end = descriptor.indexOf(';', pos);
+                if (end <= pos + 1) {
+                    throw new IllegalArgumentException("invalid method descriptor: " + descriptor);
+                }
+                return end + 1;
+            default:
+                throw new IllegalArgumentException("invalid method descriptor: " + descriptor);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        MethodFilter other = (MethodFilter) obj;
+        return Objects.equals(names, other.names)
+                && descriptors.equals(other.descriptors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(names, descriptors);
+    }
+
+    @Override
+    public String toString() {
+        if (this == ALL) {
+            return "MethodFilter{all}";
+        }
+
+        var sortedDescriptors = new TreeMap<String, Set<String>>();
+        descriptors.forEach((name, set) -> sortedDescriptors.put(name, new TreeSet<>(set)));
+        return "MethodFilter{"
+                + "names=" + new TreeSet<>(names)
+                + ", descriptors=" + sortedDescriptors
+                + '}';
+    }
+
+}
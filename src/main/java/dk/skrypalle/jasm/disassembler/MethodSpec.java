@@ -20,6 +20,7 @@ package dk.skrypalle.jasm.disassembler;
 import org.apache.commons.lang3.StringUtils;
 import org.objectweb.asm.Opcodes;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,10 +33,32 @@ class MethodSpec {
     private String name;
     private String descriptor;
     private String signature;
-    private List<String> exceptionDirectives;
-    private List<String> varDirectives;
-    private List<String> bootstrapDirectives;
-    private List<String> instructions;
+    private final LineBuffer exceptionDirectives;
+    private final LineBuffer varDirectives;
+    private final LineBuffer bootstrapDirectives;
+    private final LineBuffer instructions;
+
+    MethodSpec() {
+        exceptionDirectives = new LineBuffer();
+        varDirectives = new LineBuffer();
+        bootstrapDirectives = new LineBuffer();
+        instructions = new LineBuffer();
+    }
+
+    /**
+     * Creates a new method spec taking over the line buffers of an already written one.
+     */
+    MethodSpec(MethodSpec written) {
+        exceptionDirectives = written.exceptionDirectives;
+        varDirectives = written.varDirectives;
+        bootstrapDirectives = written.bootstrapDirectives;
+        instructions = written.instructions;
+
+        exceptionDirectives.clear();
+        varDirectives.clear();
+        bootstrapDirectives.clear();
+        instructions.clear();
+    }
 
     void setAccess(int access) {
         accessList = parseMethodAccess(access);
@@ -97,68 +120,27 @@ class MethodSpec {
         this.signature = quoteKeywords(signature);
     }
 
-    void addVarDirective(String directive) {
-        if (directive == null) {
-            return;
-        }
-
-        if (varDirectives == null) {
-            varDirectives = new ArrayList<>();
-        }
-
-        varDirectives.add(directive);
+    LineBuffer getExceptionDirectives() {
+        return exceptionDirectives;
     }
 
-    void addExceptionDirective(String directive) {
-        if (directive == null) {
-            return;
-        }
-
-        if (exceptionDirectives == null) {
-            exceptionDirectives = new ArrayList<>();
-        }
-
-        exceptionDirectives.add(directive);
-    }
-
-    void addBootstrapDirective(String directive) {
-        if (directive == null) {
-            return;
-        }
-
-        if (bootstrapDirectives == null) {
-            bootstrapDirectives = new ArrayList<>();
-        }
-
-        bootstrapDirectives.add(directive);
+    LineBuffer getBootstrapDirectives() {
+        return bootstrapDirectives;
     }
 
-    void addInlineDirective(String directive) {
-        add(directive);
+    LineBuffer getVarDirectives() {
+        return varDirectives;
     }
 
-    void addInstruction(String instruction) {
-        add("  " + instruction);
+    /**
+     * Returns the buffer of instructions, labels and inline directives. Instructions are
+     * indented by two spaces.
+     */
+    LineBuffer getInstructions() {
+        return instructions;
     }
 
-    void addLabel(String label) {
-        add(label);
-    }
-
-    private void add(String instruction) {
-        if (instruction == null) {
-            return;
-        }
-
-        if (instructions == null) {
-            instructions = new ArrayList<>();
-        }
-
-        instructions.add(instruction);
-    }
-
-    @Override
-    public String toString() {
+    void writeTo(Appendable out) throws IOException {
         var buf = new StringBuilder();
         buf.append(".method ");
         if (accessList != null) {
@@ -180,30 +162,14 @@ class MethodSpec {
         }
         buf.append('\n');
 
-        if (exceptionDirectives != null) {
-            for (var directive : exceptionDirectives) {
-                buf.append(directive).append("\n");
-            }
-        }
-        if (bootstrapDirectives != null) {
-            for (var directive : bootstrapDirectives) {
-                buf.append(directive).append("\n");
-            }
-        }
-        if (varDirectives != null) {
-            for (var directive : varDirectives) {
-                buf.append(directive).append("\n");
-            }
-        }
+        out.append(buf);
 
-        if (instructions != null) {
-            for (var instruction : instructions) {
-                buf.append(instruction).append("\n");
-            }
-        }
+        exceptionDirectives.writeTo(out);
+        bootstrapDirectives.writeTo(out);
+        varDirectives.writeTo(out);
+        instructions.writeTo(out);
 
-        buf.append(".end method\n");
-        return buf.toString();
+        out.append(".end method\n");
     }
 
 }
@@ -0,0 +1,243 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Opcode-indexed lookup tables for the jASM mnemonics of JVM instructions.
+ */
+final class Mnemonics {
+
+    private static final String[] MNEMONICS = new String[256];
+    private static final String[] HANDLE_TAGS = new String[Opcodes.H_INVOKEINTERFACE + 1];
+    private static final String[] ARRAY_TYPES = new String[Opcodes.T_LONG + 1];
+
+    static {
+        MNEMONICS[Opcodes.NOP] = "nop";
+        MNEMONICS[Opcodes.ACONST_NULL] = "ldc null";
+        MNEMONICS[Opcodes.ICONST_M1] = "ldc -1";
+        MNEMONICS[Opcodes.ICONST_0] = "ldc 0";
+        MNEMONICS[Opcodes.ICONST_1] = "ldc 1";
+        MNEMONICS[Opcodes.ICONST_2] = "ldc 2";
+        MNEMONICS[Opcodes.ICONST_3] = "ldc 3";
+        MNEMONICS[Opcodes.ICONST_4] = "ldc 4";
+        MNEMONICS[Opcodes.ICONST_5] = "ldc 5";
+        MNEMONICS[Opcodes.LCONST_0] = "ldc 0l";
+        MNEMONICS[Opcodes.LCONST_1] = "ldc 1l";
+        MNEMONICS[Opcodes.FCONST_0] = "ldc 0.0f";
+        MNEMONICS[Opcodes.FCONST_1] = "ldc 1.0f";
+        MNEMONICS[Opcodes.FCONST_2] = "ldc 2.0f";
+        MNEMONICS[Opcodes.DCONST_0] = "ldc 0.0";
+        MNEMONICS[Opcodes.DCONST_1] = "ldc 1.0";
+        MNEMONICS[Opcodes.IALOAD] = "iaload";
+        MNEMONICS[Opcodes.LALOAD] = "laload";
+        MNEMONICS[Opcodes.FALOAD] = "faload";
+        MNEMONICS[Opcodes.DALOAD] = "daload";
+        MNEMONICS[Opcodes.AALOAD] = "aaload";
+        MNEMONICS[Opcodes.BALOAD] = "baload";
+        MNEMONICS[Opcodes.CALOAD] = "caload";
+        MNEMONICS[Opcodes.SALOAD] = "saload";
+        MNEMONICS[Opcodes.IASTORE] = "iastore";
+        MNEMONICS[Opcodes.LASTORE] = "lastore";
+        MNEMONICS[Opcodes.FASTORE] = "fastore";
+        MNEMONICS[Opcodes.DASTORE] = "dastore";
+        MNEMONICS[Opcodes.AASTORE] = "aastore";
+        MNEMONICS[Opcodes.BASTORE] = "bastore";
+        MNEMONICS[Opcodes.CASTORE] = "castore";
+        MNEMONICS[Opcodes.SASTORE] = "sastore";
+        MNEMONICS[Opcodes.POP] = "pop";
+        MNEMONICS[Opcodes.POP2] = "pop2";
+        MNEMONICS[Opcodes.DUP] = "dup";
+        MNEMONICS[Opcodes.DUP_X1] = "dup_x1";
+        MNEMONICS[Opcodes.DUP_X2] = "dup_x2";
+        MNEMONICS[Opcodes.DUP2] = "dup2";
+        MNEMONICS[Opcodes.DUP2_X1] = "dup2_x1";
+        MNEMONICS[Opcodes.DUP2_X2] = "dup2_x2";
+        MNEMONICS[Opcodes.SWAP] = "swap";
+        MNEMONICS[Opcodes.IADD] = "iadd";
+        MNEMONICS[Opcodes.LADD] = "ladd";
+        MNEMONICS[Opcodes.FADD] = "fadd";
+        MNEMONICS[Opcodes.DADD] = "dadd";
+        MNEMONICS[Opcodes.ISUB] = "isub";
+        MNEMONICS[Opcodes.LSUB] = "lsub";
+        MNEMONICS[Opcodes.FSUB] = "fsub";
+        MNEMONICS[Opcodes.DSUB] = "dsub";
+        MNEMONICS[Opcodes.IMUL] = "imul";
+        MNEMONICS[Opcodes.LMUL] = "lmul";
+        MNEMONICS[Opcodes.FMUL] = "fmul";
+        MNEMONICS[Opcodes.DMUL] = "dmul";
+        MNEMONICS[Opcodes.IDIV] = "idiv";
+        MNEMONICS[Opcodes.LDIV] = "ldiv";
+        MNEMONICS[Opcodes.FDIV] = "fdiv";
+        MNEMONICS[Opcodes.DDIV] = "ddiv";
+        MNEMONICS[Opcodes.IREM] = "irem";
+        MNEMONICS[Opcodes.LREM] = "lrem";
+        MNEMONICS[Opcodes.FREM] = "frem";
+        MNEMONICS[Opcodes.DREM] = "drem";
+        MNEMONICS[Opcodes.INEG] = "ineg";
+        MNEMONICS[Opcodes.LNEG] = "lneg";
+        MNEMONICS[Opcodes.FNEG] = "fneg";
+        MNEMONICS[Opcodes.DNEG] = "dneg";
+        MNEMONICS[Opcodes.ISHL] = "ishl";
+        MNEMONICS[Opcodes.LSHL] = "lshl";
+        MNEMONICS[Opcodes.ISHR] = "ishr";
+        MNEMONICS[Opcodes.LSHR] = "lshr";
+        MNEMONICS[Opcodes.IUSHR] = "iushr";
+        MNEMONICS[Opcodes.LUSHR] = "lushr";
+        MNEMONICS[Opcodes.IAND] = "iand";
+        MNEMONICS[Opcodes.LAND] = "land";
+        MNEMONICS[Opcodes.IOR] = "ior";
+        MNEMONICS[Opcodes.LOR] = "lor";
+        MNEMONICS[Opcodes.IXOR] = "ixor";
+        MNEMONICS[Opcodes.LXOR] = "lxor";
+        MNEMONICS[Opcodes.I2L] = "i2l";
+        MNEMONICS[Opcodes.I2F] = "i2f";
+        MNEMONICS[Opcodes.I2D] = "i2d";
+        MNEMONICS[Opcodes.L2I] = "l2i";
+        MNEMONICS[Opcodes.L2F] = "l2f";
+        MNEMONICS[Opcodes.L2D] = "l2d";
+        MNEMONICS[Opcodes.F2I] = "f2i";
+        MNEMONICS[Opcodes.F2L] = "f2l";
+        MNEMONICS[Opcodes.F2D] = "f2d";
+        MNEMONICS[Opcodes.D2I] = "d2i";
+        MNEMONICS[Opcodes.D2L] = "d2l";
+        MNEMONICS[Opcodes.D2F] = "d2f";
+        MNEMONICS[Opcodes.I2B] = "i2b";
+        MNEMONICS[Opcodes.I2C] = "i2c";
+        MNEMONICS[Opcodes.I2S] = "i2s";
+        MNEMONICS[Opcodes.LCMP] = "lcmp";
+        MNEMONICS[Opcodes.FCMPL] = "fcmpl";
+        MNEMONICS[Opcodes.FCMPG] = "fcmpg";
+        MNEMONICS[Opcodes.DCMPL] = "dcmpl";
+        MNEMONICS[Opcodes.DCMPG] = "dcmpg";
+        MNEMONICS[Opcodes.IRETURN] = "ireturn";
+        MNEMONICS[Opcodes.LRETURN] = "lreturn";
+        MNEMONICS[Opcodes.FRETURN] = "freturn";
+        MNEMONICS[Opcodes.DRETURN] = "dreturn";
+        MNEMONICS[Opcodes.ARETURN] = "areturn";
+        MNEMONICS[Opcodes.RETURN] = "return";
+        MNEMONICS[Opcodes.ARRAYLENGTH] = "arraylength";
+        MNEMONICS[Opcodes.ATHROW] = "athrow";
+        MNEMONICS[Opcodes.MONITORENTER] = "monitorenter";
+        MNEMONICS[Opcodes.MONITOREXIT] = "monitorexit";
+        MNEMONICS[Opcodes.ILOAD] = "iload";
+        MNEMONICS[Opcodes.LLOAD] = "lload";
+        MNEMONICS[Opcodes.FLOAD] = "fload";
+        MNEMONICS[Opcodes.DLOAD] = "dload";
+        MNEMONICS[Opcodes.ALOAD] = "aload";
+        MNEMONICS[Opcodes.ISTORE] = "istore";
+        MNEMONICS[Opcodes.LSTORE] = "lstore";
+        MNEMONICS[Opcodes.FSTORE] = "fstore";
+        MNEMONICS[Opcodes.DSTORE] = "dstore";
+        MNEMONICS[Opcodes.ASTORE] = "astore";
+        MNEMONICS[Opcodes.RET] = "ret";
+        MNEMONICS[Opcodes.IFEQ] = "ifeq";
+        MNEMONICS[Opcodes.IFNE] = "ifne";
+        MNEMONICS[Opcodes.IFLT] = "iflt";
+        MNEMONICS[Opcodes.IFGE] = "ifge";
+        MNEMONICS[Opcodes.IFGT] = "ifgt";
+        MNEMONICS[Opcodes.IFLE] = "ifle";
+        MNEMONICS[Opcodes.IF_ICMPEQ] = "if_icmpeq";
+        MNEMONICS[Opcodes.IF_ICMPNE] = "if_icmpne";
+        MNEMONICS[Opcodes.IF_ICMPLT] = "if_icmplt";
+        MNEMONICS[Opcodes.IF_ICMPGE] = "if_icmpge";
+        MNEMONICS[Opcodes.IF_ICMPGT] = "if_icmpgt";
+        MNEMONICS[Opcodes.IF_ICMPLE] = "if_icmple";
+        MNEMONICS[Opcodes.IF_ACMPEQ] = "if_acmpeq";
+        MNEMONICS[Opcodes.IF_ACMPNE] = "if_acmpne";
+        MNEMONICS[Opcodes.GOTO] = "goto";
+        MNEMONICS[Opcodes.JSR] = "jsr";
+        MNEMONICS[Opcodes.IFNULL] = "ifnull";
+        MNEMONICS[Opcodes.IFNONNULL] = "ifnonnull";
+        MNEMONICS[Opcodes.NEW] = "new";
+        MNEMONICS[Opcodes.ANEWARRAY] = "anewarray";
+        MNEMONICS[Opcodes.CHECKCAST] = "checkcast";
+        MNEMONICS[Opcodes.INSTANCEOF] = "instanceof";
+        MNEMONICS[Opcodes.GETSTATIC] = "getstatic";
+        MNEMONICS[Opcodes.PUTSTATIC] = "putstatic";
+        MNEMONICS[Opcodes.GETFIELD] = "getfield";
+        MNEMONICS[Opcodes.PUTFIELD] = "putfield";
+        MNEMONICS[Opcodes.INVOKEVIRTUAL] = "invokevirtual";
+        MNEMONICS[Opcodes.INVOKESPECIAL] = "invokespecial";
+        MNEMONICS[Opcodes.INVOKESTATIC] = "invokestatic";
+        MNEMONICS[Opcodes.INVOKEINTERFACE] = "invokeinterface";
+        MNEMONICS[Opcodes.BIPUSH] = "ldc";
+        MNEMONICS[Opcodes.SIPUSH] = "ldc";
+        MNEMONICS[Opcodes.NEWARRAY] = "newarray";
+        MNEMONICS[Opcodes.IINC] = "iinc";
+        MNEMONICS[Opcodes.LDC] = "ldc";
+        MNEMONICS[Opcodes.INVOKEDYNAMIC] = "invokedynamic";
+        MNEMONICS[Opcodes.TABLESWITCH] = "tableswitch";
+        MNEMONICS[Opcodes.LOOKUPSWITCH] = "lookupswitch";
+        MNEMONICS[Opcodes.MULTIANEWARRAY] = "multianewarray";
+
+        HANDLE_TAGS[Opcodes.H_GETFIELD] = "h_getfield";
+        HANDLE_TAGS[Opcodes.H_GETSTATIC] = "h_getstatic";
+        HANDLE_TAGS[Opcodes.H_PUTFIELD] = "h_putfield";
+        HANDLE_TAGS[Opcodes.H_PUTSTATIC] = "h_putstatic";
+        HANDLE_TAGS[Opcodes.H_INVOKEVIRTUAL] = "h_invokevirtual";
+        HANDLE_TAGS[Opcodes.H_INVOKESTATIC] = "h_invokestatic";
+        HANDLE_TAGS[Opcodes.H_INVOKESPECIAL] = "h_invokespecial";
+        HANDLE_TAGS[Opcodes.H_NEWINVOKESPECIAL] = "h_newinvokespecial";
+        HANDLE_TAGS[Opcodes.H_INVOKEINTERFACE] = "h_invokeinterface";
+
+        ARRAY_TYPES[Opcodes.T_BOOLEAN] = "Z";
+        ARRAY_TYPES[Opcodes.T_CHAR] = "C";
+        ARRAY_TYPES[Opcodes.T_FLOAT] = "F";
+        ARRAY_TYPES[Opcodes.T_DOUBLE] = "D";
+        ARRAY_TYPES[Opcodes.T_BYTE] = "B";
+        ARRAY_TYPES[Opcodes.T_SHORT] = "S";
+        ARRAY_TYPES[Opcodes.T_INT] = "I";
+        ARRAY_TYPES[Opcodes.T_LONG] = "J";
+    }
+
+    /**
+     * Returns the mnemonic of an instruction. Instructions without operands that jASM renders as
+     * an {@code ldc} instruction, e.g. {@code iconst_0}, are mapped to the complete instruction,
+     * e.g. {@code ldc 0}.
+     *
+     * @param opcode the opcode of the instruction
+     * @return the mnemonic
+     * @throws IllegalStateException if the opcode is unknown
+     */
+    static String ofOpcode(int opcode) {
+        return lookup(MNEMONICS, opcode);
+    }
+
+    static String ofHandleTag(int tag) {
+        return lookup(HANDLE_TAGS, tag);
+    }
+
+    static String ofArrayType(int type) {
+        return lookup(ARRAY_TYPES, type);
+    }
+
+    private static String lookup(String[] table, int index) {
+        var mnemonic = index >= 0 && index < table.length
+                ? table[index]
+                : null;
+        if (mnemonic == null) {
+            throw new IllegalStateException();
+        }
+        return mnemonic;
+    }
+
+    private Mnemonics() { /* static utility */ }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.disassembler;
+
+import org.objectweb.asm.Label;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Names the labels of a method without a prior label pass over the class file.
+ *
+ * <p>Referenced labels are numbered in the order of their definition, which is only known once
+ * the whole method has been visited. The names handed out are thus suppliers that are
+ * resolved when first queried, yielding exactly the names of a two-pass {@link LabelTracker}.
+ */
+class SinglePassLabelTracker implements LabelNamer {
+
+    private final Map<Label, LabelName> namesByLabel;
+    private final List<LabelName> definitions;
+    private boolean resolved;
+
+    SinglePassLabelTracker() {
+        namesByLabel = new IdentityHashMap<>();
+        definitions = new ArrayList<>();
+    }
+
+    @Override
+    public Object refLabel(Label label) {
+        var name = getName(label);
+        name.referenced = true;
+        return name;
+    }
+
+    @Override
+    public Object defLabel(Label label) {
+        var name = getName(label);
+        definitions.add(name);
+        return name;
+    }
+
+    private LabelName getName(Label label) {
+        return namesByLabel.computeIfAbsent(label, l -> new LabelName(this));
+    }
+
+    private void resolve() {
+        if (resolved) {
+            return;
+        }
+
+        int slot = 0;
+        for (var name : definitions) {
+            if (name.referenced) {
+                name.slot = slot;
+                slot++;
+            }
+        }
+        resolved = true;
+    }
+
+    private static final class LabelName implements Supplier<String> {
+
+        private final SinglePassLabelTracker tracker;
+        private boolean referenced;
+        private int slot = -1;
+
+        private LabelName(SinglePassLabelTracker tracker) {
+            this.tracker = tracker;
+        }
+
+        @Override
+        public String get() {
+            tracker.resolve();
+            return referenced
+                    ? "label_" + slot
+                    : null;
+        }
+
+    }
+
+}
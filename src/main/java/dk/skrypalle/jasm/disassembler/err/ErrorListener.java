@@ -43,6 +43,10 @@ public abstract class ErrorListener {
         failGeneral("File '%s' does not exit.", inputFilePath);
     }
 
+    public void emitModuleNotFound(String moduleName) {
+        failGeneral("Module '%s' could not be found in the runtime image.", moduleName);
+    }
+
     public void emitInputFileIsDirectory(Path inputFilePath) {
         failGeneral("The file to assemble must not point to a directory ('%s').", inputFilePath);
     }
@@ -87,6 +91,26 @@ public abstract class ErrorListener {
         failGeneral(error, "Failed writing assembled class file to '%s'", outputFile);
     }
 
+    public void emitIllegalEntryName(String sourceName) {
+        failGeneral("Entry '%s' would be written outside of the output directory.", sourceName);
+    }
+
+    public void emitIllegalNumberOfJobs(int jobs) {
+        failGeneral("The number of jobs must be at least 1 (was %d).", jobs);
+    }
+
+    public void emitClassesFailedToDisassemble(int failed, int total) {
+        failGeneral("%d of %d classes failed to disassemble.", failed, total);
+    }
+
+    public void emitIllegalMethodSpec(String methodSpec) {
+        failGeneral("Illegal method '%s'. Expected name or name(descriptor).", methodSpec);
+    }
+
+    public void emitInputMustBeFileOrModule() {
+        failGeneral("Exactly one of a file or a module must be given.");
+    }
+
     //endregion general errors
 
     private void failGeneral(String format, Object... args) {
@@ -0,0 +1,274 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.it.assembler.JasmAssertingErrorListener;
+import dk.skrypalle.jasm.it.disassembler.JdsmAssertingErrorListener;
+import dk.skrypalle.jasm.it.util.AllocationMeter;
+import dk.skrypalle.jasm.it.util.TestDataProvider;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Guards the number of bytes allocated per assembled and disassembled class against a checked-in
+ * baseline.
+ *
+ * <p>The allowed increase over the baseline defaults to 10% and is configured by the
+ * {@code allocationThreshold} system property, e.g. {@code -DallocationThreshold=0.05}. Running
+ * with {@code -DupdateAllocationBaseline=true} records a new baseline instead of checking it.
+ * Allocations depend on the JVM, so there is one baseline per Java version, and running on a
+ * Java version without a baseline fails until one is recorded.
+ */
+public class AllocationRegressionIntegrationTest {
+
+    private static final Path BASELINE_DIRECTORY = Paths.get(
+            "src/test/resources/dk/skrypalle/jasm/it"
+    );
+    private static final String JAVA_VERSION_KEY = "java.specification.version";
+    private static final String UPDATE_PROPERTY = "updateAllocationBaseline";
+    private static final String THRESHOLD_PROPERTY = "allocationThreshold";
+    private static final String DEFAULT_THRESHOLD = "0.10";
+    private static final int WARMUP_RUNS = 20;
+    private static final int RUNS = 5;
+    private static final int WORST_OFFENDERS = 5;
+
+    private Map<String, String> jasmSources;
+    private Map<String, byte[]> classFiles;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        jasmSources = loadJasmSources();
+        classFiles = assembleAll(jasmSources);
+    }
+
+    @Test
+    public void assemble_shouldNotAllocateMoreThanBaseline() throws IOException {
+        var allocatedBytes = measure(jasmSources, AllocationRegressionIntegrationTest::assemble);
+
+        assertWithinBaseline("assembler", allocatedBytes);
+    }
+
+    @Test
+    public void disassemble_shouldNotAllocateMoreThanBaseline() throws IOException {
+        var allocatedBytes = measure(classFiles, AllocationRegressionIntegrationTest::disassemble);
+
+        assertWithinBaseline("disassembler", allocatedBytes);
+    }
+
+    private static <T> Map<String, Long> measure(
+            Map<String, T> inputs,
+            BiConsumer<String, T> action) {
+        if (!AllocationMeter.isSupported()) {
+            var message = "thread allocation counters are not supported by this JVM - "
+                    + "allocations are NOT checked";
+            System.err.println("WARNING: " + message);
+            throw new SkipException(message);
+        }
+
+        var allocatedBytes = new TreeMap<String, Long>();
+        inputs.forEach((name, input) -> allocatedBytes.put(name, AllocationMeter.measure(
+                () -> action.accept(name, input),
+                WARMUP_RUNS,
+                RUNS
+        )));
+        return allocatedBytes;
+    }
+
+    private static void assertWithinBaseline(String tool, Map<String, Long> allocatedBytes)
+            throws IOException {
+        if (Boolean.getBoolean(UPDATE_PROPERTY)) {
+            updateBaseline(tool, allocatedBytes);
+            return;
+        }
+
+        var baselinePath = getBaselinePath();
+        if (!Files.exists(baselinePath)) {
+            fail("no allocation baseline for Java %s at %s - record one with -D%s=true",
+                    System.getProperty(JAVA_VERSION_KEY),
+                    baselinePath,
+                    UPDATE_PROPERTY
+            );
+        }
+
+        var baseline = loadBaseline(baselinePath);
+
+        var baselineBytes = new TreeMap<String, Long>();
+        for (var name : allocatedBytes.keySet()) {
+            var value = baseline.getProperty(tool + "." + name);
+            if (value == null) {
+                fail("no allocation baseline for %s %s - record a new baseline with -D%s=true",
+                        tool,
+                        name,
+                        UPDATE_PROPERTY
+                );
+            }
+            baselineBytes.put(name, Long.parseLong(value));
+        }
+
+        var threshold = Double.parseDouble(System.getProperty(
+                THRESHOLD_PROPERTY,
+                DEFAULT_THRESHOLD
+        ));
+        var baselineTotal = sum(baselineBytes);
+        var allocatedTotal = sum(allocatedBytes);
+        assertThat(allocatedTotal)
+                .as("%s allocates %d bytes per class, the baseline is %d bytes per class "
+                                + "(threshold %.0f%%), worst offenders:%n%s",
+                        tool,
+                        allocatedTotal / allocatedBytes.size(),
+                        baselineTotal / baselineBytes.size(),
+                        threshold * 100,
+                        formatWorstOffenders(allocatedBytes, baselineBytes)
+                )
+                .isLessThanOrEqualTo((long) (baselineTotal * (1 + threshold)));
+    }
+
+    private static String formatWorstOffenders(
+            Map<String, Long> allocatedBytes,
+            Map<String, Long> baselineBytes) {
+        return allocatedBytes.keySet().stream()
+                .sorted(Comparator.comparing(
+                        (String name) -> allocatedBytes.get(name) - baselineBytes.get(name)
+                ).reversed())
+                .limit(WORST_OFFENDERS)
+                .map(name -> String.format(
+                        "    - %s: %d -> %d bytes",
+                        name,
+                        baselineBytes.get(name),
+                        allocatedBytes.get(name)
+                ))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private static long sum(Map<String, Long> bytes) {
+        return bytes.values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    private static Path getBaselinePath() {
+        return BASELINE_DIRECTORY.resolve(String.format(
+                "allocation_baseline_java%s.properties",
+                System.getProperty(JAVA_VERSION_KEY)
+        ));
+    }
+
+    private static Properties loadBaseline(Path baselinePath) throws IOException {
+        var baseline = new Properties();
+        if (Files.exists(baselinePath)) {
+            try (Reader reader = Files.newBufferedReader(baselinePath, StandardCharsets.UTF_8)) {
+                baseline.load(reader);
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Replaces the baseline of the provided tool, keeping the baseline of the other tool.
+     * Properties are written sorted by key, so that a new baseline yields a readable diff.
+     */
+    private static synchronized void updateBaseline(String tool, Map<String, Long> allocatedBytes)
+            throws IOException {
+        var baselinePath = getBaselinePath();
+        var baseline = new TreeMap<String, String>();
+        loadBaseline(baselinePath).forEach((key, value) -> baseline.put(
+                (String) key,
+                (String) value
+        ));
+        baseline.keySet().removeIf(key -> key.startsWith(tool + "."));
+        allocatedBytes.forEach((name, bytes) -> baseline.put(tool + "." + name, bytes.toString()));
+
+        var lines = new ArrayList<String>();
+        lines.add(String.format(
+                "# bytes allocated per class on Java %s - see AllocationRegressionIntegrationTest",
+                System.getProperty(JAVA_VERSION_KEY)
+        ));
+        baseline.forEach((key, value) -> lines.add(key + "=" + value));
+        Files.write(baselinePath, lines, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> loadJasmSources() throws IOException {
+        var jasmSources = new TreeMap<String, String>();
+        for (var array : TestDataProvider.provideJasmSourceFiles()) {
+            var path = (Path) array[0];
+            var name = path.getFileName().toString().replaceAll("\\.jasm$", "");
+            jasmSources.put(name, Files.readString(path, StandardCharsets.UTF_8));
+        }
+        return jasmSources;
+    }
+
+    private static Map<String, byte[]> assembleAll(Map<String, String> jasmSources) {
+        var classFiles = new TreeMap<String, byte[]>();
+        jasmSources.forEach((name, jasmSourceCode) -> classFiles.put(
+                name,
+                assemble(name, jasmSourceCode)
+        ));
+        return classFiles;
+    }
+
+    private static byte[] assemble(String name, String jasmSourceCode) {
+        var assembly = Assemblers.fromString(
+                jasmSourceCode,
+                name,
+                new JasmAssertingErrorListener(),
+                true
+        ).assemble();
+
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+
+        return assembly.getBinaryData();
+    }
+
+    private static void disassemble(String name, byte[] binaryData) {
+        var disassembly = Disassemblers.fromBinary(
+                binaryData,
+                name,
+                DisassemblerOptions.defaults(),
+                new JdsmAssertingErrorListener(),
+                true
+        ).disassemble();
+
+        assertThat(disassembly)
+                .as("disassembly not expected to be null")
+                .isNotNull();
+    }
+
+}
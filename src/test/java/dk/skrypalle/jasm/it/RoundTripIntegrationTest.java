@@ -19,6 +19,7 @@ package dk.skrypalle.jasm.it;
 
 import dk.skrypalle.jasm.assembler.Assemblers;
 import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
 import dk.skrypalle.jasm.disassembler.Disassemblers;
 import dk.skrypalle.jasm.disassembler.Disassembly;
 import dk.skrypalle.jasm.it.assembler.JasmAssertingErrorListener;
@@ -29,6 +30,7 @@ import org.testng.annotations.Test;
 import java.nio.file.Path;
 
 import static dk.skrypalle.jasm.it.util.TestAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
 public class RoundTripIntegrationTest {
 
@@ -45,6 +47,25 @@ public class RoundTripIntegrationTest {
                 .isEqualTo(assembly);
     }
 
+    @Test(
+            dataProviderClass = TestDataProvider.class,
+            dataProvider = "provideJasmSourceFilesWithFrames"
+    )
+    public void roundTripWithFrames(Path resourcePath) {
+        // arrange
+        var options = DisassemblerOptions.defaults().withEmitFrames(true);
+
+        // act
+        var assembly = assemble(resourcePath);
+        var disassembly = disassemble(assembly, options);
+        var roundTripAssembly = assemble(disassembly);
+        var roundTripDisassembly = disassemble(roundTripAssembly, options);
+
+        // assert
+        assertThat(roundTripDisassembly.getJasmSourceCode())
+                .isEqualTo(disassembly.getJasmSourceCode());
+    }
+
     private Assembly assemble(Path resourcePath) {
         // arrange
         var asm = Assemblers.fromFile(
@@ -85,10 +106,15 @@ public class RoundTripIntegrationTest {
     }
 
     private Disassembly disassemble(Assembly assembly) {
+        return disassemble(assembly, DisassemblerOptions.defaults());
+    }
+
+    private Disassembly disassemble(Assembly assembly, DisassemblerOptions options) {
         // arrange
         var dsm = Disassemblers.fromBinary(
                 assembly.getBinaryData(),
                 assembly.getJvmClassName(),
+                options,
                 new JdsmAssertingErrorListener(),
                 true
         );
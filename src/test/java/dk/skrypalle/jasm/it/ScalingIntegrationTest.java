@@ -0,0 +1,166 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.disassembler.Disassembly;
+import dk.skrypalle.jasm.it.assembler.JasmAssertingErrorListener;
+import dk.skrypalle.jasm.it.disassembler.JdsmAssertingErrorListener;
+import dk.skrypalle.jasm.it.util.AllocationMeter;
+import dk.skrypalle.jasm.it.util.ScalingCorpus;
+import dk.skrypalle.jasm.it.util.ScalingCorpus.Axis;
+import org.testng.SkipException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that classes at the limits of the class file format survive a round trip, and that the
+ * assembler and disassembler allocate linearly when scaling towards these limits. Allocations
+ * are counted per thread and do not depend on the load of the machine. They do not catch
+ * quadratic loops that allocate nothing, though. How long it takes to scale towards the limits
+ * is measured by the {@code ScalingBenchmark} of the {@code jmh} profile only, as wall-clock
+ * ratios are too noisy for the test suite.
+ */
+public class ScalingIntegrationTest {
+
+    private static final int SIZE_FACTOR = 4;
+    private static final double MAX_ALLOCATION_RATIO = 8.0;
+    private static final int WARMUP_RUNS = 2;
+    private static final int RUNS = 3;
+
+    @DataProvider
+    public static Object[][] provideAxes() {
+        return Stream.of(Axis.values())
+                .map(axis -> new Object[]{axis})
+                .toArray(Object[][]::new);
+    }
+
+    @Test
+    public void generateClass_shouldApproachConstantPoolLimit() {
+        // act
+        var binaryData = ScalingCorpus.generateClass(
+                Axis.CONSTANT_POOL,
+                Axis.CONSTANT_POOL.getMaxSize()
+        );
+
+        // assert
+        var constantPoolCount = (binaryData[8] & 0xff) << 8 | binaryData[9] & 0xff;
+        assertThat(constantPoolCount)
+                .isBetween(64_000, 65_535);
+    }
+
+    @Test(dataProvider = "provideAxes", timeOut = 60_000)
+    public void roundTrip_shouldPreserveMaximumSize(Axis axis) {
+        // arrange
+        var jasmSourceCode = ScalingCorpus.generateJasm(axis, axis.getMaxSize());
+
+        // act
+        var assembly = assemble(jasmSourceCode, axis);
+        var disassembly = disassemble(assembly.getBinaryData(), axis);
+
+        // assert
+        assertThat(disassembly.getJasmSourceCode())
+                .isEqualTo(jasmSourceCode);
+    }
+
+    @Test(dataProvider = "provideAxes", timeOut = 60_000)
+    public void assemble_shouldAllocateLinearlyWithSize(Axis axis) {
+        // arrange
+        var small = ScalingCorpus.generateJasm(axis, axis.getMaxSize() / SIZE_FACTOR);
+        var large = ScalingCorpus.generateJasm(axis, axis.getMaxSize());
+
+        // act
+        var smallBytes = measure(() -> assemble(small, axis));
+        var largeBytes = measure(() -> assemble(large, axis));
+
+        // assert
+        assertLinear(smallBytes, largeBytes);
+    }
+
+    @Test(dataProvider = "provideAxes", timeOut = 60_000)
+    public void disassemble_shouldAllocateLinearlyWithSize(Axis axis) {
+        // arrange
+        var small = ScalingCorpus.generateClass(axis, axis.getMaxSize() / SIZE_FACTOR);
+        var large = ScalingCorpus.generateClass(axis, axis.getMaxSize());
+
+        // act
+        var smallBytes = measure(() -> disassemble(small, axis));
+        var largeBytes = measure(() -> disassemble(large, axis));
+
+        // assert
+        assertLinear(smallBytes, largeBytes);
+    }
+
+    private static long measure(Runnable action) {
+        if (!AllocationMeter.isSupported()) {
+            throw new SkipException(
+                    "thread allocation counters are not supported by this JVM - "
+                            + "allocations are NOT checked"
+            );
+        }
+        return AllocationMeter.measure(action, WARMUP_RUNS, RUNS);
+    }
+
+    private static void assertLinear(long smallBytes, long largeBytes) {
+        // linear growth allocates ~4x as much, quadratic growth ~16x
+        assertThat((double) largeBytes / smallBytes)
+                .as("%d bytes vs. %d bytes", largeBytes, smallBytes)
+                .isLessThan(MAX_ALLOCATION_RATIO);
+    }
+
+    private static Assembly assemble(String jasmSourceCode, Axis axis) {
+        var asm = Assemblers.fromString(
+                jasmSourceCode,
+                axis.getJvmClassName(),
+                new JasmAssertingErrorListener(),
+                true
+        );
+
+        var assembly = asm.assemble();
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+
+        return assembly;
+    }
+
+    private static Disassembly disassemble(byte[] binaryData, Axis axis) {
+        var dsm = Disassemblers.fromBinary(
+                binaryData,
+                axis.getJvmClassName(),
+                DisassemblerOptions.defaults(),
+                new JdsmAssertingErrorListener(),
+                true
+        );
+
+        var disassembly = dsm.disassemble();
+        assertThat(disassembly)
+                .as("disassembly not expected to be null")
+                .isNotNull();
+
+        return disassembly;
+    }
+
+}
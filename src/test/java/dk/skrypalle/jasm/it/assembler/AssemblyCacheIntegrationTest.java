@@ -0,0 +1,232 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler;
+
+import dk.skrypalle.jasm.assembler.AssemblerOptions;
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.assembler.AssemblyCache;
+import dk.skrypalle.jasm.assembler.ClassHierarchyIndex;
+import dk.skrypalle.jasm.assembler.FramePolicy;
+import dk.skrypalle.jasm.it.util.TestDataProvider;
+import dk.skrypalle.jasm.it.util.TestUtil;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static dk.skrypalle.jasm.it.util.TestAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AssemblyCacheIntegrationTest {
+
+    private static final String INTEGERS = "/dk/skrypalle/jasm/it/assembler/integers.jasm";
+    private static final String LONGS = "/dk/skrypalle/jasm/it/assembler/longs.jasm";
+
+    private Path cacheRoot;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        cacheRoot = Files.createTempDirectory("jasm-cache");
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(cacheRoot.toFile());
+    }
+
+    @Test(dataProviderClass = TestDataProvider.class, dataProvider = "provideJasmSourceFiles")
+    public void cachedAssemblyShouldEqualUncachedAssembly(Path resourcePath) throws IOException {
+        // arrange
+        var cacheDirectory = Files.createTempDirectory(cacheRoot, "cache");
+        var options = AssemblerOptions.defaults()
+                .withCache(AssemblyCache.atDirectory(cacheDirectory));
+
+        // act
+        var expected = assemble(resourcePath, AssemblerOptions.defaults());
+        var miss = assemble(resourcePath, options);
+        var hit = assemble(resourcePath, options);
+
+        // assert
+        assertThat(miss)
+                .isEqualTo(expected);
+        assertThat(hit)
+                .isEqualTo(expected);
+        assertThat(listEntries(cacheDirectory))
+                .hasSize(1);
+    }
+
+    @Test
+    public void hitShouldSkipAssembling() throws IOException {
+        // arrange
+        var cacheDirectory = Files.createTempDirectory(cacheRoot, "cache");
+        var options = AssemblerOptions.defaults()
+                .withCache(AssemblyCache.atDirectory(cacheDirectory));
+        var integers = TestUtil.getResourcePath(INTEGERS);
+        var longs = assemble(TestUtil.getResourcePath(LONGS), AssemblerOptions.defaults());
+
+        assemble(integers, options);
+        var entry = listEntries(cacheDirectory).get(0);
+        Files.write(entry, longs.getBinaryData());
+
+        // act
+        var hit = assemble(integers, options);
+
+        // assert
+        assertThat(hit)
+                .isEqualTo(longs);
+    }
+
+    @Test
+    public void differentOptionsShouldNotShareEntries() throws IOException {
+        // arrange
+        var cacheDirectory = Files.createTempDirectory(cacheRoot, "cache");
+        var cache = AssemblyCache.atDirectory(cacheDirectory);
+        var integers = TestUtil.getResourcePath(INTEGERS);
+
+        // act
+        assemble(integers, AssemblerOptions.defaults().withCache(cache));
+        assemble(integers, AssemblerOptions.defaults().withCache(cache)
+                .withFramePolicy(FramePolicy.FRAMES));
+        assemble(integers, AssemblerOptions.defaults().withCache(cache)
+                .withFramePolicy(FramePolicy.FRAMES));
+
+        // assert
+        assertThat(listEntries(cacheDirectory))
+                .hasSize(2);
+    }
+
+    @Test
+    public void brokenEntryShouldBeTreatedAsMiss() throws IOException {
+        // arrange
+        var cacheDirectory = Files.createTempDirectory(cacheRoot, "cache");
+        var options = AssemblerOptions.defaults()
+                .withCache(AssemblyCache.atDirectory(cacheDirectory));
+        var integers = TestUtil.getResourcePath(INTEGERS);
+        var expected = assemble(integers, AssemblerOptions.defaults());
+
+        assemble(integers, options);
+        Files.write(listEntries(cacheDirectory).get(0), new byte[]{1, 2, 3});
+
+        // act
+        var miss = assemble(integers, options);
+
+        // assert
+        assertThat(miss)
+                .isEqualTo(expected);
+    }
+
+    @Test
+    public void lineTerminatorsShouldNotAffectEntries() throws IOException {
+        // arrange
+        var cacheDirectory = Files.createTempDirectory(cacheRoot, "cache");
+        var options = AssemblerOptions.defaults()
+                .withCache(AssemblyCache.atDirectory(cacheDirectory));
+        var lf = Files.readString(TestUtil.getResourcePath(INTEGERS)).replace("\r\n", "\n");
+        var sources = List.of(
+                lf,
+                lf.replace("\n", "\r\n"),
+                lf.replace("\n", "\r"),
+                lf.stripTrailing() + "\n\n",
+                lf.stripTrailing()
+        );
+        var expected = Assemblers.fromString(lf, new JasmAssertingErrorListener(), true).assemble();
+
+        // act
+        var assemblies = sources.stream()
+                .map(source -> Assemblers.fromString(
+                        source,
+                        options,
+                        new JasmAssertingErrorListener(),
+                        true
+                ).assemble())
+                .collect(Collectors.toList());
+
+        // assert
+        assertThat(assemblies)
+                .containsOnly(expected);
+        assertThat(listEntries(cacheDirectory))
+                .hasSize(1);
+    }
+
+    @Test
+    public void erroneousSourcesShouldNotBeCached() throws IOException {
+        // arrange
+        var cacheDirectory = Files.createTempDirectory(cacheRoot, "cache");
+        var options = AssemblerOptions.defaults()
+                .withCache(AssemblyCache.atDirectory(cacheDirectory));
+        var source = ".bytecode 56.0\n.class Q/\n";
+        var firstErrorListener = new RecordingErrorListener();
+        var secondErrorListener = new RecordingErrorListener();
+
+        // act
+        var first = Assemblers.fromString(source, options, firstErrorListener, true).assemble();
+        var second = Assemblers.fromString(source, options, secondErrorListener, true).assemble();
+
+        // assert
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        assertThat(secondErrorListener.getSourceNames())
+                .isEqualTo(firstErrorListener.getSourceNames())
+                .isNotEmpty();
+        assertThat(listEntries(cacheDirectory))
+                .isEmpty();
+    }
+
+    @Test
+    public void customClassHierarchyProviderShouldBypassCache() throws IOException {
+        // arrange
+        var cacheDirectory = Files.createTempDirectory(cacheRoot, "cache");
+        var options = AssemblerOptions.defaults()
+                .withCache(AssemblyCache.atDirectory(cacheDirectory))
+                .withClassHierarchyProvider(new ClassHierarchyIndex().addSystemModules());
+
+        // act
+        var assembly = assemble(TestUtil.getResourcePath(INTEGERS), options);
+
+        // assert
+        assertThat(assembly).isNotNull();
+        assertThat(listEntries(cacheDirectory))
+                .isEmpty();
+    }
+
+    private static Assembly assemble(Path resourcePath, AssemblerOptions options) {
+        return Assemblers.fromFile(
+                resourcePath,
+                options,
+                new JasmAssertingErrorListener(),
+                true
+        ).assemble();
+    }
+
+    private static List<Path> listEntries(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+}
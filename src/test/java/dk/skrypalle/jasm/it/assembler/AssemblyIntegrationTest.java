@@ -0,0 +1,169 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.it.util.TestUtil;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AssemblyIntegrationTest {
+
+    @Test
+    public void byteBufferShouldBeReadOnlyViewOfBinaryData() {
+        // arrange
+        var assembly = assembleIntegers();
+
+        // act
+        var buffer = assembly.asByteBuffer();
+
+        // assert
+        assertThat(buffer.isReadOnly())
+                .isTrue();
+        assertThat(buffer.position())
+                .isEqualTo(0);
+        assertThat(buffer.remaining())
+                .isEqualTo(assembly.getSize());
+        assertThat(buffer)
+                .isEqualTo(ByteBuffer.wrap(assembly.getBinaryData()));
+        assertThatThrownBy(() -> buffer.put(0, (byte) 0))
+                .isInstanceOf(ReadOnlyBufferException.class);
+    }
+
+    @Test
+    public void writeToChannelShouldWriteBinaryData() throws IOException {
+        // arrange
+        var assembly = assembleIntegers();
+        var out = new ByteArrayOutputStream();
+
+        // act
+        try (var channel = Channels.newChannel(out)) {
+            assembly.writeTo(channel);
+        }
+
+        // assert
+        assertThat(out.toByteArray())
+                .isEqualTo(assembly.getBinaryData());
+    }
+
+    @Test
+    public void writeToChannelShouldNotExposeBinaryData() throws IOException {
+        // arrange
+        var assembly = assembleIntegers();
+        var buffers = new ArrayList<ByteBuffer>();
+        WritableByteChannel channel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                buffers.add(src);
+                var remaining = src.remaining();
+                src.position(src.limit());
+                return remaining;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        // act
+        assembly.writeTo(channel);
+
+        // assert
+        assertThat(buffers)
+                .isNotEmpty()
+                .allMatch(ByteBuffer::isReadOnly);
+    }
+
+    @Test
+    public void writeToStreamShouldWriteBinaryData() throws IOException {
+        // arrange
+        var assembly = assembleIntegers();
+        var out = new ByteArrayOutputStream();
+
+        // act
+        assembly.writeTo(out);
+
+        // assert
+        assertThat(out.toByteArray())
+                .isEqualTo(assembly.getBinaryData());
+    }
+
+    @Test
+    public void writeToStreamShouldNotExposeBinaryData() throws IOException {
+        // arrange
+        var assembly = assembleIntegers();
+        var out = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                Arrays.fill(b, off, off + len, (byte) 0);
+            }
+        };
+
+        // act
+        assembly.writeTo(out);
+
+        // assert
+        assertThat(assembly.asByteBuffer().get(0))
+                .isEqualTo((byte) 0xCA);
+    }
+
+    @Test
+    public void binaryDataShouldBeCopy() {
+        // arrange
+        var assembly = assembleIntegers();
+        var binaryData = assembly.getBinaryData();
+
+        // act
+        binaryData[0] = 0;
+
+        // assert
+        assertThat(assembly.asByteBuffer().get(0))
+                .isEqualTo((byte) 0xCA);
+    }
+
+    private static Assembly assembleIntegers() {
+        return Assemblers.fromFile(
+                TestUtil.getResourcePath("/dk/skrypalle/jasm/it/assembler/integers.jasm"),
+                new JasmAssertingErrorListener(),
+                true
+        ).assemble();
+    }
+
+}
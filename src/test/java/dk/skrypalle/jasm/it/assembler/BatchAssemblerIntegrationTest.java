@@ -0,0 +1,328 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler;
+
+import dk.skrypalle.jasm.assembler.AssemblerOptions;
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.AssemblyResult;
+import dk.skrypalle.jasm.it.util.TestUtil;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchAssemblerIntegrationTest {
+
+    private static final String SUBCLASS_SOURCE = ".bytecode 52.0\n"
+            + ".class public %1$s\n"
+            + ".super %2$s\n"
+            + ".method public <init>()V\n"
+            + "  aload 0\n"
+            + "  invokespecial %2$s.<init>:()V\n"
+            + "  return\n"
+            + ".end method\n";
+
+    private static final String PICK_SOURCE = ".bytecode 52.0\n"
+            + ".class public final batch/Pick\n"
+            + ".super java/lang/Object\n"
+            + ".method public static pick(Z)Lbatch/A;\n"
+            + "  iload 0\n"
+            + "  ifeq label_0\n"
+            + "  new batch/B\n"
+            + "  dup\n"
+            + "  invokespecial batch/B.<init>:()V\n"
+            + "  goto label_1\n"
+            + "label_0:\n"
+            + "  new batch/C\n"
+            + "  dup\n"
+            + "  invokespecial batch/C.<init>:()V\n"
+            + "label_1:\n"
+            + "  areturn\n"
+            + ".end method\n";
+
+    @Test
+    public void shouldAssembleLikeSingleAssemblerInSourceOrder() throws IOException {
+        // arrange
+        var files = locateJasmSourceFiles();
+        var batch = Assemblers.fromFiles(files, sourceName -> new RecordingErrorListener(), true);
+
+        // act
+        var results = batch.assemble().collect(Collectors.toList());
+
+        // assert
+        assertThat(results)
+                .extracting(AssemblyResult::getSourceName)
+                .containsExactlyElementsOf(files.stream()
+                        .map(Path::toString)
+                        .collect(Collectors.toList()));
+        for (int i = 0; i < files.size(); i++) {
+            var expected = Assemblers.fromFile(files.get(i), new JasmAssertingErrorListener(), true)
+                    .assemble();
+            assertThat(results.get(i).isSuccessful())
+                    .isTrue();
+            assertThat(results.get(i).getAssembly())
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void shouldKeepDiagnosticsOfSourcesApart() throws IOException {
+        // arrange
+        var files = new ArrayList<Path>();
+        files.addAll(locateJasmSourceFiles());
+        files.add(TestUtil.getResourcePath(
+                "/dk/skrypalle/jasm/it/assembler/err/unknown_limit_type.jasm"
+        ));
+        files.add(TestUtil.getResourcePath(
+                "/dk/skrypalle/jasm/it/assembler/err/illegal_limit_value.jasm"
+        ));
+        var executor = Executors.newFixedThreadPool(4);
+
+        // act
+        Map<String, AssemblyResult> results;
+        try {
+            results = Assemblers.fromFiles(
+                    files,
+                    AssemblerOptions.defaults(),
+                    executor,
+                    sourceName -> new RecordingErrorListener(),
+                    true
+            ).assembleAll();
+        } finally {
+            executor.shutdown();
+        }
+
+        // assert
+        assertThat(results)
+                .hasSize(files.size());
+        for (AssemblyResult result : results.values()) {
+            var errorListener = (RecordingErrorListener) result.getErrorListener();
+            var isErroneous = result.getSourceName().contains("_limit_");
+            assertThat(result.isSuccessful())
+                    .as(result.getSourceName())
+                    .isEqualTo(!isErroneous);
+            assertThat(errorListener.getSourceNames())
+                    .as(result.getSourceName())
+                    .allMatch(result.getSourceName()::equals);
+        }
+        assertThat(getErrorListener(results, "unknown_limit_type").getSourceNames())
+                .hasSize(1);
+        assertThat(getErrorListener(results, "illegal_limit_value").getSourceNames())
+                .hasSize(2);
+    }
+
+    @Test
+    public void shouldAssembleStrings() {
+        // arrange
+        var source = ".bytecode 56.0\n"
+                + ".class public final %s\n"
+                + ".super java/lang/Object\n";
+        var sources = Map.of(
+                "a.jasm", String.format(source, "a/A"),
+                "b.jasm", String.format(source, "b/B"),
+                "c.jasm", String.format(source, "c/C")
+        );
+
+        // act
+        var results = Assemblers.fromStrings(
+                sources,
+                sourceName -> new JasmAssertingErrorListener(),
+                true
+        ).assembleAll();
+
+        // assert
+        assertThat(results)
+                .containsOnlyKeys("a.jasm", "b.jasm", "c.jasm");
+        assertThat(results.get("b.jasm").getAssembly().getJvmClassName())
+                .isEqualTo("b/B");
+    }
+
+    @Test
+    public void shouldResolveClassesOfTheSameBatchWhenComputingFrames() {
+        // arrange
+        var sources = Map.of(
+                "a.jasm", String.format(SUBCLASS_SOURCE, "batch/A", "java/lang/Object"),
+                "b.jasm", String.format(SUBCLASS_SOURCE, "batch/B", "batch/A"),
+                "c.jasm", String.format(SUBCLASS_SOURCE, "batch/C", "batch/A"),
+                "pick.jasm", PICK_SOURCE
+        );
+
+        // act
+        var results = Assemblers.fromStrings(
+                sources,
+                sourceName -> new JasmAssertingErrorListener(),
+                true
+        ).assembleAll();
+
+        // assert
+        assertThat(results.values())
+                .allMatch(AssemblyResult::isSuccessful);
+        assertThat(collectFrameStackTypes(results.get("pick.jasm").getAssembly().getBinaryData()))
+                .containsExactly("batch/A");
+    }
+
+    @Test
+    public void shouldReportTypesUnknownToTheBatch() {
+        // arrange
+        var sources = Map.of(
+                "a.jasm", String.format(SUBCLASS_SOURCE, "batch/A", "java/lang/Object"),
+                "pick.jasm", PICK_SOURCE
+        );
+
+        // act
+        var results = Assemblers.fromStrings(
+                sources,
+                sourceName -> new RecordingErrorListener(),
+                true
+        ).assembleAll();
+
+        // assert
+        var result = results.get("pick.jasm");
+        var errorListener = (RecordingErrorListener) result.getErrorListener();
+        assertThat(results.get("a.jasm").isSuccessful())
+                .isTrue();
+        assertThat(result.isSuccessful())
+                .isFalse();
+        assertThat(result.getAssembly())
+                .isNull();
+        assertThat(errorListener.getMessages())
+                .hasSize(1)
+                .allMatch(message -> message.contains("unknown type 'batch/"));
+    }
+
+    @Test
+    public void shouldAssembleFilesFromTheContentReadForTheHeaderScan() throws IOException {
+        // arrange
+        var directory = Files.createTempDirectory("jasm-batch");
+        var files = List.of(
+                Files.writeString(
+                        directory.resolve("a.jasm"),
+                        String.format(SUBCLASS_SOURCE, "batch/A", "java/lang/Object")
+                ),
+                Files.writeString(
+                        directory.resolve("b.jasm"),
+                        String.format(SUBCLASS_SOURCE, "batch/B", "batch/A")
+                )
+        );
+        var batch = Assemblers.fromFiles(files, sourceName -> new RecordingErrorListener(), true);
+        var results = batch.assembleSequentially();
+
+        // act
+        for (Path file : files) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+
+        // assert
+        assertThat(results.collect(Collectors.toList()))
+                .hasSize(2)
+                .allMatch(AssemblyResult::isSuccessful);
+    }
+
+    @Test
+    public void shouldAssembleSequentiallyOnlyWhenResultsAreConsumed() {
+        // arrange
+        var sources = new LinkedHashMap<String, String>();
+        sources.put("a.jasm", String.format(SUBCLASS_SOURCE, "batch/A", "java/lang/Object"));
+        sources.put("b.jasm", String.format(SUBCLASS_SOURCE, "batch/B", "batch/A"));
+        sources.put("c.jasm", String.format(SUBCLASS_SOURCE, "batch/C", "batch/A"));
+        var assembledSourceNames = new ArrayList<String>();
+        var batch = Assemblers.fromStrings(
+                sources,
+                sourceName -> {
+                    assembledSourceNames.add(sourceName);
+                    return new JasmAssertingErrorListener();
+                },
+                true
+        );
+
+        // act
+        var results = batch.assembleSequentially().iterator();
+        var beforeFirstResult = List.copyOf(assembledSourceNames);
+        var first = results.next();
+
+        // assert
+        assertThat(beforeFirstResult)
+                .isEmpty();
+        assertThat(first.getSourceName())
+                .isEqualTo("a.jasm");
+        assertThat(assembledSourceNames)
+                .containsExactly("a.jasm");
+    }
+
+    private static List<Path> locateJasmSourceFiles() throws IOException {
+        var directory = TestUtil.getResourcePath("/dk/skrypalle/jasm/it/assembler");
+        try (var files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.toString().endsWith(".jasm"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static RecordingErrorListener getErrorListener(
+            Map<String, AssemblyResult> results,
+            String testName) {
+        return results.values().stream()
+                .filter(result -> result.getSourceName().endsWith(testName + ".jasm"))
+                .map(result -> (RecordingErrorListener) result.getErrorListener())
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static List<Object> collectFrameStackTypes(byte[] binaryData) {
+        var stackTypes = new ArrayList<Object>();
+        new ClassReader(binaryData).accept(new ClassVisitor(Opcodes.ASM7) {
+            @Override
+            public MethodVisitor visitMethod(
+                    int access,
+                    String name,
+                    String descriptor,
+                    String signature,
+                    String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM7) {
+                    @Override
+                    public void visitFrame(
+                            int type,
+                            int numLocal,
+                            Object[] local,
+                            int numStack,
+                            Object[] stack) {
+                        Stream.of(stack).limit(numStack).forEach(stackTypes::add);
+                    }
+                };
+            }
+        }, ClassReader.EXPAND_FRAMES);
+        return stackTypes;
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler;
+
+import dk.skrypalle.jasm.assembler.AssemblerOptions;
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.assembler.ClassHeader;
+import dk.skrypalle.jasm.assembler.ClassHierarchyIndex;
+import dk.skrypalle.jasm.assembler.ClassHierarchyProvider;
+import dk.skrypalle.jasm.it.util.TestDataProvider;
+import dk.skrypalle.jasm.it.util.TestUtil;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static dk.skrypalle.jasm.it.util.TestAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ClassHierarchyIntegrationTest {
+
+    @Test(dataProviderClass = TestDataProvider.class, dataProvider = "provideJasmSourceFiles")
+    public void indexShouldYieldSameFramesAsClassLoading(Path resourcePath) {
+        // arrange
+        var indexOptions = AssemblerOptions.defaults();
+        var reflectiveOptions = AssemblerOptions.defaults()
+                .withClassHierarchyProvider(new ReflectiveClassHierarchyProvider());
+
+        // act
+        var expected = assemble(resourcePath, reflectiveOptions);
+        var actual = assemble(resourcePath, indexOptions);
+
+        // assert
+        assertThat(actual)
+                .isEqualTo(expected);
+    }
+
+    @Test
+    public void systemModulesShouldResolveJdkClasses() {
+        // arrange
+        var index = ClassHierarchyIndex.systemModules();
+
+        // act
+        var arrayList = index.getClassHeader("java/util/ArrayList");
+        var list = index.getClassHeader("java/util/List");
+        var object = index.getClassHeader("java/lang/Object");
+
+        // assert
+        assertThat(arrayList.getSuperName()).isEqualTo("java/util/AbstractList");
+        assertThat(arrayList.getInterfaces()).contains("java/util/List");
+        assertThat(arrayList.isInterface()).isFalse();
+        assertThat(list.isInterface()).isTrue();
+        assertThat(object.getSuperName()).isNull();
+    }
+
+    @Test
+    public void systemModulesShouldBeImmutable() {
+        // arrange
+        var index = ClassHierarchyIndex.systemModules();
+        var header = new ClassHeader("does/not/Exist", "java/lang/Number", null, false);
+
+        // act / assert
+        assertThatThrownBy(() -> index.addClassHeader(header))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(index.getClassHeader("does/not/Exist"))
+                .isNull();
+    }
+
+    @Test
+    public void unknownClassesShouldYieldNull() {
+        // arrange
+        var index = new ClassHierarchyIndex().addSystemModules();
+
+        // act
+        var header = index.getClassHeader("does/not/Exist");
+
+        // assert
+        assertThat(header).isNull();
+    }
+
+    @Test
+    public void registeredHeadersShouldTakePrecedence() {
+        // arrange
+        var index = new ClassHierarchyIndex().addSystemModules();
+        var header = new ClassHeader("does/not/Exist", "java/lang/Number", null, false);
+
+        // act
+        var before = index.getClassHeader("does/not/Exist");
+        index.addClassHeader(header);
+        var after = index.getClassHeader("does/not/Exist");
+
+        // assert
+        assertThat(before).isNull();
+        assertThat(after).isEqualTo(header);
+    }
+
+    @Test
+    public void directoriesShouldBeIndexed() {
+        // arrange
+        var classesRoot = TestUtil.getResourcePath("/dk/skrypalle/jasm/it/disassembler")
+                .resolve("../../../../..")
+                .normalize();
+        var index = new ClassHierarchyIndex().addDirectory(classesRoot);
+
+        // act
+        var header = index.getClassHeader("dk/skrypalle/jasm/it/assembler/JasmIntegrationTest");
+
+        // assert
+        assertThat(header).isNotNull();
+        assertThat(header.getSuperName()).isEqualTo("java/lang/Object");
+    }
+
+    @Test
+    public void jarsShouldBeIndexed() throws IOException {
+        // arrange
+        var classFile = TestUtil.getResourcePath(
+                "/dk/skrypalle/jasm/it/disassembler/ForLoop.class"
+        );
+        var expected = ClassHeader.read(Files.readAllBytes(classFile));
+        var jarFile = Files.createTempFile("class-hierarchy", ".jar");
+        try {
+            try (var out = new JarOutputStream(Files.newOutputStream(jarFile))) {
+                out.putNextEntry(new JarEntry(expected.getName() + ".class"));
+                out.write(Files.readAllBytes(classFile));
+                out.closeEntry();
+            }
+
+            // act
+            ClassHeader actual;
+            try (var index = new ClassHierarchyIndex().addJar(jarFile)) {
+                actual = index.getClassHeader(expected.getName());
+            }
+
+            // assert
+            assertThat(actual).isEqualTo(expected);
+        } finally {
+            Files.delete(jarFile);
+        }
+    }
+
+    private static Assembly assemble(Path resourcePath, AssemblerOptions options) {
+        var asm = Assemblers.fromFile(
+                resourcePath,
+                options,
+                new JasmAssertingErrorListener(),
+                true
+        );
+        var assembly = asm.assemble();
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+        return assembly;
+    }
+
+    /**
+     * Resolves the hierarchy by loading classes, just like the default
+     * {@linkplain org.objectweb.asm.ClassWriter} does.
+     */
+    private static class ReflectiveClassHierarchyProvider implements ClassHierarchyProvider {
+
+        @Override
+        public ClassHeader getClassHeader(String internalName) {
+            try {
+                var type = Class.forName(
+                        internalName.replace('/', '.'),
+                        false,
+                        getClass().getClassLoader()
+                );
+                var superType = type.getSuperclass();
+                return new ClassHeader(
+                        internalName,
+                        superType == null ? null : TestUtil.toJvmClassName(superType.getName()),
+                        Stream.of(type.getInterfaces())
+                                .map(Class::getName)
+                                .map(TestUtil::toJvmClassName)
+                                .toArray(String[]::new),
+                        type.isInterface()
+                );
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler;
+
+import dk.skrypalle.jasm.Utils;
+import dk.skrypalle.jasm.assembler.AssemblerOptions;
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.assembler.FramePolicy;
+import dk.skrypalle.jasm.it.util.TestUtil;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dk.skrypalle.jasm.it.util.TestAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FramePolicyIntegrationTest {
+
+    private static final String MIXED_FRAMES_SOURCE = ".bytecode 56.0\n"
+            + ".class public final mixed/MixedFrames\n"
+            + ".super java/lang/Object\n"
+            + ".method public static explicit(I)I\n"
+            + "  iload 0\n"
+            + "  ifeq label_0\n"
+            + "  ldc 1\n"
+            + "  ireturn\n"
+            + "label_0:\n"
+            + ".stack same\n"
+            + "  ldc 0\n"
+            + "  ireturn\n"
+            + ".end method\n"
+            + ".method public static computed(I)I\n"
+            + "  iload 0\n"
+            + "  ifeq label_0\n"
+            + "  ldc 1\n"
+            + "  ireturn\n"
+            + "label_0:\n"
+            + "  ldc 0\n"
+            + "  ireturn\n"
+            + ".end method\n";
+
+    @Test
+    public void autoShouldComputeFramesForVersion50AndAbove() {
+        // arrange
+        // act
+        var auto = assemble("for_loop", FramePolicy.AUTO);
+        var frames = assemble("for_loop", FramePolicy.FRAMES);
+        var maxsOnly = assemble("for_loop", FramePolicy.MAXS_ONLY);
+
+        // assert
+        assertThat(auto)
+                .isEqualTo(frames);
+        assertThat(auto)
+                .isNotEqualTo(maxsOnly);
+    }
+
+    @Test
+    public void autoShouldNotComputeFramesBelowVersion50() {
+        // arrange
+        // act
+        var auto = assemble("limit_directives", FramePolicy.AUTO);
+        var frames = assemble("limit_directives", FramePolicy.FRAMES);
+        var maxsOnly = assemble("limit_directives", FramePolicy.MAXS_ONLY);
+
+        // assert
+        assertThat(auto)
+                .isEqualTo(maxsOnly);
+        assertThat(auto)
+                .isNotEqualTo(frames);
+    }
+
+    @Test
+    public void autoShouldNotComputeFramesGivenStackDirectives() {
+        // arrange
+        // act
+        var auto = assemble("frames/stack_directives", FramePolicy.AUTO);
+        var frames = assemble("frames/stack_directives", FramePolicy.FRAMES);
+        var maxsOnly = assemble("frames/stack_directives", FramePolicy.MAXS_ONLY);
+
+        // assert
+        assertThat(auto)
+                .isEqualTo(maxsOnly);
+        assertThat(auto)
+                .isNotEqualTo(frames);
+    }
+
+    @Test
+    public void autoShouldComputeFramesOfMethodsWithoutStackDirectives() throws Exception {
+        // arrange
+        var options = AssemblerOptions.defaults().withFramePolicy(FramePolicy.AUTO);
+
+        // act
+        var auto = assembleString(MIXED_FRAMES_SOURCE, options);
+        var parallel = assembleString(MIXED_FRAMES_SOURCE, options.withParallelMethods(true));
+        var type = TestUtil.defineClass(auto);
+
+        // assert
+        assertThat(readFrameCounts(auto))
+                .containsExactly("explicit 1", "computed 1");
+        assertThat(parallel)
+                .isEqualTo(auto);
+        assertThat(type.getMethod("explicit", int.class).invoke(null, 7))
+                .isEqualTo(1);
+        assertThat(type.getMethod("computed", int.class).invoke(null, 0))
+                .isEqualTo(0);
+    }
+
+    @Test
+    public void noneShouldTakeMaxsFromLimitDirectives() {
+        // arrange
+        // act
+        var none = assemble("limit_directives", FramePolicy.NONE);
+        var noneMaxs = readMaxs(none);
+        var computedMaxs = readMaxs(assemble("limit_directives", FramePolicy.MAXS_ONLY));
+
+        // assert
+        assertThat(noneMaxs)
+                .containsExactly("main 2 2");
+        assertThat(noneMaxs)
+                .isEqualTo(computedMaxs);
+    }
+
+    @Test
+    public void noneShouldDefaultToZeroWithoutLimitDirectives() {
+        // arrange
+        // act
+        var none = assemble("for_loop", FramePolicy.NONE);
+
+        // assert
+        assertThat(readMaxs(none))
+                .containsExactly("main 0 0");
+    }
+
+    private static Assembly assemble(String testName, FramePolicy framePolicy) {
+        var resourceName = String.format("/dk/skrypalle/jasm/it/assembler/%s.jasm", testName);
+        var asm = Assemblers.fromFile(
+                TestUtil.getResourcePath(resourceName),
+                AssemblerOptions.defaults().withFramePolicy(framePolicy),
+                new JasmAssertingErrorListener(),
+                true
+        );
+        var assembly = asm.assemble();
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+        return assembly;
+    }
+
+    private static Assembly assembleString(String jasmSourceCode, AssemblerOptions options) {
+        var assembly = Assemblers.fromString(
+                jasmSourceCode,
+                options,
+                new JasmAssertingErrorListener(),
+                true
+        ).assemble();
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+        return assembly;
+    }
+
+    private static List<String> readFrameCounts(Assembly assembly) {
+        var frameCounts = new ArrayList<String>();
+        new ClassReader(assembly.getBinaryData()).accept(new ClassVisitor(Utils.ASM_VERSION) {
+            @Override
+            public MethodVisitor visitMethod(
+                    int access,
+                    String name,
+                    String descriptor,
+                    String signature,
+                    String[] exceptions) {
+                return new MethodVisitor(Utils.ASM_VERSION) {
+                    private int frames;
+
+                    @Override
+                    public void visitFrame(
+                            int type,
+                            int numLocal,
+                            Object[] local,
+                            int numStack,
+                            Object[] stack) {
+                        frames++;
+                    }
+
+                    @Override
+                    public void visitEnd() {
+                        frameCounts.add(name + " " + frames);
+                    }
+                };
+            }
+        }, 0);
+        return frameCounts;
+    }
+
+    private static List<String> readMaxs(Assembly assembly) {
+        var maxs = new ArrayList<String>();
+        new ClassReader(assembly.getBinaryData()).accept(new ClassVisitor(Utils.ASM_VERSION) {
+            @Override
+            public MethodVisitor visitMethod(
+                    int access,
+                    String name,
+                    String descriptor,
+                    String signature,
+                    String[] exceptions) {
+                return new MethodVisitor(Utils.ASM_VERSION) {
+                    @Override
+                    public void visitMaxs(int maxStack, int maxLocals) {
+                        maxs.add(name + " " + maxStack + " " + maxLocals);
+                    }
+                };
+            }
+        }, 0);
+        return maxs;
+    }
+
+}
@@ -49,6 +49,7 @@ public class JasmIntegrationTest {
                 assembling("doubles").shouldPrint("0.0\n1.0\n23.1\n2310.0\n0.231\n"),
                 assembling("floats").shouldPrint("0.0\n1.0\n2.0\n23.1\n2310.0\n0.231\n"),
                 assembling("for_loop").shouldPrint("0\n1\n2\n3\n4\n"),
+                assembling("frames/stack_directives").shouldPrint("0\n1\n2\nnone\n"),
                 assembling("generic_array").shouldPrint("[Hi, there]"),
                 assembling("generic_shadowing").shouldPrint("class java.lang.Integer\nHi :)\n"),
                 assembling("generic_static_method").shouldPrint("[Hi]"),
@@ -61,6 +62,7 @@ public class JasmIntegrationTest {
                 assembling("integers").shouldPrint("0\n1\n2\n3\n4\n5\n-1\n-128\n127\n-32768\n32767\n-2147483648\n2147483647\n"),
                 assembling("lambda_capture_args").withArgs("Hello", "jASM!").shouldPrint("[Hello, jASM!]"),
                 assembling("lambda_no_capture").shouldPrint("lambda"),
+                assembling("limit_directives").shouldPrint("0\n1\n2\n"),
                 assembling("line_directives").shouldPrint("2310"),
                 assembling("local_vars").shouldPrint("2310"),
                 assembling("longs").shouldPrint("0\n1\n-9223372036854775808\n9223372036854775807\n"),
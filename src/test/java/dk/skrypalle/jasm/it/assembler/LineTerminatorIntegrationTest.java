@@ -0,0 +1,101 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.it.util.TestDataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static dk.skrypalle.jasm.it.util.TestAssertions.assertThat;
+
+public class LineTerminatorIntegrationTest {
+
+    @Test(dataProviderClass = TestDataProvider.class, dataProvider = "provideJasmSourceFiles")
+    public void crLfShouldEqualLf(Path resourcePath) throws IOException {
+        // arrange
+        var source = Files.readString(resourcePath);
+
+        // act
+        var expected = assemble(resourcePath);
+        var actual = assemble(resourcePath, source.replace("\n", "\r\n"));
+
+        // assert
+        assertThat(actual)
+                .isEqualTo(expected);
+    }
+
+    @Test(dataProviderClass = TestDataProvider.class, dataProvider = "provideJasmSourceFiles")
+    public void crShouldEqualLf(Path resourcePath) throws IOException {
+        // arrange
+        var source = Files.readString(resourcePath);
+
+        // act
+        var expected = assemble(resourcePath);
+        var actual = assemble(resourcePath, source.replace("\n", "\r"));
+
+        // assert
+        assertThat(actual)
+                .isEqualTo(expected);
+    }
+
+    @Test(dataProviderClass = TestDataProvider.class, dataProvider = "provideJasmSourceFiles")
+    public void missingTrailingLineTerminatorShouldEqualLf(Path resourcePath) throws IOException {
+        // arrange
+        var source = Files.readString(resourcePath).stripTrailing();
+
+        // act
+        var expected = assemble(resourcePath);
+        var actual = assemble(resourcePath, source);
+
+        // assert
+        assertThat(actual)
+                .isEqualTo(expected);
+    }
+
+    private static Assembly assemble(Path resourcePath) {
+        var asm = Assemblers.fromFile(
+                resourcePath,
+                new JasmAssertingErrorListener(),
+                true
+        );
+        return assertNotNull(asm.assemble());
+    }
+
+    private static Assembly assemble(Path resourcePath, String jasmSourceCode) {
+        var asm = Assemblers.fromString(
+                jasmSourceCode,
+                resourcePath.toString(),
+                new JasmAssertingErrorListener(),
+                true
+        );
+        return assertNotNull(asm.assemble());
+    }
+
+    private static Assembly assertNotNull(Assembly assembly) {
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+        return assembly;
+    }
+
+}
@@ -0,0 +1,278 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler;
+
+import dk.skrypalle.jasm.assembler.AssemblerOptions;
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.assembler.FramePolicy;
+import dk.skrypalle.jasm.it.util.TestDataProvider;
+import dk.skrypalle.jasm.it.util.TestUtil;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static dk.skrypalle.jasm.it.util.TestAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelMethodsIntegrationTest {
+
+    private static final int NUMBER_OF_METHODS = 2_000;
+
+    @Test(
+            dataProviderClass = TestDataProvider.class,
+            dataProvider = "provideJasmSourceFilesWithFrames"
+    )
+    public void parallelMethodsShouldEqualSequentialMethods(Path resourcePath) {
+        for (FramePolicy framePolicy : FramePolicy.values()) {
+            for (boolean singlePass : new boolean[]{true, false}) {
+                // arrange
+                var options = AssemblerOptions.defaults()
+                        .withFramePolicy(framePolicy)
+                        .withSinglePass(singlePass);
+
+                // act
+                var sequential = assemble(resourcePath, options.withParallelMethods(false));
+                var parallel = assemble(resourcePath, options.withParallelMethods(true));
+
+                // assert
+                assertThat(parallel)
+                        .as("%s, singlePass=%s", framePolicy, singlePass)
+                        .isEqualTo(sequential);
+            }
+        }
+    }
+
+    @Test
+    public void parallelMethodsShouldEqualSequentialMethodsGivenManyMethods() {
+        // arrange
+        var source = generateClass(NUMBER_OF_METHODS, false);
+        var options = AssemblerOptions.defaults();
+
+        // act
+        var sequential = assemble(source, options.withParallelMethods(false));
+        var parallel = assemble(source, options.withParallelMethods(true));
+
+        // assert
+        assertThat(parallel)
+                .isEqualTo(sequential);
+    }
+
+    @Test
+    public void parallelMethodsShouldReportErrorsInSourceOrder() {
+        // arrange
+        var source = generateClass(NUMBER_OF_METHODS, true);
+        var sequentialErrorListener = new RecordingErrorListener();
+        var parallelErrorListener = new RecordingErrorListener();
+
+        // act
+        var sequential = Assemblers.fromString(
+                source,
+                AssemblerOptions.defaults().withParallelMethods(false),
+                sequentialErrorListener,
+                true
+        ).assemble();
+        var parallel = Assemblers.fromString(
+                source,
+                AssemblerOptions.defaults().withParallelMethods(true),
+                parallelErrorListener,
+                true
+        ).assemble();
+
+        // assert
+        assertThat(sequential).isNull();
+        assertThat(parallel).isNull();
+        assertThat(parallelErrorListener.getMessages())
+                .hasSize(NUMBER_OF_METHODS / 10)
+                .isEqualTo(sequentialErrorListener.getMessages());
+        assertThat(parallelErrorListener.getNumberOfErrors())
+                .isEqualTo(sequentialErrorListener.getNumberOfErrors());
+    }
+
+    @DataProvider
+    public static Object[][] provideErroneousJasmSourceFiles() throws IOException {
+        var directory = TestUtil.getResourcePath("/dk/skrypalle/jasm/it/assembler/err");
+        try (var files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.toString().endsWith(".jasm"))
+                    .sorted()
+                    .map(file -> new Object[]{file})
+                    .toArray(Object[][]::new);
+        }
+    }
+
+    @Test(dataProvider = "provideErroneousJasmSourceFiles")
+    public void parallelMethodsShouldReportErrorsLikeSequentialMethods(Path resourcePath) {
+        // arrange
+        var sequentialErrorListener = new RecordingErrorListener();
+        var parallelErrorListener = new RecordingErrorListener();
+
+        // act
+        var sequential = Assemblers.fromFile(
+                resourcePath,
+                AssemblerOptions.defaults().withParallelMethods(false),
+                sequentialErrorListener,
+                true
+        ).assemble();
+        var parallel = Assemblers.fromFile(
+                resourcePath,
+                AssemblerOptions.defaults().withParallelMethods(true),
+                parallelErrorListener,
+                true
+        ).assemble();
+
+        // assert
+        assertThat(sequential).isNull();
+        assertThat(parallel).isNull();
+        assertThat(parallelErrorListener.getMessages())
+                .isNotEmpty()
+                .isEqualTo(sequentialErrorListener.getMessages());
+    }
+
+    @Test
+    public void parallelMethodsShouldReportSyntaxAndLexicalErrorsInSourceOrder() {
+        // arrange
+        var source = generateClass(NUMBER_OF_METHODS, false)
+                .replace("  ldc 500\n", "  ldc 500 {\n")
+                .replace("  ldc 1000\n", "  ldc\n");
+        var sequentialErrorListener = new RecordingErrorListener();
+        var parallelErrorListener = new RecordingErrorListener();
+
+        // act
+        Assemblers.fromString(
+                source,
+                AssemblerOptions.defaults().withParallelMethods(false),
+                sequentialErrorListener,
+                true
+        ).assemble();
+        Assemblers.fromString(
+                source,
+                AssemblerOptions.defaults().withParallelMethods(true),
+                parallelErrorListener,
+                true
+        ).assemble();
+
+        // assert
+        assertThat(parallelErrorListener.getMessages())
+                .hasSizeGreaterThanOrEqualTo(2)
+                .isEqualTo(sequentialErrorListener.getMessages());
+    }
+
+    @Test
+    public void parallelMethodsShouldReportLexicalErrorsLikeSequentialMethods() {
+        // arrange
+        var source = generateClass(NUMBER_OF_METHODS, false)
+                .replace("  ldc 500\n", "  ldc 500\n{\n")
+                .replace("  ldc 1000\n", "  ldc 1000\n{\n");
+        var sequentialErrorListener = new RecordingErrorListener();
+        var parallelErrorListener = new RecordingErrorListener();
+
+        // act
+        var sequential = Assemblers.fromString(
+                source,
+                AssemblerOptions.defaults().withParallelMethods(false),
+                sequentialErrorListener,
+                true
+        ).assemble();
+        var parallel = Assemblers.fromString(
+                source,
+                AssemblerOptions.defaults().withParallelMethods(true),
+                parallelErrorListener,
+                true
+        ).assemble();
+
+        // assert
+        assertThat(sequential).isNull();
+        assertThat(parallel).isNull();
+        assertThat(parallelErrorListener.getMessages())
+                .isNotEmpty()
+                .isEqualTo(sequentialErrorListener.getMessages());
+        assertThat(parallelErrorListener.getNumberOfErrors())
+                .isEqualTo(sequentialErrorListener.getNumberOfErrors());
+    }
+
+    private static String generateClass(int numberOfMethods, boolean withErrors) {
+        var source = new StringBuilder()
+                .append(".bytecode 56.0\n")
+                .append(".class public final dk/skrypalle/jasm/it/assembler/ManyMethods\n")
+                .append(".super java/lang/Object\n")
+                .append(".field private static counter I\n");
+
+        for (int i = 0; i < numberOfMethods; i++) {
+            source.append(".method public static method").append(i).append("(I)I\n")
+                    .append("  .limit stack ").append(withErrors && i % 10 == 0 ? -1 : 2)
+                    .append('\n')
+                    .append("  iload 0\n")
+                    .append("  ifge label_1\n")
+                    .append("  ldc \"negative ").append(i).append("\"\n")
+                    .append("  pop\n")
+                    .append("  getstatic dk/skrypalle/jasm/it/assembler/ManyMethods.counter:I\n")
+                    .append("  ireturn\n")
+                    .append("label_1:\n")
+                    .append("  iload 0\n")
+                    .append("  ldc ").append(i).append('\n')
+                    .append("  iadd\n")
+                    .append("  ireturn\n")
+                    .append(".end method\n");
+            if (i % 100 == 0) {
+                source.append(".field private static field").append(i)
+                        .append(" Ljava/lang/String;\n");
+            }
+        }
+        return source.toString();
+    }
+
+    private static Assembly assemble(Path resourcePath, AssemblerOptions options) {
+        // arrange
+        var asm = Assemblers.fromFile(
+                resourcePath,
+                options,
+                new JasmAssertingErrorListener(),
+                true
+        );
+
+        // act
+        var assembly = asm.assemble();
+
+        // assert
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+
+        return assembly;
+    }
+
+    private static Assembly assemble(String source, AssemblerOptions options) {
+        var assembly = Assemblers.fromString(
+                source,
+                options,
+                new JasmAssertingErrorListener(),
+                true
+        ).assemble();
+
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+
+        return assembly;
+    }
+
+}
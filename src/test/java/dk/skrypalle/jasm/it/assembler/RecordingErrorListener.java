@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler;
+
+import dk.skrypalle.jasm.assembler.err.ErrorListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class RecordingErrorListener extends ErrorListener {
+
+    private final List<String> sourceNames = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    protected void emitSourceError(String sourceName, int line, int column, String message) {
+        sourceNames.add(sourceName);
+        messages.add(String.format("%s:%d:%d error: %s", sourceName, line, column, message));
+    }
+
+    @Override
+    protected void emitGeneralError(String message) {
+        sourceNames.add(null);
+        messages.add(message);
+    }
+
+    @Override
+    protected void emitGeneralError(String message, Throwable error) {
+        sourceNames.add(null);
+        messages.add(message);
+    }
+
+    /**
+     * Returns the source names of all errors emitted so far, in emission order. General errors
+     * are recorded as {@code null}.
+     *
+     * @return the source names of all emitted errors
+     */
+    public List<String> getSourceNames() {
+        return new ArrayList<>(sourceNames);
+    }
+
+    /**
+     * Returns the messages of all errors emitted so far, in emission order. Source errors are
+     * prefixed by their source position.
+     *
+     * @return the messages of all emitted errors
+     */
+    public List<String> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+}
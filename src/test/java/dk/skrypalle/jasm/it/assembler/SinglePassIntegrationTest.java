@@ -0,0 +1,64 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler;
+
+import dk.skrypalle.jasm.assembler.AssemblerOptions;
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.it.util.TestDataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+
+import static dk.skrypalle.jasm.it.util.TestAssertions.assertThat;
+
+public class SinglePassIntegrationTest {
+
+    @Test(dataProviderClass = TestDataProvider.class, dataProvider = "provideJasmSourceFiles")
+    public void singlePassShouldEqualTwoPass(Path resourcePath) {
+        // arrange
+        // act
+        var singlePassAssembly = assemble(resourcePath, true);
+        var twoPassAssembly = assemble(resourcePath, false);
+
+        // assert
+        assertThat(singlePassAssembly)
+                .isEqualTo(twoPassAssembly);
+    }
+
+    private static Assembly assemble(Path resourcePath, boolean singlePass) {
+        // arrange
+        var asm = Assemblers.fromFile(
+                resourcePath,
+                AssemblerOptions.defaults().withSinglePass(singlePass),
+                new JasmAssertingErrorListener(),
+                true
+        );
+
+        // act
+        var assembly = asm.assemble();
+
+        // assert
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+
+        return assembly;
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler.err;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.err.DeferredErrorListener;
+import dk.skrypalle.jasm.it.assembler.RecordingErrorListener;
+import org.testng.annotations.Test;
+
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeferredErrorListenerIntegrationTest {
+
+    @Test
+    public void replayShouldCountSourceAndGeneralErrors() {
+        // arrange
+        var deferred = new DeferredErrorListener();
+        Assemblers.fromString(".bytecode 56.0\n.class\n", deferred, true).assemble();
+        deferred.emitInputFileDoesNotExist(Paths.get("does-not-exist.jasm"));
+        deferred.emitUnexpectedErrorWhileAssembling("broken.jasm", new IllegalStateException());
+        var target = new RecordingErrorListener();
+
+        // act
+        deferred.replayTo(target);
+
+        // assert
+        assertThat(target.getSourceNames())
+                .containsNull();
+        assertThat(target.getNumberOfErrors())
+                .isEqualTo(target.getMessages().size())
+                .isEqualTo(deferred.getNumberOfErrors() + 2);
+    }
+
+    @Test
+    public void generalErrorsShouldOnlyCountWhenReplayed() {
+        // arrange
+        var deferred = new DeferredErrorListener();
+        deferred.emitInputFileDoesNotExist(Paths.get("does-not-exist.jasm"));
+        var target = new RecordingErrorListener();
+
+        // act
+        deferred.replayTo(target);
+
+        // assert
+        assertThat(deferred.getNumberOfErrors())
+                .isZero();
+        assertThat(target.getNumberOfErrors())
+                .isOne();
+    }
+
+    @Test
+    public void replayShouldReachErrorCapWithGeneralErrors() {
+        // arrange
+        var deferred = new DeferredErrorListener();
+        var target = new RecordingErrorListener();
+        target.setMaxErrors(2);
+        deferred.emitInputFileDoesNotExist(Paths.get("a.jasm"));
+        deferred.emitInputFileDoesNotExist(Paths.get("b.jasm"));
+
+        // act
+        deferred.replayTo(target);
+
+        // assert
+        assertThat(target.isMaxErrorsReached())
+                .isTrue();
+    }
+
+}
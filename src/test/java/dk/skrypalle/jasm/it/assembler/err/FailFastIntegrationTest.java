@@ -0,0 +1,185 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.assembler.err;
+
+import dk.skrypalle.jasm.assembler.AssemblerOptions;
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.it.util.TestUtil;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FailFastIntegrationTest {
+
+    private static final int NUMBER_OF_METHODS = 50;
+
+    @DataProvider
+    public static Object[][] provideTestNames() {
+        return Stream.of(
+                "empty_file",
+                "illegal_frame_operands",
+                "illegal_limit_value",
+                "invalid_bytecode_version_major",
+                "invalid_bytecode_version_minor",
+                "invalid_class_type",
+                "invalid_primitive_type",
+                "missing_bytecode",
+                "missing_class",
+                "unknown_frame_type",
+                "unknown_limit_type",
+                "unknown_symbol",
+                "unknown_verification_type"
+        ).map(testName -> new Object[]{testName}).toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "provideTestNames")
+    public void failFastShouldReportFirstError(String testName) {
+        // arrange
+        var resourceName = String.format("/dk/skrypalle/jasm/it/assembler/err/%s.jasm", testName);
+        var resourcePath = TestUtil.getResourcePath(resourceName);
+        var errorListener = new JasmRecordingErrorListener();
+        var failFastErrorListener = new JasmRecordingErrorListener();
+
+        // act
+        var assembly = Assemblers.fromFile(
+                resourcePath,
+                AssemblerOptions.defaults(),
+                errorListener,
+                true
+        ).assemble();
+        var failFastAssembly = Assemblers.fromFile(
+                resourcePath,
+                AssemblerOptions.defaults().withFailFast(true),
+                failFastErrorListener,
+                true
+        ).assemble();
+
+        // assert
+        var errors = new ArrayList<>(errorListener.getErrors());
+        var failFastErrors = new ArrayList<>(failFastErrorListener.getErrors());
+        assertThat(assembly).isNull();
+        assertThat(failFastAssembly).isNull();
+        assertThat(failFastErrors)
+                .isNotEmpty()
+                .hasSizeLessThanOrEqualTo(errors.size());
+        assertThat(failFastErrors.get(0))
+                .usingRecursiveComparison()
+                .isEqualTo(errors.get(0));
+    }
+
+    @Test
+    public void failFastShouldStopAtFirstErroneousMember() {
+        // arrange
+        var errorListener = new JasmRecordingErrorListener();
+
+        // act
+        var assembly = Assemblers.fromString(
+                generateClass(".limit stack -1"),
+                AssemblerOptions.defaults().withFailFast(true),
+                errorListener,
+                true
+        ).assemble();
+
+        // assert
+        assertThat(assembly).isNull();
+        assertThat(errorListener.getErrors())
+                .hasSize(1);
+    }
+
+    @Test
+    public void failFastShouldStopAtFirstSyntaxError() {
+        // arrange
+        var errorListener = new JasmRecordingErrorListener();
+
+        // act
+        var assembly = Assemblers.fromString(
+                generateClass("iload"),
+                AssemblerOptions.defaults().withFailFast(true),
+                errorListener,
+                true
+        ).assemble();
+
+        // assert
+        assertThat(assembly).isNull();
+        assertThat(errorListener.getErrors())
+                .hasSize(1);
+    }
+
+    @Test
+    public void errorCapShouldStopAnalysis() {
+        // arrange
+        var errorListener = new JasmRecordingErrorListener();
+        errorListener.setMaxErrors(3);
+
+        // act
+        var assembly = Assemblers.fromString(
+                generateClass(".limit stack -1"),
+                errorListener,
+                true
+        ).assemble();
+
+        // assert
+        assertThat(assembly).isNull();
+        assertThat(errorListener.getErrors())
+                .hasSize(3);
+    }
+
+    @Test
+    public void errorCapShouldNotAffectValidInput() {
+        // arrange
+        var errorListener = new JasmRecordingErrorListener();
+        errorListener.setMaxErrors(1);
+
+        // act
+        var assembly = Assemblers.fromString(
+                generateClass(".limit stack 1"),
+                AssemblerOptions.defaults().withFailFast(true),
+                errorListener,
+                true
+        ).assemble();
+
+        // assert
+        assertThat(assembly).isEqualTo(Assemblers.fromString(
+                generateClass(".limit stack 1"),
+                new JasmRecordingErrorListener(),
+                true
+        ).assemble());
+        assertThat(errorListener.getErrors())
+                .isEmpty();
+    }
+
+    private static String generateClass(String instruction) {
+        var source = new StringBuilder()
+                .append(".bytecode 56.0\n")
+                .append(".class public final dk/skrypalle/jasm/it/assembler/err/FailFast\n")
+                .append(".super java/lang/Object\n");
+
+        for (int i = 0; i < NUMBER_OF_METHODS; i++) {
+            source.append(".method public static method").append(i).append("()V\n")
+                    .append("  ").append(instruction).append('\n')
+                    .append("  return\n")
+                    .append(".end method\n");
+        }
+        return source.toString();
+    }
+
+}
@@ -36,6 +36,15 @@ public class JasmErrorIntegrationTest {
                 assembling("empty_file")
                         .shouldEmitErrorAt(19, 1).withMessagePattern("input mismatch.*<EOF>")
                         .andNothingElse(),
+                assembling("illegal_frame_operands")
+                        .shouldEmitErrorAt(28, 8).withMessagePattern("illegal operands for frame type.*same")
+                        .andAt(32, 8).withMessagePattern("illegal operands for frame type.*chop")
+                        .andAt(36, 8).withMessagePattern("illegal operands for frame type.*full")
+                        .andNothingElse(),
+                assembling("illegal_limit_value")
+                        .shouldEmitErrorAt(25, 16).withMessagePattern("illegal limit.*65536")
+                        .andAt(26, 17).withMessagePattern("illegal limit.*-1")
+                        .andNothingElse(),
                 assembling("invalid_bytecode_version_major")
                         .shouldEmitErrorAt(19, 11).withMessagePattern("illegal major bytecode version.*23")
                         .andNothingElse(),
@@ -59,9 +68,19 @@ public class JasmErrorIntegrationTest {
                 assembling("missing_class")
                         .shouldEmitErrorAt(21, 1).withMessagePattern("input mismatch.*<EOF>.*expected.*class")
                         .andNothingElse(),
+                assembling("unknown_frame_type")
+                        .shouldEmitErrorAt(28, 8).withMessagePattern("unknown frame type.*other")
+                        .andNothingElse(),
+                assembling("unknown_limit_type")
+                        .shouldEmitErrorAt(26, 10).withMessagePattern("unknown limit type.*heap")
+                        .andNothingElse(),
                 assembling("unknown_symbol")
                         .shouldEmitErrorAt(19, 1).withMessagePattern("unknown symbol.*\\{")
-                        .amongOthers()
+                        .amongOthers(),
+                assembling("unknown_verification_type")
+                        .shouldEmitErrorAt(28, 14).withMessagePattern("unknown verification type.*Z")
+                        .andAt(32, 14).withMessagePattern("unknown verification type.*initialized")
+                        .andNothingElse()
         };
         //checkstyle.on: LineLength
     }
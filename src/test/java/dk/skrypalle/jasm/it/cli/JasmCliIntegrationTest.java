@@ -0,0 +1,269 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.cli;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.err.ConsoleErrorListener;
+import dk.skrypalle.jasm.cli.Jasm;
+import dk.skrypalle.jasm.it.util.TestUtil;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JasmCliIntegrationTest {
+
+    private static final String CLASS_DIRECTORY = "dk/skrypalle/jasm/it/assembler/";
+
+    private static final String PICK_SOURCE = ".bytecode 52.0\n"
+            + ".class public final cp/Pick\n"
+            + ".super java/lang/Object\n"
+            + ".method public static pick(Z)Lcp/A;\n"
+            + "  iload 0\n"
+            + "  ifeq label_0\n"
+            + "  new cp/B\n"
+            + "  dup\n"
+            + "  invokespecial cp/B.<init>:()V\n"
+            + "  goto label_1\n"
+            + "label_0:\n"
+            + "  new cp/C\n"
+            + "  dup\n"
+            + "  invokespecial cp/C.<init>:()V\n"
+            + "label_1:\n"
+            + "  areturn\n"
+            + ".end method\n";
+
+    private Path sourceDirectory;
+    private Path outputDirectory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        sourceDirectory = createSourceDirectory();
+        outputDirectory = Files.createTempDirectory("jasm-out");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(sourceDirectory.toFile());
+        FileUtils.deleteDirectory(outputDirectory.toFile());
+    }
+
+    @Test
+    public void shouldAssembleDirectoriesRecursively() {
+        // act
+        int exitCode = jasm("-j", "2", sourceDirectory.toString());
+
+        // assert
+        assertThat(exitCode)
+                .isEqualTo(0);
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Integers.class")).exists();
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Longs.class")).exists();
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Doubles.class")).exists();
+    }
+
+    @Test
+    public void shouldExpandGlobPatterns() {
+        // act
+        int exitCode = jasm(sourceDirectory.resolve("nested") + "/**.jasm");
+
+        // assert
+        assertThat(exitCode)
+                .isEqualTo(0);
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Integers.class")).doesNotExist();
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Longs.class")).exists();
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Doubles.class")).exists();
+    }
+
+    @Test
+    public void shouldFailGivenAnyFileFails() throws IOException {
+        // arrange
+        Files.writeString(sourceDirectory.resolve("broken.jasm"), ".class broken/Broken\n");
+
+        // act
+        int exitCode = jasm("--jobs", "4", sourceDirectory.toString());
+
+        // assert
+        assertThat(exitCode)
+                .isEqualTo(1);
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Integers.class")).exists();
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Longs.class")).exists();
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Doubles.class")).exists();
+    }
+
+    @Test
+    public void shouldSummarizeFailedFiles() throws IOException {
+        // arrange
+        Files.writeString(sourceDirectory.resolve("broken.jasm"), ".class broken/Broken\n");
+        var stderr = new ByteArrayOutputStream();
+        var originalStderr = System.err;
+
+        // act
+        int exitCode;
+        System.setErr(new PrintStream(stderr, true, StandardCharsets.UTF_8));
+        try {
+            exitCode = jasm(sourceDirectory.toString());
+        } finally {
+            System.setErr(originalStderr);
+        }
+
+        // assert
+        assertThat(exitCode)
+                .isEqualTo(1);
+        assertThat(stderr.toString(StandardCharsets.UTF_8))
+                .endsWith(String.format("1 of 4 files failed to assemble.%n"));
+    }
+
+    @Test
+    public void shouldFailGivenGlobWithoutMatches() {
+        // act
+        int exitCode = jasm(sourceDirectory + "/*.none");
+
+        // assert
+        assertThat(exitCode)
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotRewriteIdenticalOutput() throws IOException {
+        // arrange
+        var cacheDirectory = outputDirectory.resolve("cache");
+        var classFile = outputDirectory.resolve(CLASS_DIRECTORY + "Integers.class");
+        var past = FileTime.fromMillis(0);
+        jasm("--cache", cacheDirectory.toString(), sourceDirectory.toString());
+        Files.setLastModifiedTime(classFile, past);
+
+        // act
+        int exitCode = jasm("--cache", cacheDirectory.toString(), sourceDirectory.toString());
+
+        // assert
+        assertThat(exitCode)
+                .isEqualTo(0);
+        assertThat(Files.getLastModifiedTime(classFile))
+                .isEqualTo(past);
+    }
+
+    @Test
+    public void shouldResolveClassesOfTheClasspath() throws IOException {
+        // arrange
+        var classpathDirectory = outputDirectory.resolve("classpath");
+        writeClass(classpathDirectory, "cp/A", "java/lang/Object");
+        writeClass(classpathDirectory, "cp/B", "cp/A");
+        writeClass(classpathDirectory, "cp/C", "cp/A");
+        var pick = writePickSource();
+
+        // act
+        int exitCode = jasm("--classpath", classpathDirectory.toString(), pick.toString());
+
+        // assert
+        assertThat(exitCode)
+                .isEqualTo(0);
+        assertThat(outputDirectory.resolve("cp/Pick.class")).exists();
+    }
+
+    @Test
+    public void shouldFailGivenClassesMissingFromTheClasspath() throws IOException {
+        // arrange
+        var pick = writePickSource();
+
+        // act
+        int exitCode = jasm(pick.toString());
+
+        // assert
+        assertThat(exitCode)
+                .isEqualTo(1);
+        assertThat(outputDirectory.resolve("cp/Pick.class")).doesNotExist();
+    }
+
+    @Test
+    public void shouldFailGivenIllegalClasspathEntry() {
+        // act
+        int exitCode = jasm(
+                "-cp",
+                sourceDirectory.resolve("does-not-exist").toString(),
+                sourceDirectory.toString()
+        );
+
+        // assert
+        assertThat(exitCode)
+                .isEqualTo(1);
+        assertThat(outputDirectory.resolve(CLASS_DIRECTORY + "Integers.class")).doesNotExist();
+    }
+
+    private int jasm(String... args) {
+        var argsWithOutputDirectory = new String[args.length + 2];
+        argsWithOutputDirectory[0] = "-d";
+        argsWithOutputDirectory[1] = outputDirectory.toString();
+        System.arraycopy(args, 0, argsWithOutputDirectory, 2, args.length);
+        return new CommandLine(new Jasm()).execute(argsWithOutputDirectory);
+    }
+
+    private Path writePickSource() throws IOException {
+        var file = sourceDirectory.resolve("pick/pick.jasm");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, PICK_SOURCE);
+        return file;
+    }
+
+    private static void writeClass(Path directory, String className, String superName)
+            throws IOException {
+        var source = String.format(
+                ".bytecode 52.0\n"
+                        + ".class public %1$s\n"
+                        + ".super %2$s\n"
+                        + ".method public <init>()V\n"
+                        + "  aload 0\n"
+                        + "  invokespecial %2$s.<init>:()V\n"
+                        + "  return\n"
+                        + ".end method\n",
+                className,
+                superName
+        );
+        var assembly = Assemblers.fromString(source, new ConsoleErrorListener(), true).assemble();
+        var classFile = directory.resolve(className + ".class");
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, assembly.getBinaryData());
+    }
+
+    private static Path createSourceDirectory() throws IOException {
+        var directory = Files.createTempDirectory("jasm-src");
+        copy("integers", directory);
+        copy("longs", directory.resolve("nested"));
+        copy("doubles", directory.resolve("nested/deeper"));
+        return directory;
+    }
+
+    private static void copy(String testName, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.copy(
+                TestUtil.getResourcePath("/dk/skrypalle/jasm/it/assembler/" + testName + ".jasm"),
+                directory.resolve(testName + ".jasm")
+        );
+    }
+
+}
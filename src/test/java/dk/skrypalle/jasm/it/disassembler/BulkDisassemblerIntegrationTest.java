@@ -0,0 +1,390 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.disassembler;
+
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.disassembler.err.ErrorListener;
+import dk.skrypalle.jasm.it.util.TestUtil;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BulkDisassemblerIntegrationTest {
+
+    private static final String CLASS_DIRECTORY = "dk/skrypalle/jasm/it/disassembler/";
+    private static final int PARALLELISM = 4;
+
+    private Path workDirectory;
+    private Path outputDirectory;
+    private Map<String, byte[]> classFiles;
+
+    @BeforeClass
+    public void loadClassFiles() throws IOException {
+        classFiles = readClassFiles();
+    }
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("jdsm-bulk");
+        outputDirectory = workDirectory.resolve("out");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(workDirectory.toFile());
+    }
+
+    @Test
+    public void fromJar_shouldWriteMirroredTree() throws Exception {
+        // arrange
+        var jar = createJar(classFiles);
+        var errorListener = new RecordingErrorListener();
+
+        // act
+        var disassembly = Disassemblers.fromJar(
+                jar,
+                DisassemblerOptions.defaults(),
+                PARALLELISM,
+                errorListener,
+                false
+        ).disassembleTo(outputDirectory);
+
+        // assert
+        assertThat(disassembly.isSuccessful())
+                .isTrue();
+        assertThat(disassembly.getNumberOfClasses())
+                .isEqualTo(classFiles.size());
+        assertThat(errorListener.getMessages())
+                .isEmpty();
+        assertMirroredTree();
+    }
+
+    @Test
+    public void fromDirectory_shouldWriteMirroredTree() throws Exception {
+        // arrange
+        var directory = createDirectory(classFiles);
+        var errorListener = new RecordingErrorListener();
+
+        // act
+        var disassembly = Disassemblers.fromDirectory(
+                directory,
+                DisassemblerOptions.defaults(),
+                PARALLELISM,
+                errorListener,
+                false
+        ).disassembleTo(outputDirectory);
+
+        // assert
+        assertThat(disassembly.isSuccessful())
+                .isTrue();
+        assertThat(disassembly.getNumberOfClasses())
+                .isEqualTo(classFiles.size());
+        assertThat(errorListener.getMessages())
+                .isEmpty();
+        assertMirroredTree();
+    }
+
+    @Test
+    public void fromJar_shouldReportFailedClassesAndContinue() throws Exception {
+        // arrange
+        var entries = new TreeMap<>(classFiles);
+        entries.put("broken/Broken.class", new byte[]{(byte) 0xCA, (byte) 0xFE});
+        var jar = createJar(entries);
+        var errorListener = new RecordingErrorListener();
+
+        // act
+        var disassembly = Disassemblers.fromJar(
+                jar,
+                DisassemblerOptions.defaults(),
+                PARALLELISM,
+                errorListener,
+                false
+        ).disassembleTo(outputDirectory);
+
+        // assert
+        assertThat(disassembly.isSuccessful())
+                .isFalse();
+        assertThat(disassembly.getNumberOfClasses())
+                .isEqualTo(entries.size());
+        assertThat(disassembly.getFailedSourceNames())
+                .containsExactly(jar + "!/broken/Broken.class");
+        assertThat(errorListener.getMessages())
+                .containsExactly(String.format(
+                        "Unexpected error while disassembling '%s!/broken/Broken.class'",
+                        jar
+                ));
+        assertThat(outputDirectory.resolve("broken/Broken.jasm"))
+                .doesNotExist();
+        assertMirroredTree();
+    }
+
+    @Test(timeOut = 30_000)
+    public void fromJar_shouldRethrowErrorListenerFailure() throws Exception {
+        // arrange
+        var entries = new TreeMap<>(classFiles);
+        entries.put("broken/Broken.class", new byte[]{(byte) 0xCA, (byte) 0xFE});
+        var jar = createJar(entries);
+        var errorListener = new RecordingErrorListener() {
+            @Override
+            protected void emitGeneralError(String message) {
+                throw new IllegalStateException(message);
+            }
+        };
+
+        // act
+        // assert
+        var dsm = Disassemblers.fromJar(
+                jar,
+                DisassemblerOptions.defaults(),
+                1,
+                errorListener,
+                false
+        );
+        assertThatThrownBy(() -> dsm.disassembleTo(outputDirectory))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("broken/Broken.class");
+        assertMirroredTree();
+    }
+
+    @Test
+    public void fromJar_shouldNotWriteOutsideOfOutputDirectory() throws Exception {
+        // arrange
+        var entries = Map.of("../Escaped.class", classFiles.values().iterator().next());
+        var jar = createJar(entries);
+        var errorListener = new RecordingErrorListener();
+
+        // act
+        var disassembly = Disassemblers.fromJar(
+                jar,
+                DisassemblerOptions.defaults(),
+                PARALLELISM,
+                errorListener,
+                false
+        ).disassembleTo(outputDirectory);
+
+        // assert
+        assertThat(disassembly.getFailedSourceNames())
+                .containsExactly(jar + "!/../Escaped.class");
+        assertThat(errorListener.getMessages())
+                .containsExactly(String.format(
+                        "Entry '%s!/../Escaped.class' would be written outside of the output "
+                                + "directory.",
+                        jar
+                ));
+        assertThat(workDirectory.resolve("Escaped.jasm"))
+                .doesNotExist();
+    }
+
+    @Test
+    public void fromJar_shouldReportMissingJar() throws Exception {
+        // arrange
+        var jar = workDirectory.resolve("missing.jar");
+        var errorListener = new RecordingErrorListener();
+
+        // act
+        var disassembly = Disassemblers.fromJar(jar, errorListener, false)
+                .disassembleTo(outputDirectory);
+
+        // assert
+        assertThat(disassembly.isSuccessful())
+                .isFalse();
+        assertThat(disassembly.isInputReadable())
+                .isFalse();
+        assertThat(errorListener.getMessages())
+                .containsExactly(String.format("File '%s' does not exit.", jar));
+    }
+
+    @Test
+    public void fromModule_shouldWriteMirroredTree() throws Exception {
+        // arrange
+        var module = FileSystems.getFileSystem(URI.create("jrt:/"))
+                .getPath("/modules", "java.transaction.xa");
+        List<Path> moduleClassFiles;
+        try (var files = Files.walk(module)) {
+            moduleClassFiles = files
+                    .filter(path -> path.toString().endsWith(".class"))
+                    .collect(Collectors.toList());
+        }
+        var errorListener = new RecordingErrorListener();
+
+        // act
+        var disassembly = Disassemblers.fromModule(
+                "java.transaction.xa",
+                DisassemblerOptions.defaults(),
+                PARALLELISM,
+                errorListener,
+                false
+        ).disassembleTo(outputDirectory);
+
+        // assert
+        assertThat(disassembly.isInputReadable())
+                .isTrue();
+        assertThat(disassembly.getNumberOfClasses())
+                .isEqualTo(moduleClassFiles.size())
+                .isPositive();
+        for (var classFile : moduleClassFiles) {
+            var sourceName = classFile.toString();
+            var jasmFile = outputDirectory.resolve(
+                    module.relativize(classFile).toString().replace(".class", ".jasm")
+            );
+            if (disassembly.getFailedSourceNames().contains(sourceName)) {
+                // the running JDK may be newer than the class file versions ASM supports
+                assertThat(jasmFile)
+                        .doesNotExist();
+                continue;
+            }
+
+            var expected = Disassemblers.fromBinary(
+                    Files.readAllBytes(classFile),
+                    sourceName,
+                    new JdsmAssertingErrorListener(),
+                    true
+            ).disassemble();
+            assertThat(Files.readString(jasmFile, StandardCharsets.UTF_8))
+                    .isEqualTo(expected.getJasmSourceCode());
+        }
+    }
+
+    @Test
+    public void fromModule_shouldReportUnknownModule() throws Exception {
+        // arrange
+        var errorListener = new RecordingErrorListener();
+
+        // act
+        var disassembly = Disassemblers.fromModule("no.such.module", errorListener, false)
+                .disassembleTo(outputDirectory);
+
+        // assert
+        assertThat(disassembly.isInputReadable())
+                .isFalse();
+        assertThat(disassembly.getNumberOfClasses())
+                .isZero();
+        assertThat(errorListener.getMessages())
+                .containsExactly(String.format(
+                        "Module '%s' could not be found in the runtime image.",
+                        "no.such.module"
+                ));
+    }
+
+    private void assertMirroredTree() throws IOException {
+        for (var entry : classFiles.entrySet()) {
+            var expected = Disassemblers.fromBinary(
+                    entry.getValue(),
+                    entry.getKey(),
+                    new JdsmAssertingErrorListener(),
+                    true
+            ).disassemble();
+            var jasmFile = outputDirectory.resolve(entry.getKey().replace(".class", ".jasm"));
+
+            assertThat(jasmFile)
+                    .exists();
+            assertThat(Files.readString(jasmFile, StandardCharsets.UTF_8))
+                    .isEqualTo(expected.getJasmSourceCode());
+        }
+    }
+
+    private static Map<String, byte[]> readClassFiles() throws IOException {
+        var directory = TestUtil.getResourcePath("/" + CLASS_DIRECTORY);
+        List<Path> paths;
+        try (var files = Files.list(directory)) {
+            paths = files
+                    .filter(path -> path.toString().endsWith(".class"))
+                    .collect(Collectors.toList());
+        }
+
+        var classFiles = new TreeMap<String, byte[]>();
+        for (var path : paths) {
+            classFiles.put(CLASS_DIRECTORY + path.getFileName(), Files.readAllBytes(path));
+        }
+        assertThat(classFiles)
+                .isNotEmpty();
+        return classFiles;
+    }
+
+    private Path createJar(Map<String, byte[]> entries) throws IOException {
+        var jar = workDirectory.resolve("classes.jar");
+        try (var out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry(CLASS_DIRECTORY));
+            out.closeEntry();
+            out.putNextEntry(new JarEntry("resource.txt"));
+            out.write("not a class".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+            for (var entry : entries.entrySet()) {
+                out.putNextEntry(new JarEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private Path createDirectory(Map<String, byte[]> entries) throws IOException {
+        var directory = workDirectory.resolve("classes");
+        for (var entry : entries.entrySet()) {
+            var file = directory.resolve(entry.getKey());
+            Files.createDirectories(file.getParent());
+            Files.write(file, entry.getValue());
+        }
+        Files.writeString(directory.resolve("resource.txt"), "not a class");
+        return directory;
+    }
+
+    private static class RecordingErrorListener extends ErrorListener {
+
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+        List<String> getMessages() {
+            synchronized (messages) {
+                return new ArrayList<>(messages);
+            }
+        }
+
+        @Override
+        protected void emitGeneralError(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        protected void emitGeneralError(String message, Throwable error) {
+            messages.add(message);
+        }
+
+    }
+
+}
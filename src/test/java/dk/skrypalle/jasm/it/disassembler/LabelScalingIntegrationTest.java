@@ -0,0 +1,125 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.disassembler;
+
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.disassembler.Disassembly;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that methods with a large number of labels are disassembled correctly. How the
+ * disassembler scales with the number of labels is measured by the {@code LABELS} axis of the
+ * {@code ScalingBenchmark} of the {@code jmh} profile, in both the single-pass and the two-pass
+ * mode.
+ */
+public class LabelScalingIntegrationTest {
+
+    private static final int NUMBER_OF_LABELS = 64_000;
+
+    @DataProvider
+    public static Object[][] provideSinglePass() {
+        return new Object[][]{{false}, {true}};
+    }
+
+    @Test(dataProvider = "provideSinglePass", timeOut = 30_000)
+    public void disassemble_shouldNameAllLabels(boolean singlePass) {
+        // arrange
+        var binaryData = generateClass(NUMBER_OF_LABELS);
+
+        // act
+        var disassembly = disassemble(binaryData, singlePass);
+
+        // assert
+        var jasmSourceCode = disassembly.getJasmSourceCode();
+        assertThat(jasmSourceCode)
+                .contains("\nlabel_0:\n")
+                .contains(String.format("\nlabel_%d:\n", NUMBER_OF_LABELS))
+                .doesNotContain(String.format("label_%d:", NUMBER_OF_LABELS + 1))
+                .contains(String.format(
+                        ".exception label_%d label_%d label_%d any",
+                        NUMBER_OF_LABELS - 1,
+                        NUMBER_OF_LABELS,
+                        NUMBER_OF_LABELS
+                ));
+    }
+
+    private static Disassembly disassemble(byte[] binaryData, boolean singlePass) {
+        var dsm = Disassemblers.fromBinary(
+                binaryData,
+                "Labels",
+                DisassemblerOptions.defaults().withSinglePass(singlePass),
+                new JdsmAssertingErrorListener(),
+                true
+        );
+
+        var disassembly = dsm.disassemble();
+        assertThat(disassembly)
+                .as("disassembly not expected to be null")
+                .isNotNull();
+
+        return disassembly;
+    }
+
+    /**
+     * Generates a class with a single method defining {@code numberOfLabels + 1} labels, all of
+     * which are referenced by {@code numberOfLabels} exception table entries.
+     */
+    private static byte[] generateClass(int numberOfLabels) {
+        var cw = new ClassWriter(0);
+        cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, "Labels", null, "java/lang/Object", null);
+
+        var mv = cw.visitMethod(
+                Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                "labels",
+                "()V",
+                null,
+                null
+        );
+        mv.visitCode();
+
+        var labels = new Label[numberOfLabels + 1];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = new Label();
+        }
+        var handler = labels[numberOfLabels];
+        for (int i = 0; i < numberOfLabels; i++) {
+            mv.visitTryCatchBlock(labels[i], labels[i + 1], handler, null);
+        }
+
+        for (int i = 0; i < numberOfLabels; i++) {
+            mv.visitLabel(labels[i]);
+            mv.visitInsn(Opcodes.NOP);
+        }
+        mv.visitLabel(handler);
+        mv.visitInsn(Opcodes.ATHROW);
+
+        mv.visitMaxs(1, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.disassembler;
+
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.disassembler.MethodFilter;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MethodFilterIntegrationTest {
+
+    private static final byte[] BINARY_DATA = generateClass();
+
+    @DataProvider
+    public static Object[][] provideSinglePass() {
+        return new Object[][]{{false}, {true}};
+    }
+
+    @Test(dataProvider = "provideSinglePass")
+    public void filterAll_shouldDisassembleAllMethods(boolean singlePass) {
+        // arrange
+        var options = DisassemblerOptions.defaults().withSinglePass(singlePass);
+
+        // act
+        var jasmSourceCode = disassemble(options.withMethodFilter(MethodFilter.all()));
+
+        // assert
+        assertThat(jasmSourceCode)
+                .isEqualTo(disassemble(options))
+                .contains(".method public <init>()V")
+                .contains(".method public static foo()I")
+                .contains(".method public static foo(I)I")
+                .contains(".method public static bar()V");
+    }
+
+    @Test(dataProvider = "provideSinglePass")
+    public void filterByName_shouldOnlyDisassembleNamedMethods(boolean singlePass) {
+        // arrange
+        var options = DisassemblerOptions.defaults().withSinglePass(singlePass);
+        var expected = removeMethods(disassemble(options), "<init>()V", "bar()V");
+
+        // act
+        var jasmSourceCode = disassemble(options.withMethodFilter(MethodFilter.of("foo")));
+
+        // assert
+        assertThat(jasmSourceCode)
+                .isEqualTo(expected)
+                .contains(".field private static count I");
+    }
+
+    @Test(dataProvider = "provideSinglePass")
+    public void filterByDescriptor_shouldOnlyDisassembleThatMethod(boolean singlePass) {
+        // arrange
+        var options = DisassemblerOptions.defaults().withSinglePass(singlePass);
+        var expected = removeMethods(disassemble(options), "<init>()V", "foo()I", "bar()V");
+
+        // act
+        var jasmSourceCode = disassemble(options.withMethodFilter(MethodFilter.parse("foo(I)I")));
+
+        // assert
+        assertThat(jasmSourceCode)
+                .isEqualTo(expected);
+    }
+
+    @Test
+    public void or_shouldSelectUnion() {
+        // arrange
+        var options = DisassemblerOptions.defaults();
+        var expected = removeMethods(disassemble(options), "<init>()V", "foo(I)I");
+        var filter = MethodFilter.parse("foo()I").or(MethodFilter.parse("bar"));
+
+        // act
+        var jasmSourceCode = disassemble(options.withMethodFilter(filter));
+
+        // assert
+        assertThat(jasmSourceCode)
+                .isEqualTo(expected);
+    }
+
+    @Test
+    public void noMatch_shouldOnlyDisassembleClassHeader() {
+        // arrange
+        var options = DisassemblerOptions.defaults()
+                .withMethodFilter(MethodFilter.of("doesNotExist"));
+
+        // act
+        var jasmSourceCode = disassemble(options);
+
+        // assert
+        assertThat(jasmSourceCode)
+                .contains(".class public Methods")
+                .contains(".field private static count I")
+                .doesNotContain(".method");
+    }
+
+    @Test
+    public void parse_shouldEqualFactoryMethods() {
+        // arrange
+        // act
+        // assert
+        assertThat(MethodFilter.parse("main"))
+                .isEqualTo(MethodFilter.of("main"));
+        assertThat(MethodFilter.parse("main([Ljava/lang/String;)V"))
+                .isEqualTo(MethodFilter.of("main", "([Ljava/lang/String;)V"));
+        assertThat(MethodFilter.parse("a").or(MethodFilter.parse("b(JD)[[I")))
+                .isEqualTo(MethodFilter.parse("b(JD)[[I").or(MethodFilter.parse("a")));
+        assertThat(MethodFilter.parse("a").or(MethodFilter.all()))
+                .isSameAs(MethodFilter.all());
+    }
+
+    @DataProvider
+    public static Object[][] provideIllegalMethodSpecs() {
+        return new Object[][]{
+                {""},
+                {"(I)V"},
+                {"foo("},
+                {"foo()"},
+                {"foo(I"},
+                {"foo(Q)V"},
+                {"foo(L;)V"},
+                {"foo(Ljava/lang/String)V"},
+                {"foo()VV"},
+                {"foo([)V"},
+                {"foo(V)V"},
+        };
+    }
+
+    @Test(dataProvider = "provideIllegalMethodSpecs")
+    public void parse_shouldRejectIllegalSpecs(String spec) {
+        // arrange
+        // act
+        // assert
+        assertThatThrownBy(() -> MethodFilter.parse(spec))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String disassemble(DisassemblerOptions options) {
+        var disassembly = Disassemblers.fromBinary(
+                BINARY_DATA,
+                "Methods",
+                options,
+                new JdsmAssertingErrorListener(),
+                true
+        ).disassemble();
+
+        assertThat(disassembly)
+                .as("disassembly not expected to be null")
+                .isNotNull();
+        return disassembly.getJasmSourceCode();
+    }
+
+    private static String removeMethods(String jasmSourceCode, String... methods) {
+        var result = jasmSourceCode;
+        for (var method : methods) {
+            var pattern = Pattern.compile(
+                    "\n\\.method [^\n]*" + Pattern.quote(method) + "\n.*?\\.end method\n",
+                    Pattern.DOTALL
+            );
+            var matcher = pattern.matcher(result);
+            assertThat(matcher.find())
+                    .as("method %s expected in:%n%s", method, result)
+                    .isTrue();
+            result = matcher.replaceFirst("");
+        }
+        return result;
+    }
+
+    /**
+     * Generates a class with a field, a constructor, two overloads of {@code foo} containing
+     * labels and {@code bar}.
+     */
+    private static byte[] generateClass() {
+        var cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "Methods", null, "java/lang/Object", null);
+        cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, "count", "I", null, null)
+                .visitEnd();
+
+        var init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(
+                Opcodes.INVOKESPECIAL,
+                "java/lang/Object",
+                "<init>",
+                "()V",
+                false
+        );
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        generateFoo(cw, "()I", Opcodes.ICONST_1);
+        generateFoo(cw, "(I)I", Opcodes.ICONST_2);
+
+        var bar = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "bar", "()V", null, null);
+        bar.visitCode();
+        bar.visitInsn(Opcodes.RETURN);
+        bar.visitMaxs(0, 0);
+        bar.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void generateFoo(ClassWriter cw, String descriptor, int constant) {
+        var mv = cw.visitMethod(
+                Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                "foo",
+                descriptor,
+                null,
+                null
+        );
+        mv.visitCode();
+        var elseLabel = new Label();
+        mv.visitFieldInsn(Opcodes.GETSTATIC, "Methods", "count", "I");
+        mv.visitJumpInsn(Opcodes.IFEQ, elseLabel);
+        mv.visitInsn(constant);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitLabel(elseLabel);
+        mv.visitInsn(Opcodes.ICONST_0);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.disassembler;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.disassembler.Disassembler;
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.it.assembler.JasmAssertingErrorListener;
+import dk.skrypalle.jasm.it.util.TestDataProvider;
+import org.apache.commons.text.CaseUtils;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SinglePassDisassemblerIntegrationTest {
+
+    @Test(dataProviderClass = JdsmIntegrationTest.class, dataProvider = "provideTestFileNames")
+    public void singlePassShouldEqualTwoPass_compiledClasses(String testName) {
+        // arrange
+        var camelCase = CaseUtils.toCamelCase(testName, true, '_');
+        var className = "dk.skrypalle.jasm.it.disassembler." + camelCase;
+
+        // act
+        // assert
+        assertSinglePassEqualsTwoPass(options -> Disassemblers.fromClassName(
+                className,
+                options,
+                new JdsmAssertingErrorListener(),
+                true
+        ));
+    }
+
+    @Test(dataProviderClass = TestDataProvider.class, dataProvider = "provideJasmSourceFiles")
+    public void singlePassShouldEqualTwoPass_assembledClasses(Path resourcePath) {
+        // arrange
+        var assembly = assemble(resourcePath);
+
+        // act
+        // assert
+        assertSinglePassEqualsTwoPass(options -> Disassemblers.fromBinary(
+                assembly.getBinaryData(),
+                assembly.getJvmClassName(),
+                options,
+                new JdsmAssertingErrorListener(),
+                true
+        ));
+    }
+
+    private static void assertSinglePassEqualsTwoPass(
+            Function<DisassemblerOptions, Disassembler> disassemblerFactory) {
+        for (var emitFrames : new boolean[]{false, true}) {
+            var options = DisassemblerOptions.defaults().withEmitFrames(emitFrames);
+
+            var singlePass = disassemblerFactory.apply(options.withSinglePass(true))
+                    .disassemble();
+            var twoPass = disassemblerFactory.apply(options.withSinglePass(false))
+                    .disassemble();
+
+            assertThat(singlePass)
+                    .as("disassembly not expected to be null")
+                    .isNotNull();
+            assertThat(twoPass)
+                    .as("disassembly not expected to be null")
+                    .isNotNull();
+            assertThat(singlePass.getJasmSourceCode())
+                    .as("emitFrames=%s", emitFrames)
+                    .isEqualTo(twoPass.getJasmSourceCode());
+        }
+    }
+
+    private static Assembly assemble(Path resourcePath) {
+        var asm = Assemblers.fromFile(
+                resourcePath,
+                new JasmAssertingErrorListener(),
+                true
+        );
+
+        var assembly = asm.assemble();
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+
+        return assembly;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.disassembler;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.disassembler.Disassembly;
+import dk.skrypalle.jasm.it.assembler.JasmAssertingErrorListener;
+import org.apache.commons.text.CaseUtils;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SkipOptionsDisassemblerIntegrationTest {
+
+    @Test(dataProviderClass = JdsmIntegrationTest.class, dataProvider = "provideTestFileNames")
+    public void skipDebug_shouldOmitDebugDirectives(String testName) {
+        // arrange
+        var className = toClassName(testName);
+        var options = DisassemblerOptions.defaults().withSkipDebug(true);
+
+        // act
+        var disassembly = disassemble(className, options);
+
+        // assert
+        assertThat(disassembly.getJasmSourceCode())
+                .doesNotContainPattern("(?m)^\\s*\\.(source|line|var) ");
+    }
+
+    @Test(dataProviderClass = JdsmIntegrationTest.class, dataProvider = "provideTestFileNames")
+    public void skipDebug_shouldRoundTrip(String testName) {
+        // arrange
+        var className = toClassName(testName);
+        var options = DisassemblerOptions.defaults().withSkipDebug(true);
+        var disassembly = disassemble(className, options);
+
+        // act
+        var assembly = Assemblers.fromString(
+                disassembly.getJasmSourceCode(),
+                disassembly.getJvmClassName(),
+                new JasmAssertingErrorListener(),
+                true
+        ).assemble();
+        var roundTripDisassembly = Disassemblers.fromBinary(
+                assembly.getBinaryData(),
+                assembly.getJvmClassName(),
+                options,
+                new JdsmAssertingErrorListener(),
+                true
+        ).disassemble();
+
+        // assert
+        assertThat(roundTripDisassembly.getJasmSourceCode())
+                .isEqualTo(disassembly.getJasmSourceCode());
+    }
+
+    @Test(dataProviderClass = JdsmIntegrationTest.class, dataProvider = "provideTestFileNames")
+    public void skipFrames_shouldEqualNotEmittingFrames(String testName) {
+        // arrange
+        var className = toClassName(testName);
+
+        for (var singlePass : new boolean[]{false, true}) {
+            var options = DisassemblerOptions.defaults().withSinglePass(singlePass);
+
+            // act
+            var skipped = disassemble(
+                    className,
+                    options.withEmitFrames(true).withSkipFrames(true)
+            );
+            var notEmitted = disassemble(className, options.withEmitFrames(false));
+
+            // assert
+            assertThat(skipped.getJasmSourceCode())
+                    .as("singlePass=%s", singlePass)
+                    .doesNotContain(".stack ")
+                    .isEqualTo(notEmitted.getJasmSourceCode());
+        }
+    }
+
+    private static String toClassName(String testName) {
+        return "dk.skrypalle.jasm.it.disassembler." + CaseUtils.toCamelCase(testName, true, '_');
+    }
+
+    private static Disassembly disassemble(String className, DisassemblerOptions options) {
+        var disassembly = Disassemblers.fromClassName(
+                className,
+                options,
+                new JdsmAssertingErrorListener(),
+                true
+        ).disassemble();
+
+        assertThat(disassembly)
+                .as("disassembly not expected to be null")
+                .isNotNull();
+        return disassembly;
+    }
+
+}
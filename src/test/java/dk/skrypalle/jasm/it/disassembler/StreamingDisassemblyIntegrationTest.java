@@ -0,0 +1,164 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.disassembler;
+
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import org.apache.commons.text.CaseUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StreamingDisassemblyIntegrationTest {
+
+    private static final int NUMBER_OF_METHODS = 100;
+
+    @Test(dataProviderClass = JdsmIntegrationTest.class, dataProvider = "provideTestFileNames")
+    public void disassembleTo_shouldEqualDisassemble(String testName) {
+        // arrange
+        var camelCase = CaseUtils.toCamelCase(testName, true, '_');
+        var className = "dk.skrypalle.jasm.it.disassembler." + camelCase;
+        var out = new StringWriter();
+
+        // act
+        var disassembly = Disassemblers.fromClassName(
+                className,
+                new JdsmAssertingErrorListener(),
+                true
+        ).disassemble();
+        var jvmClassName = Disassemblers.fromClassName(
+                className,
+                new JdsmAssertingErrorListener(),
+                true
+        ).disassembleTo(out);
+
+        // assert
+        assertThat(disassembly)
+                .isNotNull();
+        assertThat(jvmClassName)
+                .isEqualTo(disassembly.getJvmClassName());
+        assertThat(out.toString())
+                .isEqualTo(disassembly.getJasmSourceCode());
+    }
+
+    @Test
+    public void disassembleTo_shouldWriteOneMemberAtATime() {
+        // arrange
+        var binaryData = generateClass();
+        var out = new RecordingAppendable();
+
+        // act
+        var jvmClassName = Disassemblers.fromBinary(
+                binaryData,
+                "Methods",
+                new JdsmAssertingErrorListener(),
+                true
+        ).disassembleTo(out);
+
+        // assert
+        assertThat(jvmClassName)
+                .isEqualTo("Methods");
+        assertThat(out.chunks)
+                .filteredOn(chunk -> chunk.contains(".method "))
+                .hasSize(NUMBER_OF_METHODS)
+                .allSatisfy(chunk -> assertThat(chunk)
+                        .containsOnlyOnce(".method "));
+        assertThat(out.chunks)
+                .filteredOn(chunk -> chunk.contains(".end method"))
+                .hasSize(NUMBER_OF_METHODS)
+                .allSatisfy(chunk -> assertThat(chunk)
+                        .containsOnlyOnce(".end method"));
+    }
+
+    @Test
+    public void disassembleTo_shouldRethrowWriteFailures() {
+        // arrange
+        var binaryData = generateClass();
+        Appendable out = new RecordingAppendable() {
+            @Override
+            public Appendable append(CharSequence csq) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        var dsm = Disassemblers.fromBinary(
+                binaryData,
+                "Methods",
+                new JdsmAssertingErrorListener(),
+                true
+        );
+
+        // act
+        // assert
+        assertThatThrownBy(() -> dsm.disassembleTo(out))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("disk full");
+    }
+
+    private static byte[] generateClass() {
+        var cw = new ClassWriter(0);
+        cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, "Methods", null, "java/lang/Object", null);
+
+        for (int i = 0; i < NUMBER_OF_METHODS; i++) {
+            var mv = cw.visitMethod(
+                    Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                    "method" + i,
+                    "()V",
+                    null,
+                    null
+            );
+            mv.visitCode();
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static class RecordingAppendable implements Appendable {
+
+        private final List<String> chunks = new ArrayList<>();
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            chunks.add(csq.toString());
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            return append(csq.subSequence(start, end));
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            return append(String.valueOf(c));
+        }
+
+    }
+
+}
@@ -17,15 +17,8 @@
  */
 package dk.skrypalle.jasm.it.jdk;
 
-import dk.skrypalle.jasm.assembler.Assemblers;
-import dk.skrypalle.jasm.assembler.Assembly;
-import dk.skrypalle.jasm.disassembler.Disassemblers;
-import dk.skrypalle.jasm.disassembler.Disassembly;
-import dk.skrypalle.jasm.it.assembler.JasmAssertingErrorListener;
-import dk.skrypalle.jasm.it.disassembler.JdsmAssertingErrorListener;
-import dk.skrypalle.jasm.it.util.TestAssertions;
 import dk.skrypalle.jasm.it.util.TestDataProvider;
-import dk.skrypalle.jasm.it.util.TestUtil;
+import org.testng.Reporter;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -36,12 +29,12 @@ import java.util.HashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static dk.skrypalle.jasm.it.util.TestAssertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
-@SuppressWarnings("ResultOfMethodCallIgnored")
 public class JdkRoundTripIntegrationTest {
 
+    private static final String JDK_RESOURCES = "src/test/resources/dk/skrypalle/jasm/it/jdk/";
+
     @Test
     public void updateWorkingJdkClassesIfNoRegression() throws Exception {
         var allJdkClasses = Stream.of(TestDataProvider.provideJdkClassNames())
@@ -50,20 +43,31 @@ public class JdkRoundTripIntegrationTest {
                 .sorted()
                 .collect(Collectors.toList());
 
+        var runner = new RoundTripRunner(Integer.getInteger(
+                "jdkRoundTripThreads",
+                Runtime.getRuntime().availableProcessors()
+        ));
+        var start = System.nanoTime();
+        var results = runner.runAll(allJdkClasses);
+        var wallClockNanos = System.nanoTime() - start;
+
+        var jdkVersion = TestDataProvider.getJdkVersion();
+        var report = new RoundTripReport(
+                jdkVersion,
+                runner.getThreads(),
+                wallClockNanos,
+                results
+        );
+        report.writeJson(Paths.get(JDK_RESOURCES + jdkVersion + "_report.json"));
+        Reporter.log(report.toSummary());
+
         var newWorkingJdkClasses = new ArrayList<String>();
         var errors = new HashMap<String, String>();
-        for (String jdkClass : allJdkClasses) {
-            try {
-
-                runRoundTrip(jdkClass);
-                newWorkingJdkClasses.add(jdkClass);
-
-            } catch (Throwable t) {
-                var message = t.getMessage();
-                if (message.trim().startsWith("Expecting:")) {
-                    message = "RoundTrip discrepancy. Output length: " + message.length();
-                }
-                errors.put(jdkClass, message);
+        for (var result : results) {
+            if (result.isPassed()) {
+                newWorkingJdkClasses.add(result.getClassName());
+            } else {
+                errors.put(result.getClassName(), result.getError());
             }
         }
 
@@ -101,7 +105,7 @@ public class JdkRoundTripIntegrationTest {
         }
 
         Files.write(
-                Paths.get("src/test/resources/dk/skrypalle/jasm/it/jdk/se12_working.txt"),
+                Paths.get(JDK_RESOURCES + "se12_working.txt"),
                 sortedNewWorkingJdkClasses
         );
     }
@@ -138,77 +142,7 @@ public class JdkRoundTripIntegrationTest {
     }
 
     private void runRoundTrip(String className) {
-        var disassembly = disassemble(className);
-        var assembly = assemble(disassembly);
-        var roundTripDisassembly = disassemble(assembly);
-
-        TestAssertions.assertThat(roundTripDisassembly)
-                .isEqualTo(disassembly);
-    }
-
-    private Disassembly disassemble(String className) {
-        // arrange
-        var dsm = Disassemblers.fromClassName(
-                className,
-                new JdsmAssertingErrorListener(),
-                true
-        );
-
-        // act
-        var disassembly = dsm.disassemble();
-
-        // assert
-        var jvmClassName = TestUtil.toJvmClassName(className);
-        var regexSafeJvmClassName = TestUtil.escapeJvmClassNameForRegex(jvmClassName);
-        assertThat(disassembly)
-                .isNotNull()
-                .hasJvmClassName(jvmClassName)
-                .containsSourcePattern("\\.class.*" + regexSafeJvmClassName + "\\n");
-
-        return disassembly;
-    }
-
-    private Disassembly disassemble(Assembly assembly) {
-        // arrange
-        var dsm = Disassemblers.fromBinary(
-                assembly.getBinaryData(),
-                assembly.getJvmClassName(),
-                new JdsmAssertingErrorListener(),
-                true
-        );
-
-        // act
-        var disassembly = dsm.disassemble();
-
-        // assert
-        var jvmClassName = assembly.getJvmClassName();
-        var regexSafeJvmClassName = TestUtil.escapeJvmClassNameForRegex(jvmClassName);
-        assertThat(disassembly)
-                .isNotNull()
-                .hasJvmClassName(jvmClassName)
-                .containsSourcePattern("\\.class.*" + regexSafeJvmClassName + "\\n");
-
-        return disassembly;
-    }
-
-    private Assembly assemble(Disassembly disassembly) {
-        // arrange
-        var asm = Assemblers.fromString(
-                disassembly.getJasmSourceCode(),
-                disassembly.getJvmClassName(),
-                new JasmAssertingErrorListener(),
-                true
-        );
-
-        // act
-        var assembly = asm.assemble();
-
-        // assert
-        assertThat(assembly)
-                .as("assembly not expected to be null")
-                .isNotNull();
-
-        return assembly;
+        RoundTripRunner.roundTrip(className);
     }
 
 }
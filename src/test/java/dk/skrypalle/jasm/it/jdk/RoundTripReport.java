@@ -0,0 +1,214 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.jdk;
+
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Timing report of a {@linkplain RoundTripRunner} run: latency percentiles per phase,
+ * throughput and the slowest classes. Latencies only take passing classes into account.
+ */
+class RoundTripReport {
+
+    private static final int NUMBER_OF_SLOWEST_CLASSES = 20;
+    private static final double[] PERCENTILES = {50, 90, 99, 100};
+    private static final double NANOS_PER_MICRO = 1_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final String jdkVersion;
+    private final int threads;
+    private final long wallClockNanos;
+    private final List<RoundTripRunner.Result> results;
+    private final List<RoundTripRunner.Result> passed;
+
+    RoundTripReport(
+            String jdkVersion,
+            int threads,
+            long wallClockNanos,
+            List<RoundTripRunner.Result> results) {
+        this.jdkVersion = jdkVersion;
+        this.threads = threads;
+        this.wallClockNanos = wallClockNanos;
+        this.results = List.copyOf(results);
+        passed = results.stream()
+                .filter(RoundTripRunner.Result::isPassed)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the number of round trips per second of wall clock time, passing or not.
+     */
+    double getThroughput() {
+        return wallClockNanos == 0 ? 0 : results.size() * NANOS_PER_SECOND / wallClockNanos;
+    }
+
+    /**
+     * Returns the passing classes, slowest first.
+     */
+    List<RoundTripRunner.Result> getSlowestClasses() {
+        return passed.stream()
+                .sorted(Comparator
+                        .comparingLong(RoundTripRunner.Result::getTotalNanos)
+                        .reversed()
+                        .thenComparing(RoundTripRunner.Result::getClassName))
+                .limit(NUMBER_OF_SLOWEST_CLASSES)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the latency in nanoseconds at the provided percentile, using the nearest-rank
+     * method.
+     */
+    long percentile(ToLongFunction<RoundTripRunner.Result> phase, double percentile) {
+        var sorted = passed.stream()
+                .mapToLong(phase)
+                .sorted()
+                .toArray();
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        var rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    String toSummary() {
+        var buf = new StringBuilder();
+        buf.append(String.format(
+                Locale.ROOT,
+                "%d of %d jdk classes round-tripped on %d threads in %.1fs (%.1f classes/s)%n",
+                passed.size(),
+                results.size(),
+                threads,
+                wallClockNanos / NANOS_PER_SECOND,
+                getThroughput()
+        ));
+        appendPhaseSummary(buf, "disassemble", RoundTripRunner.Result::getDisassembleNanos);
+        appendPhaseSummary(buf, "assemble", RoundTripRunner.Result::getAssembleNanos);
+        appendPhaseSummary(buf, "reDisassemble", RoundTripRunner.Result::getReDisassembleNanos);
+        appendPhaseSummary(buf, "total", RoundTripRunner.Result::getTotalNanos);
+        buf.append("slowest:\n");
+        for (var result : getSlowestClasses()) {
+            buf.append(String.format(
+                    Locale.ROOT,
+                    "    %10.0fus %s%n",
+                    result.getTotalNanos() / NANOS_PER_MICRO,
+                    result.getClassName()
+            ));
+        }
+        return buf.toString();
+    }
+
+    private void appendPhaseSummary(
+            StringBuilder buf,
+            String name,
+            ToLongFunction<RoundTripRunner.Result> phase) {
+        buf.append(String.format(Locale.ROOT, "%-14s", name));
+        for (var percentile : PERCENTILES) {
+            buf.append(String.format(
+                    Locale.ROOT,
+                    " p%.0f=%.0fus",
+                    percentile,
+                    percentile(phase, percentile) / NANOS_PER_MICRO
+            ));
+        }
+        buf.append('\n');
+    }
+
+    /**
+     * Writes the report as JSON.
+     */
+    void writeJson(Path file) throws IOException {
+        var buf = new StringBuilder();
+        buf.append("{\n");
+        buf.append("  \"jdkVersion\": ").append(quote(jdkVersion)).append(",\n");
+        buf.append("  \"threads\": ").append(threads).append(",\n");
+        buf.append("  \"classes\": ").append(results.size()).append(",\n");
+        buf.append("  \"passed\": ").append(passed.size()).append(",\n");
+        buf.append("  \"failed\": ").append(results.size() - passed.size()).append(",\n");
+        buf.append("  \"wallClockNanos\": ").append(wallClockNanos).append(",\n");
+        buf.append("  \"throughputClassesPerSecond\": ")
+                .append(String.format(Locale.ROOT, "%.3f", getThroughput()))
+                .append(",\n");
+
+        buf.append("  \"phases\": {\n");
+        appendPhaseJson(buf, "disassemble", RoundTripRunner.Result::getDisassembleNanos, ",");
+        appendPhaseJson(buf, "assemble", RoundTripRunner.Result::getAssembleNanos, ",");
+        appendPhaseJson(buf, "reDisassemble", RoundTripRunner.Result::getReDisassembleNanos, ",");
+        appendPhaseJson(buf, "total", RoundTripRunner.Result::getTotalNanos, "");
+        buf.append("  },\n");
+
+        buf.append("  \"slowest\": [\n");
+        var slowest = getSlowestClasses();
+        for (int i = 0; i < slowest.size(); i++) {
+            var result = slowest.get(i);
+            buf.append("    {\"className\": ").append(quote(result.getClassName()))
+                    .append(", \"totalNanos\": ").append(result.getTotalNanos())
+                    .append(i + 1 < slowest.size() ? "},\n" : "}\n");
+        }
+        buf.append("  ],\n");
+
+        buf.append("  \"results\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            var result = results.get(i);
+            buf.append("    {\"className\": ").append(quote(result.getClassName()))
+                    .append(", \"passed\": ").append(result.isPassed())
+                    .append(", \"disassembleNanos\": ").append(result.getDisassembleNanos())
+                    .append(", \"assembleNanos\": ").append(result.getAssembleNanos())
+                    .append(", \"reDisassembleNanos\": ").append(result.getReDisassembleNanos())
+                    .append(", \"totalNanos\": ").append(result.getTotalNanos());
+            if (!result.isPassed()) {
+                buf.append(", \"error\": ").append(quote(result.getError()));
+            }
+            buf.append(i + 1 < results.size() ? "},\n" : "}\n");
+        }
+        buf.append("  ]\n");
+        buf.append("}\n");
+
+        Files.writeString(file, buf, StandardCharsets.UTF_8);
+    }
+
+    private void appendPhaseJson(
+            StringBuilder buf,
+            String name,
+            ToLongFunction<RoundTripRunner.Result> phase,
+            String separator) {
+        buf.append("    ").append(quote(name)).append(": {");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            buf.append(String.format(Locale.ROOT, "\"p%.0fNanos\": ", PERCENTILES[i]))
+                    .append(percentile(phase, PERCENTILES[i]))
+                    .append(i + 1 < PERCENTILES.length ? ", " : "");
+        }
+        buf.append('}').append(separator).append('\n');
+    }
+
+    private static String quote(String value) {
+        return '"' + StringEscapeUtils.escapeJson(value) + '"';
+    }
+
+}
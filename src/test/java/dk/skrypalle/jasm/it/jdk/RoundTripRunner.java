@@ -0,0 +1,250 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.jdk;
+
+import dk.skrypalle.jasm.assembler.Assemblers;
+import dk.skrypalle.jasm.assembler.Assembly;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.disassembler.Disassembly;
+import dk.skrypalle.jasm.it.assembler.JasmAssertingErrorListener;
+import dk.skrypalle.jasm.it.disassembler.JdsmAssertingErrorListener;
+import dk.skrypalle.jasm.it.util.TestUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static dk.skrypalle.jasm.it.util.TestAssertions.assertThat;
+
+/**
+ * Runs the disassemble, assemble, disassemble round trip of JDK classes on a fixed number of
+ * threads and times each phase per class.
+ */
+class RoundTripRunner {
+
+    private final int threads;
+
+    RoundTripRunner(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Runs the round trip of all provided classes. Failing classes do not stop the run.
+     *
+     * @param classNames the fully qualified names of the classes
+     * @return the results in the order of {@code classNames}
+     * @throws InterruptedException if interrupted while waiting for the round trips
+     */
+    List<Result> runAll(List<String> classNames) throws InterruptedException {
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = new ArrayList<Future<Result>>(classNames.size());
+            for (var className : classNames) {
+                futures.add(executor.submit((Callable<Result>) () -> run(className)));
+            }
+
+            var results = new ArrayList<Result>(classNames.size());
+            for (var future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // run() catches everything, so this is a bug in the runner itself
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the round trip of a single class.
+     *
+     * @param className the fully qualified name of the class
+     * @return the result, whether the round trip succeeded or not
+     */
+    static Result run(String className) {
+        var result = new Result(className);
+        try {
+            roundTrip(result);
+        } catch (Throwable t) {
+            var message = String.valueOf(t.getMessage());
+            if (message.trim().startsWith("Expecting:")) {
+                message = "RoundTrip discrepancy. Output length: " + message.length();
+            }
+            result.error = message;
+        }
+        return result;
+    }
+
+    /**
+     * Runs the round trip of a single class, failing with the original assertion error.
+     *
+     * @param className the fully qualified name of the class
+     */
+    static void roundTrip(String className) {
+        roundTrip(new Result(className));
+    }
+
+    private static void roundTrip(Result result) {
+        var start = System.nanoTime();
+        var disassembly = disassemble(result.className);
+        var disassembled = System.nanoTime();
+        result.disassembleNanos = disassembled - start;
+
+        var assembly = assemble(disassembly);
+        var assembled = System.nanoTime();
+        result.assembleNanos = assembled - disassembled;
+
+        var roundTripDisassembly = disassemble(assembly);
+        result.reDisassembleNanos = System.nanoTime() - assembled;
+
+        assertThat(roundTripDisassembly)
+                .isEqualTo(disassembly);
+    }
+
+    private static Disassembly disassemble(String className) {
+        // arrange
+        var dsm = Disassemblers.fromClassName(
+                className,
+                new JdsmAssertingErrorListener(),
+                true
+        );
+
+        // act
+        var disassembly = dsm.disassemble();
+
+        // assert
+        var jvmClassName = TestUtil.toJvmClassName(className);
+        var regexSafeJvmClassName = TestUtil.escapeJvmClassNameForRegex(jvmClassName);
+        assertThat(disassembly)
+                .isNotNull()
+                .hasJvmClassName(jvmClassName)
+                .containsSourcePattern("\\.class.*" + regexSafeJvmClassName + "\\n");
+
+        return disassembly;
+    }
+
+    private static Disassembly disassemble(Assembly assembly) {
+        // arrange
+        var dsm = Disassemblers.fromBinary(
+                assembly.getBinaryData(),
+                assembly.getJvmClassName(),
+                new JdsmAssertingErrorListener(),
+                true
+        );
+
+        // act
+        var disassembly = dsm.disassemble();
+
+        // assert
+        var jvmClassName = assembly.getJvmClassName();
+        var regexSafeJvmClassName = TestUtil.escapeJvmClassNameForRegex(jvmClassName);
+        assertThat(disassembly)
+                .isNotNull()
+                .hasJvmClassName(jvmClassName)
+                .containsSourcePattern("\\.class.*" + regexSafeJvmClassName + "\\n");
+
+        return disassembly;
+    }
+
+    private static Assembly assemble(Disassembly disassembly) {
+        // arrange
+        var asm = Assemblers.fromString(
+                disassembly.getJasmSourceCode(),
+                disassembly.getJvmClassName(),
+                new JasmAssertingErrorListener(),
+                true
+        );
+
+        // act
+        var assembly = asm.assemble();
+
+        // assert
+        assertThat(assembly)
+                .as("assembly not expected to be null")
+                .isNotNull();
+
+        return assembly;
+    }
+
+    /**
+     * The outcome of a single round trip. Phases that have not been reached because of an
+     * earlier failure are {@code -1}.
+     */
+    static final class Result {
+
+        private final String className;
+        private long disassembleNanos = -1;
+        private long assembleNanos = -1;
+        private long reDisassembleNanos = -1;
+        private String error;
+
+        private Result(String className) {
+            this.className = className;
+        }
+
+        String getClassName() {
+            return className;
+        }
+
+        long getDisassembleNanos() {
+            return disassembleNanos;
+        }
+
+        long getAssembleNanos() {
+            return assembleNanos;
+        }
+
+        long getReDisassembleNanos() {
+            return reDisassembleNanos;
+        }
+
+        /**
+         * Returns the time of all three phases, or {@code -1} if the round trip did not get
+         * through all of them.
+         */
+        long getTotalNanos() {
+            if (reDisassembleNanos < 0) {
+                return -1;
+            }
+            return disassembleNanos + assembleNanos + reDisassembleNanos;
+        }
+
+        boolean isPassed() {
+            return error == null;
+        }
+
+        String getError() {
+            return error;
+        }
+
+    }
+
+}
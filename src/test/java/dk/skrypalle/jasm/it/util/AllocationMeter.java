@@ -0,0 +1,87 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.util;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the number of bytes allocated by the current thread, as reported by the allocation
+ * counters of {@link ThreadMXBean}.
+ *
+ * <p>The counters are specific to HotSpot. Work handed off to other threads is not accounted for.
+ */
+public final class AllocationMeter {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = getThreadBean();
+
+    /**
+     * Returns whether the JVM supports and enables per-thread allocation counters.
+     *
+     * @return {@code true} if allocations can be measured
+     */
+    public static boolean isSupported() {
+        return THREAD_MX_BEAN != null && THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Returns the number of bytes the current thread allocates while running the provided action.
+     *
+     * <p>The action is run {@code warmupRuns} times first, to let the JIT compiler settle, and is
+     * then measured {@code runs} times. The fewest bytes of any measured run are reported, since
+     * allocations the JIT compiler eliminates in one run may still show up in another.
+     *
+     * @param action     the action to measure
+     * @param warmupRuns the number of unmeasured runs
+     * @param runs       the number of measured runs
+     * @return the fewest bytes allocated by a single run of the action
+     * @throws IllegalStateException if allocations cannot be measured
+     */
+    public static long measure(Runnable action, int warmupRuns, int runs) {
+        if (!isSupported()) {
+            throw new IllegalStateException("thread allocation counters are not supported");
+        }
+
+        for (int i = 0; i < warmupRuns; i++) {
+            action.run();
+        }
+
+        var threadId = Thread.currentThread().getId();
+        var fewest = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            var before = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+            action.run();
+            var allocated = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - before;
+            fewest = Math.min(fewest, allocated);
+        }
+        return fewest;
+    }
+
+    private static ThreadMXBean getThreadBean() {
+        var threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof ThreadMXBean
+                && ((ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            return (ThreadMXBean) threadBean;
+        }
+        return null;
+    }
+
+    private AllocationMeter() { /* static utility */ }
+
+}
@@ -0,0 +1,291 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright © 2018 Peter Skrypalle
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dk.skrypalle.jasm.it.util;
+
+import dk.skrypalle.jasm.disassembler.DisassemblerOptions;
+import dk.skrypalle.jasm.disassembler.Disassemblers;
+import dk.skrypalle.jasm.it.disassembler.JdsmAssertingErrorListener;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Generates synthetic classes which push a single class file limit towards its maximum, e.g. a
+ * method close to the 64 KiB code limit or a constant pool with close to 65,535 entries.
+ *
+ * <p>Every {@linkplain Axis} is parameterized by a size, which scales the generated class along
+ * that axis only. The generated classes are available as binary class files and, via the
+ * disassembler, as jasm source code.
+ */
+public final class ScalingCorpus {
+
+    private static final int CONSTANTS_PER_METHOD = 8_192;
+    private static final int SWITCH_TARGETS = 16;
+
+    /**
+     * The class file limit a generated class pushes towards.
+     */
+    public enum Axis {
+
+        /**
+         * A single method of {@code size} bytes of code.
+         */
+        CODE_SIZE("CodeSize", 65_532),
+
+        /**
+         * {@code size} distinct string constants, each occupying two constant pool entries.
+         */
+        CONSTANT_POOL("ConstantPool", 32_000),
+
+        /**
+         * A single method with {@code size} labels, each of which is a branch target.
+         */
+        LABELS("Labels", 16_000),
+
+        /**
+         * A method signature of generic types nested {@code size} levels deep.
+         */
+        GENERIC_DEPTH("GenericDepth", 1_024),
+
+        /**
+         * A single {@code lookupswitch} instruction of {@code size} keys.
+         */
+        LOOKUPSWITCH("Lookupswitch", 8_000);
+
+        private final String jvmClassName;
+        private final int maxSize;
+
+        Axis(String jvmClassName, int maxSize) {
+            this.jvmClassName = jvmClassName;
+            this.maxSize = maxSize;
+        }
+
+        public String getJvmClassName() {
+            return jvmClassName;
+        }
+
+        /**
+         * Returns the largest size along this axis which still yields a valid class file.
+         *
+         * @return the largest size along this axis
+         */
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+    }
+
+    /**
+     * Generates a class scaled to {@code size} along the provided axis.
+     *
+     * @param axis the axis to scale along
+     * @param size the size along the axis, between {@code 1} and {@link Axis#getMaxSize()}
+     * @return the binary class file
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    public static byte[] generateClass(Axis axis, int size) {
+        if (size < 1 || size > axis.getMaxSize()) {
+            throw new IllegalArgumentException(String.format(
+                    "size of %s must be between 1 and %d, but was %d",
+                    axis,
+                    axis.getMaxSize(),
+                    size
+            ));
+        }
+
+        var cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        cw.visit(
+                Opcodes.V1_8,
+                Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER,
+                axis.getJvmClassName(),
+                null,
+                "java/lang/Object",
+                null
+        );
+
+        switch (axis) {
+            case CODE_SIZE:
+                generateCodeSize(cw, size);
+                break;
+            case CONSTANT_POOL:
+                generateConstantPool(cw, size);
+                break;
+            case LABELS:
+                generateLabels(cw, size);
+                break;
+            case GENERIC_DEPTH:
+                generateGenericDepth(cw, size);
+                break;
+            case LOOKUPSWITCH:
+                generateLookupswitch(cw, size);
+                break;
+            default:
+                throw new IllegalStateException("unreachable");
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * Generates a class scaled to {@code size} along the provided axis and disassembles it.
+     *
+     * @param axis the axis to scale along
+     * @param size the size along the axis, between {@code 1} and {@link Axis#getMaxSize()}
+     * @return the jasm source code of the class
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    public static String generateJasm(Axis axis, int size) {
+        var disassembly = Disassemblers.fromBinary(
+                generateClass(axis, size),
+                axis.getJvmClassName(),
+                DisassemblerOptions.defaults(),
+                new JdsmAssertingErrorListener(),
+                true
+        ).disassemble();
+
+        if (disassembly == null) {
+            throw new IllegalStateException("could not disassemble " + axis.getJvmClassName());
+        }
+        return disassembly.getJasmSourceCode();
+    }
+
+    /**
+     * {@code iload_0 iconst_1 iadd istore_0} - 4 bytes per block, plus {@code iload_0 ireturn}.
+     */
+    private static void generateCodeSize(ClassWriter cw, int size) {
+        var mv = visitStaticMethod(cw, "code", "(I)I");
+        for (int i = 0; i < (size - 2) / 4; i++) {
+            mv.visitVarInsn(Opcodes.ILOAD, 0);
+            mv.visitInsn(Opcodes.ICONST_1);
+            mv.visitInsn(Opcodes.IADD);
+            mv.visitVarInsn(Opcodes.ISTORE, 0);
+        }
+        mv.visitVarInsn(Opcodes.ILOAD, 0);
+        mv.visitInsn(Opcodes.IRETURN);
+        visitEnd(mv);
+    }
+
+    /**
+     * {@code ldc "constant_i" pop} - 4 bytes per constant, spread across as many methods as
+     * necessary to stay clear of the code limit.
+     */
+    private static void generateConstantPool(ClassWriter cw, int size) {
+        for (int first = 0; first < size; first += CONSTANTS_PER_METHOD) {
+            var mv = visitStaticMethod(cw, "constants_" + first / CONSTANTS_PER_METHOD, "()V");
+            for (int i = first; i < Math.min(size, first + CONSTANTS_PER_METHOD); i++) {
+                mv.visitLdcInsn("constant_" + i);
+                mv.visitInsn(Opcodes.POP);
+            }
+            mv.visitInsn(Opcodes.RETURN);
+            visitEnd(mv);
+        }
+    }
+
+    /**
+     * {@code iload_0 ifeq label_i label_i:} - 4 bytes and one stack map frame per label.
+     */
+    private static void generateLabels(ClassWriter cw, int size) {
+        var mv = visitStaticMethod(cw, "labels", "(I)V");
+        for (int i = 0; i < size; i++) {
+            var label = new Label();
+            mv.visitVarInsn(Opcodes.ILOAD, 0);
+            mv.visitJumpInsn(Opcodes.IFEQ, label);
+            mv.visitLabel(label);
+        }
+        mv.visitInsn(Opcodes.RETURN);
+        visitEnd(mv);
+    }
+
+    /**
+     * {@code <T:Ljava/util/List<Ljava/util/List<...Ljava/lang/String;>;...>;>(TT;)V}.
+     */
+    private static void generateGenericDepth(ClassWriter cw, int size) {
+        var type = new StringBuilder();
+        type.append("Ljava/util/List<".repeat(size));
+        type.append("Ljava/lang/String;");
+        type.append(">;".repeat(size));
+
+        var signature = "<T:" + type + ">(TT;)V";
+        var mv = cw.visitMethod(
+                Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                "nested",
+                "(Ljava/util/List;)V",
+                signature,
+                null
+        );
+        mv.visitCode();
+        mv.visitInsn(Opcodes.RETURN);
+        visitEnd(mv);
+    }
+
+    /**
+     * {@code lookupswitch} of sparse keys, jumping to one of up to {@value #SWITCH_TARGETS}
+     * targets - 8 bytes per key.
+     */
+    private static void generateLookupswitch(ClassWriter cw, int size) {
+        var keys = new int[size];
+        var labels = new Label[size];
+        var targets = new Label[Math.min(size, SWITCH_TARGETS)];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = new Label();
+        }
+        for (int i = 0; i < size; i++) {
+            keys[i] = i * 3;
+            labels[i] = targets[i % targets.length];
+        }
+        var defaultTarget = new Label();
+
+        var mv = visitStaticMethod(cw, "lookupswitch", "(I)I");
+        mv.visitVarInsn(Opcodes.ILOAD, 0);
+        mv.visitLookupSwitchInsn(defaultTarget, keys, labels);
+        for (int i = 0; i < targets.length; i++) {
+            mv.visitLabel(targets[i]);
+            mv.visitIntInsn(Opcodes.BIPUSH, i);
+            mv.visitInsn(Opcodes.IRETURN);
+        }
+        mv.visitLabel(defaultTarget);
+        mv.visitInsn(Opcodes.ICONST_M1);
+        mv.visitInsn(Opcodes.IRETURN);
+        visitEnd(mv);
+    }
+
+    private static MethodVisitor visitStaticMethod(
+            ClassWriter cw,
+            String name,
+            String descriptor) {
+        var mv = cw.visitMethod(
+                Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                name,
+                descriptor,
+                null,
+                null
+        );
+        mv.visitCode();
+        return mv;
+    }
+
+    private static void visitEnd(MethodVisitor mv) {
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private ScalingCorpus() { /* static utility */ }
+
+}
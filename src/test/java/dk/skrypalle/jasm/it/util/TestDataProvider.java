@@ -74,6 +74,33 @@ public final class TestDataProvider {
                 .toArray(Object[][]::new);
     }
 
+    /**
+     * Returns the corpus of {@linkplain #provideJasmSourceFiles()} plus the sources declaring
+     * explicit stack map frames. The latter only survive a round trip if the frames are
+     * disassembled as well.
+     *
+     * @return the jASM source files including those declaring stack map frames
+     * @throws IOException if the resources cannot be located
+     */
+    @DataProvider(parallel = true)
+    public static Object[][] provideJasmSourceFilesWithFrames() throws IOException {
+        return ResourceLocator.locateResources(
+                ".*assembler[/|\\\\](frames[/|\\\\])?[^/|\\\\]+\\.jasm$"
+        ).stream()
+                .map(path -> new Object[]{Paths.get(path)})
+                .toArray(Object[][]::new);
+    }
+
+    /**
+     * Returns the JDK version the JDK tests run against, e.g. {@code se12}, as configured by the
+     * {@code testJdkVersion} system property.
+     *
+     * @return the JDK version
+     */
+    public static String getJdkVersion() {
+        return parseJdkVersion();
+    }
+
     private static String parseJdkVersion() {
         var defaultValue = String.format("se%d", SUPPORTED_JDK_VERSIONS[0]);
         var propertyValue = System.getProperty("testJdkVersion", defaultValue);